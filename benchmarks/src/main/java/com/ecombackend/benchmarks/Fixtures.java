@@ -0,0 +1,146 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.entity.Address;
+import com.ecombackend.entity.Cart;
+import com.ecombackend.entity.CartItem;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Order;
+import com.ecombackend.entity.OrderItem;
+import com.ecombackend.entity.Payment;
+import com.ecombackend.entity.Product;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
+import com.ecombackend.search.SearchDocument;
+import org.mockito.Mockito;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic entity graphs shared by the benchmarks. Everything is built
+ * from a fixed seed so that two runs measure the same data.
+ */
+final class Fixtures {
+    private static final String[] ADJECTIVES = {
+            "wireless", "portable", "premium", "compact", "ergonomic", "smart", "classic", "rugged",
+            "organic", "stainless", "vintage", "ultra", "foldable", "waterproof", "quiet", "leather"};
+    static final String[] NOUNS = {
+            "headphones", "charger", "keyboard", "backpack", "bottle", "lamp", "speaker", "jacket",
+            "blender", "monitor", "camera", "watch", "sneakers", "kettle", "tripod", "mouse"};
+    private static final String[] DETAILS = {
+            "with long battery life", "for travel and office", "in matte black", "made from recycled materials",
+            "with fast charging", "for everyday use", "with two year warranty", "in a gift box"};
+
+    private Fixtures() {
+    }
+
+    static <T> T stub(Class<T> type) {
+        return Mockito.mock(type, Mockito.withSettings().stubOnly());
+    }
+
+    static Category category(long categoryId) {
+        Category category = new Category();
+        category.setCategoryId(categoryId);
+        category.setCategoryName("Category " + categoryId);
+        return category;
+    }
+
+    static Product product(long productId, SplittableRandom random) {
+        Product product = new Product();
+        product.setProductId(productId);
+        product.setProductName(productName(random));
+        product.setProductDescription(productDescription(random));
+        product.setImageUrl("default.png");
+        product.setQuantity(1_000_000);
+        product.setPrice(500 + random.nextInt(2_000) * 100L + random.nextInt(100));
+        product.setDiscount(random.nextInt(60) * Money.BASIS_POINTS_PER_PERCENT);
+        product.setSpecialPrice(PriceCalculator.specialPrice(product.getPrice(), product.getDiscount()));
+        product.setCategory(category(1 + random.nextInt(20)));
+        return product;
+    }
+
+    static SearchDocument searchDocument(long productId, SplittableRandom random) {
+        Product product = product(productId, random);
+        return new SearchDocument(productId, product.getProductName(), product.getProductDescription(),
+                product.getPrice(), product.getDiscount(), product.getSpecialPrice(), random.nextInt(1_000));
+    }
+
+    static Cart cart(long cartId, int items, SplittableRandom random) {
+        Cart cart = new Cart();
+        cart.setCartId(cartId);
+        List<CartItem> cartItems = new ArrayList<>(items);
+        long total = 0;
+        for (int i = 0; i < items; i++) {
+            Product product = product(i + 1, random);
+            CartItem cartItem = new CartItem();
+            cartItem.setCartItemId((long) i + 1);
+            cartItem.setCart(cart);
+            cartItem.setProduct(product);
+            cartItem.setQuantity(1 + random.nextInt(5));
+            cartItem.setDiscount(product.getDiscount());
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItems.add(cartItem);
+            total = PriceCalculator.addLine(total, cartItem.getProductPrice(), cartItem.getQuantity());
+        }
+        cart.setCartItems(cartItems);
+        cart.setTotalAmount(total);
+        return cart;
+    }
+
+    static Address address(long addressId) {
+        Address address = new Address();
+        address.setAddressId(addressId);
+        address.setStreet("12 Market Street");
+        address.setBuildingName("Harbour View");
+        address.setCity("Pune");
+        address.setState("Maharashtra");
+        address.setCountry("India");
+        address.setPincode("411001");
+        return address;
+    }
+
+    static Order order(long orderId, int items, SplittableRandom random) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setEmail("buyer" + orderId + "@example.com");
+        order.setOrderDate(LocalDate.of(2025, 1, 1).plusDays(orderId % 365));
+        order.setOrderStatus("Order Accepted !");
+        order.setAddress(address(orderId));
+
+        Payment payment = new Payment("card", "pi_" + orderId, "succeeded", "Payment successful", "Stripe");
+        payment.setPaymentId(orderId);
+        payment.setOrder(order);
+        order.setPayment(payment);
+
+        long total = 0;
+        for (int i = 0; i < items; i++) {
+            Product product = product(i + 1, random);
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrderItemId(orderId * 100 + i);
+            orderItem.setOrder(order);
+            orderItem.setProduct(product);
+            orderItem.setQuantity(1 + random.nextInt(5));
+            orderItem.setDiscount(product.getDiscount());
+            orderItem.setOrderedProductPrice(product.getSpecialPrice());
+            order.getOrderItems().add(orderItem);
+            total = PriceCalculator.addLine(total, orderItem.getOrderedProductPrice(), orderItem.getQuantity());
+        }
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    static String productName(SplittableRandom random) {
+        return pick(ADJECTIVES, random) + " " + pick(NOUNS, random) + " " + (100 + random.nextInt(900));
+    }
+
+    static String productDescription(SplittableRandom random) {
+        return "A " + pick(ADJECTIVES, random) + " " + pick(ADJECTIVES, random) + " " + pick(NOUNS, random)
+                + " " + pick(DETAILS, random) + ", " + pick(DETAILS, random) + ".";
+    }
+
+    static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.security.jwt.JwtUtils;
+import com.ecombackend.security.service.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification as done on login and on every authenticated
+ * request by {@code AuthTokenFilter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private JwtUtils jwtUtils;
+    private JwtUtils uncachedJwtUtils;
+    private UserDetailsImpl user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[64];
+        new SplittableRandom(42).nextBytes(secret);
+        String encodedSecret = Base64.getEncoder().encodeToString(secret);
+
+        jwtUtils = new JwtUtils(encodedSecret, 3_600_000, "ecomJwt", 10_000, new SimpleMeterRegistry());
+        uncachedJwtUtils = new JwtUtils(encodedSecret, 3_600_000, "ecomJwt", 0, new SimpleMeterRegistry());
+        user = new UserDetailsImpl(1L, "benchmark-user", "benchmark-user@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+
+    /**
+     * Signature check and claim extraction, as for the first request carrying
+     * a token.
+     */
+    @Benchmark
+    public UserDetailsImpl authenticateRequestUncached() {
+        return uncachedJwtUtils.getUserDetailsFromJwtToken(token);
+    }
+
+    /**
+     * A request repeating a token that has already been verified.
+     */
+    @Benchmark
+    public UserDetailsImpl authenticateRequestCached() {
+        return jwtUtils.getUserDetailsFromJwtToken(token);
+    }
+}
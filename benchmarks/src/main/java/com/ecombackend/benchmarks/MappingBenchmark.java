@@ -0,0 +1,82 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.dto.OrderDTO;
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Order;
+import com.ecombackend.entity.Product;
+import com.ecombackend.mapper.OrderMapper;
+import com.ecombackend.mapper.OrderMapperImpl;
+import com.ecombackend.mapper.ProductMapper;
+import com.ecombackend.mapper.ProductMapperImpl;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping with the generated MapStruct mappers, against the
+ * reflective ModelMapper they replaced as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+    @Param({"1", "20"})
+    public int orderItems;
+
+    private ProductMapper productMapper;
+    private OrderMapper orderMapper;
+    private ModelMapper modelMapper;
+    private Product product;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapperImpl();
+        orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "productMapper", productMapper);
+        modelMapper = new ModelMapper();
+
+        SplittableRandom random = new SplittableRandom(42);
+        product = Fixtures.product(1, random);
+        order = Fixtures.order(1, orderItems, random);
+
+        modelMapper.map(product, ProductDTO.class);
+        modelMapper.map(order, OrderDTO.class);
+    }
+
+    @Benchmark
+    public ProductDTO productMapStruct() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public ProductDTO productModelMapper() {
+        return modelMapper.map(product, ProductDTO.class);
+    }
+
+    @Benchmark
+    public OrderDTO orderMapStruct() {
+        return orderMapper.toDto(order);
+    }
+
+    @Benchmark
+    public OrderDTO orderModelMapper() {
+        return modelMapper.map(order, OrderDTO.class);
+    }
+}
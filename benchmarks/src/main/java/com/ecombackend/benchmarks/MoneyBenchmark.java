@@ -0,0 +1,92 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Special prices and cart totals computed with {@link PriceCalculator} on
+ * cents, against the boxed {@code Double} arithmetic the services used
+ * before as a baseline. Run with {@code -prof gc} to compare allocation
+ * rates as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoneyBenchmark {
+    @Param({"5", "50", "500"})
+    public int lines;
+
+    private Double[] boxedPrices;
+    private Double[] boxedDiscounts;
+    private long[] prices;
+    private int[] discounts;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        boxedPrices = new Double[lines];
+        boxedDiscounts = new Double[lines];
+        prices = new long[lines];
+        discounts = new int[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = 500 + random.nextInt(2_000) * 100L + random.nextInt(100);
+            discounts[i] = random.nextInt(60) * Money.BASIS_POINTS_PER_PERCENT;
+            quantities[i] = 1 + random.nextInt(5);
+            boxedPrices[i] = Money.toAmount(prices[i]);
+            boxedDiscounts[i] = Money.toPercent(discounts[i]);
+        }
+    }
+
+    @Benchmark
+    public void specialPricesBoxed(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            Double specialPrice = boxedPrices[i] - ((boxedDiscounts[i] * 0.01) * boxedPrices[i]);
+            blackhole.consume(specialPrice);
+        }
+    }
+
+    @Benchmark
+    public void specialPricesCents(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            blackhole.consume(PriceCalculator.specialPrice(prices[i], discounts[i]));
+        }
+    }
+
+    @Benchmark
+    public Double cartTotalBoxed() {
+        Double total = 0.0;
+        for (int i = 0; i < lines; i++) {
+            total += boxedPrices[i] * quantities[i];
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long cartTotalCents() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = PriceCalculator.addLine(total, prices[i], quantities[i]);
+        }
+        return total;
+    }
+}
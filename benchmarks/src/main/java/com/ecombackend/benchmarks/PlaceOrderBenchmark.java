@@ -0,0 +1,103 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.dto.OrderDTO;
+import com.ecombackend.entity.Cart;
+import com.ecombackend.mapper.OrderMapperImpl;
+import com.ecombackend.mapper.ProductMapperImpl;
+import com.ecombackend.pagination.CursorCodec;
+import com.ecombackend.repository.AddressRepository;
+import com.ecombackend.repository.CartItemRepository;
+import com.ecombackend.repository.CartRepository;
+import com.ecombackend.repository.OrderItemRepository;
+import com.ecombackend.repository.OrderRepository;
+import com.ecombackend.repository.PaymentRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.security.utils.AuthUtil;
+import com.ecombackend.service.CartService;
+import com.ecombackend.service.impl.OrderServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+/**
+ * Order assembly in {@link OrderServiceImpl#placeOrder}: collecting the stock
+ * reservation, building the order, payment and order items from the cart and
+ * mapping the result, with the persistence calls stubbed out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlaceOrderBenchmark {
+    private static final String EMAIL = "buyer@example.com";
+    private static final Long ADDRESS_ID = 1L;
+
+    @Param({"1", "10", "50"})
+    public int cartItems;
+
+    private OrderServiceImpl orderService;
+
+    @Setup
+    public void setUp() {
+        Cart cart = Fixtures.cart(1, cartItems, new SplittableRandom(42));
+
+        CartRepository cartRepository = Fixtures.stub(CartRepository.class);
+        when(cartRepository.findCartByEmailForChange(EMAIL)).thenReturn(cart);
+
+        AddressRepository addressRepository = Fixtures.stub(AddressRepository.class);
+        when(addressRepository.findById(anyLong())).thenReturn(Optional.of(Fixtures.address(ADDRESS_ID)));
+
+        OrderItemRepository orderItemRepository = Fixtures.stub(OrderItemRepository.class);
+        when(orderItemRepository.saveAll(any())).then(returnsFirstArg());
+        OrderRepository orderRepository = Fixtures.stub(OrderRepository.class);
+        when(orderRepository.save(any())).then(returnsFirstArg());
+        PaymentRepository paymentRepository = Fixtures.stub(PaymentRepository.class);
+        when(paymentRepository.save(any())).then(returnsFirstArg());
+        ProductRepository productRepository = Fixtures.stub(ProductRepository.class);
+        when(productRepository.reserveStock(anyMap())).then(invocation -> invocation.<Map<?, ?>>getArgument(0).size());
+
+        CartService cartService = Fixtures.stub(CartService.class);
+        when(cartService.checkout(any(), any())).then(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
+        OrderMapperImpl orderMapper = new OrderMapperImpl();
+        ReflectionTestUtils.setField(orderMapper, "productMapper", new ProductMapperImpl());
+
+        orderService = new OrderServiceImpl(cartRepository, Fixtures.stub(CartItemRepository.class),
+                addressRepository, orderItemRepository, orderRepository, paymentRepository, orderMapper,
+                productRepository, Fixtures.stub(AuthUtil.class), Fixtures.stub(CursorCodec.class), cartService,
+                new TransactionTemplate(Fixtures.stub(PlatformTransactionManager.class)),
+                Fixtures.stub(ApplicationEventPublisher.class));
+    }
+
+    @Benchmark
+    public OrderDTO placeOrder() {
+        return orderService.placeOrder(EMAIL, ADDRESS_ID, "card", "Stripe",
+                "pi_benchmark", "succeeded", "Payment successful");
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.cache.CatalogCache;
+import com.ecombackend.dto.CartItemDTO;
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Cart;
+import com.ecombackend.entity.CartItem;
+import com.ecombackend.entity.Product;
+import com.ecombackend.mapper.CartMapperImpl;
+import com.ecombackend.mapper.ProductMapperImpl;
+import com.ecombackend.pagination.CursorCodec;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.repository.CartItemRepository;
+import com.ecombackend.repository.CartRepository;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.search.ProductSearchIndex;
+import com.ecombackend.security.utils.AuthUtil;
+import com.ecombackend.service.CartService;
+import com.ecombackend.service.FileService;
+import com.ecombackend.service.ImageRenditionService;
+import com.ecombackend.service.impl.CartServiceImpl;
+import com.ecombackend.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Special-price computation on product update and cart total recomputation
+ * in {@link CartServiceImpl}. Repositories are stub-only mocks, so the
+ * numbers cover the service code and not the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingBenchmark {
+    @Param({"5", "50"})
+    public int cartItems;
+
+    private ProductServiceImpl productService;
+    private CartServiceImpl cartService;
+    private ProductDTO productUpdate;
+    private List<CartItemDTO> cartRequest;
+    private Cart cart;
+    private Long repricedProductId;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        cart = Fixtures.cart(1, cartItems, random);
+
+        Map<Long, Product> products = new HashMap<>();
+        cartRequest = new ArrayList<>(cartItems);
+        for (CartItem item : cart.getCartItems()) {
+            products.put(item.getProduct().getProductId(), item.getProduct());
+            cartRequest.add(new CartItemDTO(item.getProduct().getProductId(), item.getQuantity()));
+        }
+        CartItem repricedItem = cart.getCartItems().get(0);
+        repricedProductId = repricedItem.getProduct().getProductId();
+
+        ProductRepository productRepository = Fixtures.stub(ProductRepository.class);
+        when(productRepository.findById(anyLong()))
+                .thenAnswer(invocation -> Optional.ofNullable(products.get(invocation.<Long>getArgument(0))));
+        when(productRepository.save(any())).then(returnsFirstArg());
+
+        CartRepository cartRepository = Fixtures.stub(CartRepository.class);
+        when(cartRepository.findByIdForChange(anyLong())).thenReturn(Optional.of(cart));
+        when(cartRepository.findCartByEmailForChange(any())).thenReturn(cart);
+        when(cartRepository.save(any())).then(returnsFirstArg());
+
+        CartItemRepository cartItemRepository = Fixtures.stub(CartItemRepository.class);
+        when(cartItemRepository.save(any())).then(returnsFirstArg());
+
+        AuthUtil authUtil = Fixtures.stub(AuthUtil.class);
+        when(authUtil.loggedInEmail()).thenReturn("buyer@example.com");
+
+        productService = new ProductServiceImpl(Fixtures.stub(CategoryRepository.class), productRepository,
+                new ProductMapperImpl(), Fixtures.stub(FileService.class),
+                Fixtures.stub(ImageRenditionService.class), Fixtures.stub(CatalogCache.class),
+                Fixtures.stub(ProductSearchIndex.class), Fixtures.stub(CartService.class),
+                Fixtures.stub(CursorCodec.class), Fixtures.stub(ApplicationEventPublisher.class));
+        cartService = new CartServiceImpl(cartRepository, authUtil, productRepository, cartItemRepository,
+                new CartMapperImpl(), new TransactionTemplate(Fixtures.stub(PlatformTransactionManager.class)), 1);
+
+        Product product = repricedItem.getProduct();
+        productUpdate = new ProductDTO(product.getProductId(), product.getProductName(), product.getImageUrl(),
+                null, null, product.getProductDescription(), product.getQuantity(), Money.toAmount(product.getPrice()), 15.0, null);
+    }
+
+    @Benchmark
+    public ProductDTO updateProductSpecialPrice() {
+        return productService.updateProduct(productUpdate.getProductId(), productUpdate);
+    }
+
+    @Benchmark
+    public long repriceProductInCart() {
+        cartService.updateProductInCarts(cart.getCartId(), repricedProductId);
+        return cart.getTotalAmount();
+    }
+
+    @Benchmark
+    public long rebuildCartTotals() {
+        cartService.createOrUpdateCartWithItems(cartRequest);
+        return cart.getTotalAmount();
+    }
+}
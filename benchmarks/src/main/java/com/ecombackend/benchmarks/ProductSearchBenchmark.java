@@ -0,0 +1,90 @@
+package com.ecombackend.benchmarks;
+
+import com.ecombackend.search.ProductSearchIndex;
+import com.ecombackend.search.SearchHits;
+import com.ecombackend.search.SearchSortField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search against the in-memory index, up to a million synthetic
+ * products, ranked by relevance or sorted by price. {@code everyProductMatches}
+ * scores a query that matches every product, the worst case for one search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductSearchBenchmark {
+    private static final String[] QUERIES = {
+            "wireless headphones", "stainless bottle", "portable speaker with fast charging",
+            "leather jacket", "smart watch", "quiet blender", "camera tripod"};
+    private static final String EVERY_NOUN = String.join(" ", Fixtures.NOUNS);
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private ProductSearchIndex index;
+    private long nextProductId;
+    private int nextQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        index = new ProductSearchIndex();
+        for (long productId = 1; productId <= products; productId++) {
+            index.index(Fixtures.searchDocument(productId, random));
+        }
+        nextProductId = products + 1L;
+    }
+
+    @Benchmark
+    public SearchHits firstPage() {
+        return index.search(nextQuery(), 0, 10);
+    }
+
+    @Benchmark
+    public SearchHits deepPage() {
+        return index.search(nextQuery(), 500, 10);
+    }
+
+    @Benchmark
+    public SearchHits sortedByPrice() {
+        return index.search(nextQuery(), SearchSortField.PRICE, true, 990, 10);
+    }
+
+    @Benchmark
+    public SearchHits everyProductMatches() {
+        return index.search(EVERY_NOUN, 0, 10);
+    }
+
+    @Benchmark
+    public SearchHits misspelledQuery() {
+        return index.search("wireles headphnes", 0, 10);
+    }
+
+    @Benchmark
+    public void reindexProduct() {
+        SplittableRandom random = new SplittableRandom(nextProductId);
+        index.index(Fixtures.searchDocument(nextProductId++ % products + 1, random));
+    }
+
+    private String nextQuery() {
+        return QUERIES[nextQuery++ % QUERIES.length];
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecombackend.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin HTTP client for the running application, shared by the load driver
+ * and the consistency checks. Requests are authenticated with the JWT cookie
+ * returned by {@link #login}.
+ */
+public class ApiClient {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String cookieName;
+    private final ObjectMapper objectMapper;
+
+    public ApiClient(String baseUrl, String cookieName, ObjectMapper objectMapper) {
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        this.baseUrl = baseUrl;
+        this.cookieName = cookieName;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Signs in and returns the {@code name=value} cookie to send with later
+     * requests.
+     */
+    public String login(String userName, String password) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(
+                post("/api/auth/signin", Map.of("username", userName, "password", password)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        return response.headers().allValues("Set-Cookie").stream()
+                .map(header -> header.split(";", 2)[0])
+                .filter(cookie -> cookie.startsWith(cookieName + "="))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Login failed for " + userName
+                        + " with status " + response.statusCode()));
+    }
+
+    /**
+     * Sends the request, discarding the body, and returns the status code.
+     */
+    public int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return exchange(request).statusCode();
+    }
+
+    /**
+     * Sends the request, discarding the body, and returns the response for
+     * callers that need its headers.
+     */
+    public HttpResponse<Void> exchange(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    public HttpRequest.Builder get(String path, String cookie) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Cookie", cookie)
+                .GET();
+    }
+
+    public HttpRequest.Builder put(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .PUT(HttpRequest.BodyPublishers.noBody());
+    }
+
+    public HttpRequest.Builder post(String path, Object body) {
+        HttpRequest.BodyPublisher publisher;
+        try {
+            publisher = body == null ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(publisher);
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecombackend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms and error counts of one run. Latencies are
+ * recorded in nanoseconds with three significant digits, so p99.9 stays
+ * accurate down to the microsecond.
+ */
+public class LatencyReport {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    public void startRecording() {
+        recording = true;
+    }
+
+    public void stopRecording() {
+        recording = false;
+    }
+
+    public void record(String endpoint, long latencyNanos, boolean success) {
+        if (!recording) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.latency.recordValue(latencyNanos);
+        if (!success) {
+            stats.errors.increment();
+        }
+    }
+
+    public void print(PrintStream out, double seconds) {
+        out.printf("%n%-48s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map<String, Object> row : rows(seconds)) {
+            out.printf("%-48s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    row.get("endpoint"), row.get("requests"), row.get("errors"), row.get("throughput"),
+                    row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+    }
+
+    public void write(Path file, ObjectMapper objectMapper, double seconds, LoadTestOptions options,
+                      SeedSummary seed) throws IOException {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("finishedAt", Instant.now().toString());
+        run.put("durationSeconds", seconds);
+        run.put("concurrency", options.getConcurrency());
+        run.put("mix", options.getMix());
+        run.put("products", seed.products());
+        run.put("buyers", seed.buyers());
+        run.put("sellers", seed.sellers());
+        run.put("orders", options.getOrders());
+        run.put("endpoints", rows(seconds));
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), run);
+    }
+
+    private List<Map<String, Object>> rows(double seconds) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Histogram latency = entry.getValue().latency.copy();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("endpoint", entry.getKey());
+                    row.put("requests", latency.getTotalCount());
+                    row.put("errors", entry.getValue().errors.sum());
+                    row.put("throughput", latency.getTotalCount() / seconds);
+                    row.put("p50Ms", millis(latency.getValueAtPercentile(50)));
+                    row.put("p99Ms", millis(latency.getValueAtPercentile(99)));
+                    row.put("p999Ms", millis(latency.getValueAtPercentile(99.9)));
+                    row.put("maxMs", millis(latency.getMaxValue()));
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Endpoint {
+        private final ConcurrentHistogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,265 @@
+package com.ecombackend.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongFunction;
+
+/**
+ * Drives the running application over HTTP. Each virtual user is a virtual
+ * thread that logs in as its own seeded buyer and then loops over scenarios
+ * picked by weight, without think time, until the run ends. Nothing is
+ * recorded during the warm-up.
+ */
+public class LoadDriver {
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+    private static final String[] SORT_FIELDS = {"productId", "price", "productName"};
+    private static final int BULK_CART_ITEMS = 20;
+
+    private final ApiClient api;
+    private final LoadTestOptions options;
+    private final SeedSummary seed;
+    private final List<String> images;
+    private final LatencyReport report;
+    private final List<String> searchTerms = SyntheticDataGenerator.searchTerms();
+    private final Scenario[] weightedScenarios;
+
+    public LoadDriver(ApiClient api, LoadTestOptions options, SeedSummary seed, List<String> images,
+                      LatencyReport report) {
+        this.api = api;
+        this.options = options;
+        this.seed = seed;
+        this.images = images;
+        this.report = report;
+        this.weightedScenarios = weightedScenarios(options.getMix());
+    }
+
+    /**
+     * Runs warm-up and measurement and returns the measured wall time in
+     * seconds.
+     */
+    public double run() throws Exception {
+        String adminCookie = api.login("admin", "adminPass");
+        List<String> buyerCookies = loginBuyers();
+        List<String> sellerCookies = loginSellers();
+
+        long warmupEnd = System.nanoTime() + options.getWarmup().toNanos();
+        long end = warmupEnd + options.getDuration().toNanos();
+        long measureStart;
+        long measureEnd;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.getConcurrency(); i++) {
+                int buyer = i;
+                executor.submit(() -> virtualUser(buyer, buyerCookies.get(buyer),
+                        sellerCookies.get(buyer % sellerCookies.size()), adminCookie, end));
+            }
+            logger.info("Warming up {} virtual users for {} s", options.getConcurrency(), options.getWarmup().toSeconds());
+            sleepUntil(warmupEnd);
+            report.startRecording();
+            measureStart = System.nanoTime();
+            logger.info("Measuring for {} s", options.getDuration().toSeconds());
+            sleepUntil(end);
+            report.stopRecording();
+            measureEnd = System.nanoTime();
+        }
+        return (measureEnd - measureStart) / 1_000_000_000.0;
+    }
+
+    private List<String> loginBuyers() throws Exception {
+        return login(options.getConcurrency(), SyntheticDataGenerator::buyerName);
+    }
+
+    /**
+     * Sellers are shared round-robin when there are fewer of them than
+     * virtual users.
+     */
+    private List<String> loginSellers() throws Exception {
+        return login(Math.min(options.getConcurrency(), seed.sellers()), SyntheticDataGenerator::sellerName);
+    }
+
+    private List<String> login(int count, LongFunction<String> userNames) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> logins = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String userName = userNames.apply(i);
+                logins.add(executor.submit(() -> api.login(userName, SyntheticDataGenerator.PASSWORD)));
+            }
+            List<String> cookies = new ArrayList<>();
+            for (Future<String> login : logins) {
+                cookies.add(login.get());
+            }
+            return cookies;
+        }
+    }
+
+    private void virtualUser(int buyer, String cookie, String sellerCookie, String adminCookie, long end) {
+        SplittableRandom random = new SplittableRandom(options.getSeed() + buyer);
+        Map<String, String> etags = new HashMap<>();
+        while (System.nanoTime() < end) {
+            Scenario scenario = weightedScenarios[random.nextInt(weightedScenarios.length)];
+            switch (scenario) {
+                case BROWSE -> browse(random, cookie);
+                case SEARCH -> search(random, cookie);
+                case CART -> addToCart(random, cookie);
+                case CHECKOUT -> checkout(random, buyer, cookie);
+                case ADMIN -> adminOrders(random, adminCookie);
+                case SELLER -> sellerOrders(random, sellerCookie);
+                case BULK_CART -> bulkCart(random, cookie);
+                case POLL -> poll(random, cookie, etags);
+                case IMAGE -> image(random, cookie, "/images/");
+                case IMAGE_RESOURCE -> image(random, cookie, "/resource-images/");
+            }
+        }
+    }
+
+    private void browse(SplittableRandom random, String cookie) {
+        call("GET /api/public/products", api.get("/api/public/products?pageNumber=" + page(random)
+                + "&pageSize=10&sortBy=" + SORT_FIELDS[random.nextInt(SORT_FIELDS.length)]
+                + "&sortOrder=" + (random.nextBoolean() ? "asc" : "desc"), cookie));
+        long categoryId = seed.firstCategoryId() + random.nextInt(seed.categories());
+        call("GET /api/public/categories/{categoryId}/products", api.get("/api/public/categories/" + categoryId
+                + "/products?pageNumber=" + random.nextInt(5) + "&pageSize=10", cookie));
+    }
+
+    private void search(SplittableRandom random, String cookie) {
+        String keyword = searchTerms.get(random.nextInt(searchTerms.size()));
+        if (random.nextInt(3) == 0) {
+            keyword += " " + searchTerms.get(random.nextInt(searchTerms.size()));
+        }
+        call("GET /api/public/products/keyword/{keyword}", api.get("/api/public/products/keyword/"
+                + URLEncoder.encode(keyword, StandardCharsets.UTF_8).replace("+", "%20")
+                + "?pageNumber=0&pageSize=10", cookie));
+    }
+
+    /**
+     * Each virtual user remembers the ETag of every page it has fetched and
+     * sends it back, so unchanged pages come back as 304 without a body.
+     */
+    private void poll(SplittableRandom random, String cookie, Map<String, String> etags) {
+        String path = "/api/public/products?pageNumber=" + random.nextInt(3) + "&pageSize=10";
+        HttpRequest.Builder request = api.get(path, cookie);
+        String etag = etags.get(path);
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        HttpResponse<Void> response = call("GET /api/public/products (conditional)", request);
+        if (response != null) {
+            response.headers().firstValue("ETag").ifPresent(value -> etags.put(path, value));
+        }
+    }
+
+    /**
+     * Small and large images are reported separately, as they take different
+     * paths through the image server.
+     */
+    private void image(SplittableRandom random, String cookie, String prefix) {
+        int index = random.nextInt(images.size());
+        String size = SyntheticImageGenerator.isLarge(index) ? "{large}" : "{small}";
+        call("GET " + prefix + size, api.get(prefix + images.get(index), cookie));
+    }
+
+    private void addToCart(SplittableRandom random, String cookie) {
+        long productId = seed.firstProductId() + random.nextLong(seed.products());
+        call("POST /api/carts/products/{productId}/quantity/{quantity}",
+                api.post("/api/carts/products/" + productId + "/quantity/" + (1 + random.nextInt(3)), null)
+                        .header("Cookie", cookie));
+    }
+
+    private void bulkCart(SplittableRandom random, String cookie) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < BULK_CART_ITEMS; i++) {
+            items.add(Map.of(
+                    "productId", seed.firstProductId() + random.nextLong(seed.products()),
+                    "quantity", 1 + random.nextInt(3)));
+        }
+        call("POST /api/cart/create", api.post("/api/cart/create", items).header("Cookie", cookie));
+    }
+
+    private void checkout(SplittableRandom random, int buyer, String cookie) {
+        addToCart(random, cookie);
+        String email = SyntheticDataGenerator.buyerName(buyer) + "@example.com";
+        call("POST /api/order/stripe-client-secret", api.post("/api/order/stripe-client-secret", Map.of(
+                "amount", 1000 + random.nextInt(100_000),
+                "currency", "inr",
+                "email", email,
+                "name", SyntheticDataGenerator.buyerName(buyer),
+                "description", "Load test order")).header("Cookie", cookie));
+        call("POST /api/order/users/payments/{paymentMethod}", api.post("/api/order/users/payments/card", Map.of(
+                "addressId", seed.firstAddressId() + buyer,
+                "paymentMethod", "card",
+                "pgName", "Stripe",
+                "pgPaymentId", "pi_loadtest_" + random.nextLong(Long.MAX_VALUE),
+                "pgStatus", "succeeded",
+                "pgResponseMessage", "Payment successful")).header("Cookie", cookie));
+    }
+
+    private void adminOrders(SplittableRandom random, String adminCookie) {
+        call("GET /api/admin/orders", api.get("/api/admin/orders?pageNumber=" + page(random) + "&pageSize=20",
+                adminCookie));
+    }
+
+    private void sellerOrders(SplittableRandom random, String sellerCookie) {
+        call("GET /api/seller/orders", api.get("/api/seller/orders?pageNumber=" + random.nextInt(5) + "&pageSize=20",
+                sellerCookie));
+    }
+
+    /**
+     * Mostly the first pages, with a long tail of deeper ones.
+     */
+    private static int page(SplittableRandom random) {
+        return random.nextInt(10) < 8 ? random.nextInt(5) : random.nextInt(500);
+    }
+
+    /**
+     * Sends the request and records its latency. Returns the response, or
+     * {@code null} when the request failed before one arrived.
+     */
+    private HttpResponse<Void> call(String endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        HttpResponse<Void> response;
+        try {
+            response = api.exchange(request);
+        } catch (IOException e) {
+            response = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        report.record(endpoint, System.nanoTime() - start, response != null && response.statusCode() < 400);
+        return response;
+    }
+
+    private static Scenario[] weightedScenarios(Map<Scenario, Integer> mix) {
+        List<Scenario> scenarios = new ArrayList<>();
+        mix.forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                scenarios.add(scenario);
+            }
+        });
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("--mix must give at least one scenario a positive weight");
+        }
+        return scenarios.toArray(Scenario[]::new);
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Duration.ofNanos(remaining));
+        }
+    }
+}
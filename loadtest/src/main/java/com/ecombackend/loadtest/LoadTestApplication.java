@@ -0,0 +1,59 @@
+package com.ecombackend.loadtest;
+
+import com.ecombackend.EcomBackendApplication;
+import com.ecombackend.search.ProductSearchIndexer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Boots the application against an in-memory H2 database in PostgreSQL
+ * mode with Stripe stubbed out, seeds a synthetic data set and drives a
+ * weighted mix of browse, search, cart, checkout and admin traffic at it.
+ * Throughput and p50/p99/p99.9 latency per endpoint are printed and written
+ * to a JSON report so that builds can be compared.
+ */
+public final class LoadTestApplication {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestApplication.class);
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                EcomBackendApplication.class, LoadTestConfiguration.class)
+                .profiles("loadtest")
+                .run()) {
+            String passwordHash = context.getBean(PasswordEncoder.class).encode(SyntheticDataGenerator.PASSWORD);
+            SeedSummary seed = new SyntheticDataGenerator(context.getBean(JdbcTemplate.class), options, passwordHash)
+                    .seed();
+            context.getBean(ProductSearchIndexer.class).rebuild();
+
+            Environment environment = context.getEnvironment();
+            String baseUrl = "http://localhost:" + environment.getRequiredProperty("local.server.port");
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            LatencyReport report = new LatencyReport();
+
+            ApiClient api = new ApiClient(baseUrl, environment.getRequiredProperty("spring.ecom.app.jwtCookieName"),
+                    objectMapper);
+            List<String> images = SyntheticImageGenerator.write(
+                    Path.of(environment.getRequiredProperty("project.image")), options.getImages(), options.getSeed());
+            double seconds = new LoadDriver(api, options, seed, images, report).run();
+
+            report.print(System.out, seconds);
+            Path reportFile = Path.of(options.getReport());
+            report.write(reportFile, objectMapper, seconds, options, seed);
+            logger.info("Report written to {}", reportFile.toAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecombackend.loadtest;
+
+import com.ecombackend.service.StripeService;
+import com.stripe.model.PaymentIntent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.UUID;
+
+/**
+ * Beans that replace external services while the application runs under the
+ * load-test harness.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfiguration {
+
+    /**
+     * Answers payment intents locally instead of calling Stripe.
+     */
+    @Bean
+    @Primary
+    public StripeService stubStripeService() {
+        return stripePaymentDto -> {
+            String id = "pi_" + UUID.randomUUID().toString().replace("-", "");
+            PaymentIntent paymentIntent = new PaymentIntent();
+            paymentIntent.setId(id);
+            paymentIntent.setAmount(stripePaymentDto.getAmount());
+            paymentIntent.setCurrency(stripePaymentDto.getCurrency());
+            paymentIntent.setStatus("requires_payment_method");
+            paymentIntent.setClientSecret(id + "_secret_loadtest");
+            return paymentIntent;
+        };
+    }
+
+    /**
+     * Serves the image folder through Spring's default resource handler
+     * under {@code /resource-images}, as the baseline the image server is
+     * compared against.
+     */
+    @Bean
+    public WebMvcConfigurer resourceImagesBaseline(@Value("${project.image}") String imageFolder) {
+        String location = "file:" + (imageFolder.endsWith("/") ? imageFolder : imageFolder + "/");
+        return new WebMvcConfigurer() {
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                registry.addResourceHandler("/resource-images/**").addResourceLocations(location);
+            }
+        };
+    }
+}
@@ -0,0 +1,105 @@
+package com.ecombackend.loadtest;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the harness, given as {@code --name=value}.
+ * Every option has a default, so the harness also runs without arguments.
+ */
+@Getter
+public class LoadTestOptions {
+    private long products = 1_000_000;
+    private int categories = 200;
+    private int users = 100_000;
+    private int sellers = 1_000;
+    private int carts = 50_000;
+    private int cartItems = 3;
+    private long orders = 500_000;
+    private int orderItems = 2;
+    private int images = 200;
+    private long seed = 42;
+
+    private int concurrency = 64;
+    private Duration warmup = Duration.ofSeconds(15);
+    private Duration duration = Duration.ofSeconds(60);
+    private Map<Scenario, Integer> mix = defaultMix();
+    private String report = "loadtest-report.json";
+
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            options.set(name, value);
+        }
+        if (options.users < options.concurrency) {
+            throw new IllegalArgumentException("--users must be at least --concurrency, every virtual user logs in as its own buyer");
+        }
+        return options;
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "products" -> products = Long.parseLong(value);
+            case "categories" -> categories = Integer.parseInt(value);
+            case "users" -> users = Integer.parseInt(value);
+            case "sellers" -> sellers = Integer.parseInt(value);
+            case "carts" -> carts = Integer.parseInt(value);
+            case "cart-items" -> cartItems = Integer.parseInt(value);
+            case "orders" -> orders = Long.parseLong(value);
+            case "order-items" -> orderItems = Integer.parseInt(value);
+            case "images" -> images = Integer.parseInt(value);
+            case "seed" -> seed = Long.parseLong(value);
+            case "concurrency" -> concurrency = Integer.parseInt(value);
+            case "warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+            case "duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+            case "mix" -> mix = parseMix(value);
+            case "report" -> report = value;
+            case "scale" -> scale(Double.parseDouble(value));
+            default -> throw new IllegalArgumentException("Unknown option --" + name);
+        }
+    }
+
+    /**
+     * Scales all data set sizes at once, e.g. {@code --scale=0.01} for a quick
+     * smoke run.
+     */
+    private void scale(double factor) {
+        products = Math.max(1, Math.round(products * factor));
+        categories = (int) Math.max(1, Math.round(categories * factor));
+        users = (int) Math.max(concurrency, Math.round(users * factor));
+        sellers = (int) Math.max(1, Math.round(sellers * factor));
+        carts = (int) Math.min(users, Math.round(carts * factor));
+        orders = Math.round(orders * factor);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected scenario:weight in --mix but got: " + entry);
+            }
+            mix.put(Scenario.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    private static Map<Scenario, Integer> defaultMix() {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        mix.put(Scenario.BROWSE, 45);
+        mix.put(Scenario.SEARCH, 20);
+        mix.put(Scenario.CART, 15);
+        mix.put(Scenario.CHECKOUT, 10);
+        mix.put(Scenario.ADMIN, 5);
+        mix.put(Scenario.SELLER, 5);
+        return mix;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecombackend.loadtest;
+
+/**
+ * The user journeys the driver picks from, weighted by {@code --mix}.
+ */
+public enum Scenario {
+    /** Product listing page, then one category page. */
+    BROWSE,
+    /** Keyword search. */
+    SEARCH,
+    /** Adds one product to the buyer's cart. */
+    CART,
+    /** Adds a product, asks for a payment intent and places the order. */
+    CHECKOUT,
+    /** Admin order listing. */
+    ADMIN,
+    /** A seller's own order listing. */
+    SELLER,
+    /** Replaces the buyer's cart with a batch of items in one request. Not in the default mix. */
+    BULK_CART,
+    /** Re-fetches the first catalog pages with the ETag from the last fetch, like a polling mobile client. Not in the default mix. */
+    POLL,
+    /** Downloads a stored product image through {@code /images}. Not in the default mix. */
+    IMAGE,
+    /** The same download through Spring's default resource handler, as a baseline for IMAGE. Not in the default mix. */
+    IMAGE_RESOURCE
+}
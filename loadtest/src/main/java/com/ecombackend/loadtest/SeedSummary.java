@@ -0,0 +1,10 @@
+package com.ecombackend.loadtest;
+
+/**
+ * Id ranges of the seeded rows that the driver picks from. Buyer {@code n}
+ * has user id {@code firstUserId + n} and address id
+ * {@code firstAddressId + n}; sellers follow the buyers.
+ */
+public record SeedSummary(long firstProductId, long products, long firstCategoryId, int categories,
+                          long firstUserId, long firstAddressId, int buyers, int sellers) {
+}
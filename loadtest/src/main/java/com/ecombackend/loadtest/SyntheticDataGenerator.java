@@ -0,0 +1,331 @@
+package com.ecombackend.loadtest;
+
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Seeds the schema Hibernate created with a synthetic but deterministic
+ * catalog, buyers with addresses, open carts and order history.
+ * <p>
+ * Rows are written with plain JDBC batches and explicit ids, because going
+ * through the repositories would take longer than the test itself at a
+ * million products. Every value is derived from {@code seed} and the row
+ * number, so the same options always produce the same data set.
+ */
+public class SyntheticDataGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    private static final int BATCH_SIZE = 5_000;
+    // allocationSize of the entity id sequences
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    static final String PASSWORD = "loadtest";
+
+    private static final String[] ADJECTIVES = {
+            "wireless", "portable", "premium", "compact", "ergonomic", "smart", "classic", "rugged",
+            "organic", "stainless", "vintage", "ultra", "foldable", "waterproof", "quiet", "leather",
+            "bamboo", "ceramic", "cotton", "digital", "magnetic", "modular", "handmade", "adjustable"};
+    private static final String[] NOUNS = {
+            "headphones", "charger", "keyboard", "backpack", "bottle", "lamp", "speaker", "jacket",
+            "blender", "monitor", "camera", "watch", "sneakers", "kettle", "tripod", "mouse",
+            "notebook", "wallet", "pillow", "router", "drone", "scarf", "toaster", "umbrella"};
+    private static final String[] DETAILS = {
+            "with long battery life", "for travel and office", "in matte black", "made from recycled materials",
+            "with fast charging", "for everyday use", "with two year warranty", "in a gift box",
+            "for kids and adults", "with noise cancelling", "in three sizes", "for outdoor adventures"};
+    private static final String[] CITIES = {"Pune", "Mumbai", "Delhi", "Bengaluru", "Chennai", "Kolkata", "Jaipur"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestOptions options;
+    private final String passwordHash;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, LoadTestOptions options, String passwordHash) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.options = options;
+        this.passwordHash = passwordHash;
+    }
+
+    public static List<String> searchTerms() {
+        return Stream.concat(Stream.of(ADJECTIVES), Stream.of(NOUNS)).toList();
+    }
+
+    public SeedSummary seed() {
+        long start = System.currentTimeMillis();
+
+        long categoryBase = maxId("categories", "category_id");
+        long userBase = sequenceBase("users", "user_id");
+        long productBase = sequenceBase("products", "product_id");
+        long addressBase = sequenceBase("addresses", "address_id");
+        long cartBase = sequenceBase("cart", "cart_id");
+        long cartItemBase = sequenceBase("cart_items", "cart_item_id");
+        long paymentBase = sequenceBase("payments", "payment_id");
+        long orderBase = sequenceBase("orders", "order_id");
+        long orderItemBase = sequenceBase("order_items", "order_item_id");
+
+        int userRoleId = roleId("ROLE_USER");
+        int sellerRoleId = roleId("ROLE_SELLER");
+        int users = options.getUsers();
+        int sellers = options.getSellers();
+        long products = options.getProducts();
+
+        insert("categories", "INSERT INTO categories (category_id, category_name) VALUES (?, ?)",
+                options.getCategories(), (ps, row) -> {
+                    ps.setLong(1, categoryBase + row + 1);
+                    ps.setString(2, "Category " + (row + 1));
+                });
+
+        insert("users", "INSERT INTO users (user_id, username, email, password) VALUES (?, ?, ?, ?)",
+                users + sellers, (ps, row) -> {
+                    String userName = row < users ? buyerName(row) : sellerName(row - users);
+                    ps.setLong(1, userBase + row + 1);
+                    ps.setString(2, userName);
+                    ps.setString(3, userName + "@example.com");
+                    ps.setString(4, passwordHash);
+                });
+
+        insert("user_role", "INSERT INTO user_role (user_id, role_id) VALUES (?, ?)",
+                users + sellers, (ps, row) -> {
+                    ps.setLong(1, userBase + row + 1);
+                    ps.setInt(2, row < users ? userRoleId : sellerRoleId);
+                });
+
+        insert("products", "INSERT INTO products (product_id, product_name, image_url, product_description, quantity, "
+                        + "price_cents, discount_bp, special_price_cents, category_id, seller_id) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                products, (ps, row) -> {
+                    ProductRow product = product(row);
+                    ps.setLong(1, productBase + row + 1);
+                    ps.setString(2, product.name());
+                    ps.setString(3, "default.png");
+                    ps.setString(4, product.description());
+                    ps.setInt(5, 1_000_000);
+                    ps.setLong(6, product.price());
+                    ps.setInt(7, product.discount());
+                    ps.setLong(8, product.specialPrice());
+                    ps.setLong(9, categoryBase + product.categoryRow() + 1);
+                    ps.setLong(10, userBase + users + product.sellerRow() + 1);
+                });
+
+        insert("addresses", "INSERT INTO addresses (address_id, street, building_name, city, state, country, pincode, "
+                        + "user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                users, (ps, row) -> {
+                    SplittableRandom random = random(row, 3);
+                    ps.setLong(1, addressBase + row + 1);
+                    ps.setString(2, (1 + random.nextInt(300)) + " Market Street");
+                    ps.setString(3, "Building " + (1 + random.nextInt(90)));
+                    ps.setString(4, CITIES[random.nextInt(CITIES.length)]);
+                    ps.setString(5, "Maharashtra");
+                    ps.setString(6, "India");
+                    ps.setString(7, String.valueOf(400000 + random.nextInt(99999)));
+                    ps.setLong(8, userBase + row + 1);
+                });
+
+        int carts = Math.min(options.getCarts(), users);
+        int cartItems = options.getCartItems();
+        insert("cart", "INSERT INTO cart (cart_id, user_id, total_amount_cents, version, last_modified) "
+                        + "VALUES (?, ?, ?, 0, CURRENT_TIMESTAMP)",
+                carts, (ps, row) -> {
+                    long total = 0;
+                    for (int item = 0; item < cartItems; item++) {
+                        total = PriceCalculator.addLine(total, product(lineProduct(row, item, 5)).specialPrice(),
+                                lineQuantity(row, item, 5));
+                    }
+                    ps.setLong(1, cartBase + row + 1);
+                    ps.setLong(2, userBase + row + 1);
+                    ps.setLong(3, total);
+                });
+
+        insert("cart_items", "INSERT INTO cart_items (cart_item_id, cart_id, product_id, quantity, discount_bp, "
+                        + "product_price_cents) VALUES (?, ?, ?, ?, ?, ?)",
+                (long) carts * cartItems, (ps, row) -> {
+                    long cart = row / cartItems;
+                    int item = (int) (row % cartItems);
+                    long productRow = lineProduct(cart, item, 5);
+                    ProductRow product = product(productRow);
+                    ps.setLong(1, cartItemBase + row + 1);
+                    ps.setLong(2, cartBase + cart + 1);
+                    ps.setLong(3, productBase + productRow + 1);
+                    ps.setInt(4, lineQuantity(cart, item, 5));
+                    ps.setInt(5, product.discount());
+                    ps.setLong(6, product.specialPrice());
+                });
+
+        long orders = options.getOrders();
+        int orderItems = options.getOrderItems();
+        insert("payments", "INSERT INTO payments (payment_id, payment_method, pg_payment_id, pg_status, "
+                        + "pg_response_message, pg_name) VALUES (?, ?, ?, ?, ?, ?)",
+                orders, (ps, row) -> {
+                    ps.setLong(1, paymentBase + row + 1);
+                    ps.setString(2, "card");
+                    ps.setString(3, "pi_seed_" + row);
+                    ps.setString(4, "succeeded");
+                    ps.setString(5, "Payment successful");
+                    ps.setString(6, "Stripe");
+                });
+
+        LocalDate today = LocalDate.now();
+        insert("orders", "INSERT INTO orders (order_id, email, order_date, payment_id, total_amount_cents, "
+                        + "order_status, address_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                orders, (ps, row) -> {
+                    long buyer = row % users;
+                    long total = 0;
+                    for (int item = 0; item < orderItems; item++) {
+                        total = PriceCalculator.addLine(total, product(lineProduct(row, item, 7)).specialPrice(),
+                                lineQuantity(row, item, 7));
+                    }
+                    ps.setLong(1, orderBase + row + 1);
+                    ps.setString(2, buyerName(buyer) + "@example.com");
+                    ps.setDate(3, Date.valueOf(today.minusDays(random(row, 8).nextInt(730))));
+                    ps.setLong(4, paymentBase + row + 1);
+                    ps.setLong(5, total);
+                    ps.setString(6, "Order Accepted !");
+                    ps.setLong(7, addressBase + buyer + 1);
+                });
+
+        insert("order_items", "INSERT INTO order_items (order_item_id, product_id, order_id, quantity, discount_bp, "
+                        + "ordered_product_price_cents, seller_id) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                orders * orderItems, (ps, row) -> {
+                    long order = row / orderItems;
+                    int item = (int) (row % orderItems);
+                    long productRow = lineProduct(order, item, 7);
+                    ProductRow product = product(productRow);
+                    ps.setLong(1, orderItemBase + row + 1);
+                    ps.setLong(2, productBase + productRow + 1);
+                    ps.setLong(3, orderBase + order + 1);
+                    ps.setInt(4, lineQuantity(order, item, 7));
+                    ps.setInt(5, product.discount());
+                    ps.setLong(6, product.specialPrice());
+                    ps.setLong(7, userBase + users + product.sellerRow() + 1);
+                });
+
+        restartIdentity("categories", "category_id");
+        restartSequence("users", "user_id");
+        restartSequence("products", "product_id");
+        restartSequence("addresses", "address_id");
+        restartSequence("cart", "cart_id");
+        restartSequence("cart_items", "cart_item_id");
+        restartSequence("payments", "payment_id");
+        restartSequence("orders", "order_id");
+        restartSequence("order_items", "order_item_id");
+
+        logger.info("Seeded data set in {} s", (System.currentTimeMillis() - start) / 1000);
+        return new SeedSummary(productBase + 1, products, categoryBase + 1, options.getCategories(),
+                userBase + 1, addressBase + 1, users, sellers);
+    }
+
+    static String buyerName(long row) {
+        return "lt_user_" + row;
+    }
+
+    static String sellerName(long row) {
+        return "lt_seller_" + row;
+    }
+
+    private ProductRow product(long row) {
+        SplittableRandom random = random(row, 1);
+        String name = pick(ADJECTIVES, random) + " " + pick(NOUNS, random) + " " + (100 + random.nextInt(900));
+        String description = "A " + pick(ADJECTIVES, random) + " " + pick(ADJECTIVES, random) + " "
+                + pick(NOUNS, random) + " " + pick(DETAILS, random) + ", " + pick(DETAILS, random) + ".";
+        long price = 500 + random.nextInt(2_000) * 100L + random.nextInt(100);
+        int discount = random.nextInt(60) * Money.BASIS_POINTS_PER_PERCENT;
+        return new ProductRow(name, description, price, discount, PriceCalculator.specialPrice(price, discount),
+                random.nextInt(options.getCategories()), random.nextInt(options.getSellers()));
+    }
+
+    private long lineProduct(long owner, int item, int stream) {
+        return random(owner * 31 + item, stream).nextLong(options.getProducts());
+    }
+
+    private int lineQuantity(long owner, int item, int stream) {
+        return 1 + random(owner * 31 + item, stream + 1).nextInt(4);
+    }
+
+    private SplittableRandom random(long row, int stream) {
+        return new SplittableRandom(options.getSeed() ^ (row * 0x9E3779B97F4A7C15L + stream));
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private long maxId(String table, String column) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(" + column + ") FROM " + table, Long.class);
+        return max == null ? 0 : max;
+    }
+
+    /**
+     * Seeded ids start one allocation block above the current maximum, past
+     * any ids the application has already taken from the sequence but not
+     * used yet.
+     */
+    private long sequenceBase(String table, String column) {
+        return maxId(table, column) + ID_ALLOCATION_SIZE;
+    }
+
+    private int roleId(String roleName) {
+        Integer roleId = jdbcTemplate.queryForObject("SELECT role_id FROM roles WHERE role_name = ?", Integer.class, roleName);
+        if (roleId == null) {
+            throw new IllegalStateException("Role " + roleName + " has not been created");
+        }
+        return roleId;
+    }
+
+    /**
+     * Moves the identity column past the explicitly inserted ids so that rows
+     * created by the application during the run do not collide with them.
+     */
+    private void restartIdentity(String table, String column) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + column
+                + " RESTART WITH " + (maxId(table, column) + 1));
+    }
+
+    /**
+     * Moves the table's id sequence past the explicitly inserted ids. The
+     * pooled optimizer hands out the block ending at the value it reads, so
+     * the sequence restarts a full block above the maximum id.
+     */
+    private void restartSequence(String table, String column) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH "
+                + (maxId(table, column) + ID_ALLOCATION_SIZE));
+    }
+
+    private void insert(String table, String sql, long rows, RowWriter writer) {
+        long start = System.currentTimeMillis();
+        for (long first = 0; first < rows; first += BATCH_SIZE) {
+            long offset = first;
+            int size = (int) Math.min(BATCH_SIZE, rows - first);
+            jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, offset + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return size;
+                }
+            });
+        }
+        logger.info("Inserted {} rows into {} in {} ms", rows, table, System.currentTimeMillis() - start);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long row) throws SQLException;
+    }
+
+    private record ProductRow(String name, String description, long price, int discount,
+                              long specialPrice, int categoryRow, int sellerRow) {
+    }
+}
@@ -0,0 +1,65 @@
+package com.ecombackend.loadtest;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a deterministic set of noise JPEGs into the image folder, named by
+ * content hash like uploaded product images. Three in four are small
+ * thumbnails that fit the image server's hot set; the rest are large enough
+ * to be sent from disk.
+ */
+public final class SyntheticImageGenerator {
+    private static final int SMALL_SIZE = 128;
+    private static final int LARGE_SIZE = 640;
+
+    private SyntheticImageGenerator() {
+    }
+
+    static boolean isLarge(int index) {
+        return index % 4 == 0;
+    }
+
+    /**
+     * Returns the file names, in the order {@link #isLarge} refers to.
+     */
+    public static List<String> write(Path folder, int count, long seed) throws IOException {
+        Files.createDirectories(folder);
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int size = isLarge(i) ? LARGE_SIZE : SMALL_SIZE;
+            BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    image.setRGB(x, y, random.nextInt(0x1000000));
+                }
+            }
+            ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", jpeg);
+            byte[] bytes = jpeg.toByteArray();
+            String name = HexFormat.of().formatHex(sha256().digest(bytes)) + ".jpg";
+            Files.write(folder.resolve(name), bytes);
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
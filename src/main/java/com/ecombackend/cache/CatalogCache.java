@@ -0,0 +1,214 @@
+package com.ecombackend.cache;
+
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.dto.ProductResponse;
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductsImportedEvent;
+import com.ecombackend.event.StockReservedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process near-cache for the public catalog listings.
+ * <p>
+ * Pages only hold the ordered product ids and paging metadata; the product
+ * DTOs are cached once by id and shared between every page, sort order and
+ * page size they appear in. Both caches are bounded by an estimate of their
+ * heap footprint and report hit/miss/eviction statistics through Micrometer
+ * under the {@code catalog.pages} and {@code catalog.products} cache names.
+ * Entries also expire {@code catalog.cache.ttl} after they were loaded, which
+ * bounds how long a change the events below do not report is served stale.
+ * <p>
+ * Entries are invalidated from {@link ProductChangedEvent},
+ * {@link ProductsImportedEvent}, {@link StockReservedEvent} and
+ * {@link CategoryChangedEvent}: a product
+ * change drops that product and the pages of its category plus the unscoped
+ * "all products" pages, leaving the other categories untouched.
+ */
+@Component
+public class CatalogCache {
+    private final Cache<PageKey, CachedPage> pages;
+    private final Cache<Long, ProductDTO> products;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CatalogCache(@Value("${catalog.cache.page-max-bytes:16777216}") long pageMaxBytes,
+                        @Value("${catalog.cache.product-max-bytes:67108864}") long productMaxBytes,
+                        @Value("${catalog.cache.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(pageMaxBytes)
+                .expireAfterWrite(ttl)
+                .weigher((PageKey key, CachedPage page) -> page.weight())
+                .recordStats()
+                .build();
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(productMaxBytes)
+                .expireAfterWrite(ttl)
+                .weigher((Long productId, ProductDTO product) -> weigh(product))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "catalog.pages");
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "catalog.products");
+        registerGauges(meterRegistry, pages, "catalog.pages");
+        registerGauges(meterRegistry, products, "catalog.products");
+    }
+
+    /**
+     * Returns the cached page for the given listing, or runs {@code loader} and
+     * caches its result. {@code categoryId} is {@code null} for the unscoped
+     * product listing. Pages loaded while a catalog write was in flight are
+     * returned but not cached.
+     */
+    public ProductResponse getPage(Long categoryId, Integer pageNumber, Integer pageSize,
+                                   String sortBy, String sortOrder, Supplier<ProductResponse> loader) {
+        PageKey key = new PageKey(categoryId, pageNumber, pageSize, sortBy, sortOrder.toLowerCase(Locale.ROOT));
+
+        CachedPage cachedPage = pages.getIfPresent(key);
+        if (cachedPage != null) {
+            ProductResponse response = assemble(cachedPage);
+            if (response != null) {
+                return response;
+            }
+            pages.invalidate(key);
+        }
+
+        long loadGeneration = generation.get();
+        ProductResponse response = loader.get();
+        if (loadGeneration == generation.get()) {
+            store(key, response);
+            if (loadGeneration != generation.get()) {
+                pages.invalidate(key);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Drops every page and product, for catalog writes made on another node,
+     * whose scope this node does not know.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        products.invalidateAll();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        products.invalidate(event.getProductId());
+        evictPages(event.getCategoryId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        generation.incrementAndGet();
+        evictPages(event.getCategoryId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        generation.incrementAndGet();
+        products.invalidateAll(event.getProductIds());
+        event.getCategoryIds().forEach(this::evictPages);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.isDeleted()) {
+            products.invalidateAll(event.getRemovedProductIds());
+            evictPages(event.getCategoryId());
+        } else {
+            pages.asMap().keySet().removeIf(key -> event.getCategoryId().equals(key.categoryId()));
+        }
+    }
+
+    private void evictPages(Long categoryId) {
+        if (categoryId == null) {
+            pages.invalidateAll();
+            return;
+        }
+        pages.asMap().keySet().removeIf(key -> key.categoryId() == null || categoryId.equals(key.categoryId()));
+    }
+
+    private void store(PageKey key, ProductResponse response) {
+        List<Long> productIds = new ArrayList<>(response.getContents().size());
+        for (ProductDTO product : response.getContents()) {
+            productIds.add(product.getProductId());
+            products.put(product.getProductId(), product);
+        }
+        pages.put(key, new CachedPage(productIds, response.getPageNumber(), response.getPageSize(),
+                response.getTotalElements(), response.getTotalPages(), response.isLast()));
+    }
+
+    private ProductResponse assemble(CachedPage page) {
+        Map<Long, ProductDTO> found = products.getAllPresent(page.productIds());
+        if (found.size() != page.productIds().size()) {
+            return null;
+        }
+        List<ProductDTO> contents = new ArrayList<>(page.productIds().size());
+        for (Long productId : page.productIds()) {
+            contents.add(found.get(productId));
+        }
+        return new ProductResponse(contents, page.pageNumber(), page.pageSize(),
+                page.totalElements(), page.totalPages(), page.last());
+    }
+
+    private static int weigh(ProductDTO product) {
+        return 96 + weigh(product.getProductName()) + weigh(product.getImageUrl())
+                + weigh(product.getThumbnailUrl()) + weigh(product.getMediumImageUrl())
+                + weigh(product.getProductDescription());
+    }
+
+    private static int weigh(String value) {
+        return value == null ? 0 : 40 + value.length() * 2;
+    }
+
+    static void registerGauges(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        Gauge.builder("catalog.cache.weight", cache, c -> c.policy().eviction()
+                        .map(eviction -> (double) eviction.weightedSize().orElse(0L))
+                        .orElse(0d))
+                .tag("cache", name)
+                .baseUnit("bytes")
+                .description("Estimated heap footprint of the catalog near-cache")
+                .register(meterRegistry);
+        Gauge.builder("catalog.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .description("Share of catalog near-cache lookups served from the cache since startup")
+                .register(meterRegistry);
+    }
+
+    private record PageKey(Long categoryId, Integer pageNumber, Integer pageSize,
+                           String sortBy, String sortOrder) {
+    }
+
+    private record CachedPage(List<Long> productIds, int pageNumber, int pageSize,
+                              long totalElements, int totalPages, boolean last) {
+        int weight() {
+            return 64 + productIds.size() * 24;
+        }
+    }
+}
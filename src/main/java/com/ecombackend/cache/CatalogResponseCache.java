@@ -0,0 +1,194 @@
+package com.ecombackend.cache;
+
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductsImportedEvent;
+import com.ecombackend.event.StockReservedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finished response bodies of the public catalog, as the UTF-8 JSON bytes
+ * that were sent, so a hot page is written out without running the
+ * controller or Jackson. Bodies of at least {@code gzip-min-bytes} are also
+ * kept gzip-compressed for clients that accept it.
+ * <p>
+ * Entries are keyed by the normalized URL and scoped like the pages of
+ * {@link CatalogCache}: a product change drops the pages of its category and
+ * the listings that span every category, a category change drops that
+ * category's pages and the category listing, and other pages stay cached.
+ * A body rendered while one of these evictions ran is not cached. The
+ * listeners run after those of the near-cache and the search index, so a page
+ * rendered after an eviction is built from data that has caught up, and
+ * before {@link CatalogVersion} moves to the next version.
+ * <p>
+ * Entries also expire {@code catalog.cache.ttl} after they were rendered,
+ * which bounds how long a change that raised no event on this node is served.
+ * The cache is bounded by the byte size of the bodies and reports under the
+ * {@code catalog.responses} cache name.
+ */
+@Component
+public class CatalogResponseCache {
+    private static final Pattern CATEGORY_PRODUCTS = Pattern.compile("^/api/public/categories/(\\d{1,18})/products(/.*)?$");
+    private static final Pattern CATEGORIES = Pattern.compile("^/api/public/categories(/scroll)?/?$");
+
+    private final Cache<ResponseKey, CachedResponse> responses;
+    private final AtomicLong generation = new AtomicLong();
+    private final int gzipMinBytes;
+
+    public CatalogResponseCache(@Value("${catalog.response-cache.max-bytes:33554432}") long maxBytes,
+                                @Value("${catalog.response-cache.gzip-min-bytes:1024}") int gzipMinBytes,
+                                @Value("${catalog.cache.ttl:5m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.gzipMinBytes = gzipMinBytes;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .expireAfterWrite(ttl)
+                .weigher((ResponseKey key, CachedResponse response) -> response.weight(key.url()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "catalog.responses");
+        CatalogCache.registerGauges(meterRegistry, responses, "catalog.responses");
+    }
+
+    /**
+     * The current eviction generation. Read it before rendering a response and
+     * pass it to {@link #put} so that a body rendered across an eviction is
+     * dropped.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * {@code path} is the request path without the context path, which decides
+     * the writes that evict the entry; {@code url} is the normalized URL.
+     */
+    public CachedResponse get(String path, String url) {
+        return responses.getIfPresent(ResponseKey.of(path, url));
+    }
+
+    public void put(String path, String url, String contentType, byte[] body, long loadGeneration) {
+        if (loadGeneration != generation.get()) {
+            return;
+        }
+        ResponseKey key = ResponseKey.of(path, url);
+        responses.put(key, new CachedResponse(contentType, body, body.length >= gzipMinBytes ? gzip(body) : null));
+        if (loadGeneration != generation.get()) {
+            responses.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops every entry, for catalog writes made on another node, whose scope
+     * this node does not know.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        generation.incrementAndGet();
+        evictProductPages(event.getCategoryId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        generation.incrementAndGet();
+        evictProductPages(event.getCategoryId());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        generation.incrementAndGet();
+        evictProductPages(event.getCategoryIds());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        Long categoryId = event.getCategoryId();
+        if (event.isDeleted()) {
+            responses.asMap().keySet().removeIf(key -> key.categoryList() || key.spansCategories()
+                    || categoryId.equals(key.categoryId()));
+        } else {
+            responses.asMap().keySet().removeIf(key -> key.categoryList() || categoryId.equals(key.categoryId()));
+        }
+    }
+
+    private void evictProductPages(Long categoryId) {
+        if (categoryId == null) {
+            responses.asMap().keySet().removeIf(key -> !key.categoryList());
+            return;
+        }
+        responses.asMap().keySet().removeIf(key -> key.spansCategories() || categoryId.equals(key.categoryId()));
+    }
+
+    private void evictProductPages(Collection<Long> categoryIds) {
+        responses.asMap().keySet().removeIf(key -> key.spansCategories()
+                || key.categoryId() != null && categoryIds.contains(key.categoryId()));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * {@code gzipped} is {@code null} when the body was too small to be worth
+     * compressing.
+     */
+    public record CachedResponse(String contentType, byte[] body, byte[] gzipped) {
+        int weight(String url) {
+            return 128 + url.length() * 2 + body.length + (gzipped == null ? 0 : gzipped.length);
+        }
+    }
+
+    /**
+     * {@code categoryId} is set for the product pages of one category,
+     * {@code categoryList} for the category listing; every other public page
+     * lists products of any category.
+     */
+    private record ResponseKey(String url, Long categoryId, boolean categoryList) {
+        static ResponseKey of(String path, String url) {
+            Matcher categoryProducts = CATEGORY_PRODUCTS.matcher(path);
+            if (categoryProducts.matches()) {
+                return new ResponseKey(url, Long.valueOf(categoryProducts.group(1)), false);
+            }
+            return new ResponseKey(url, null, CATEGORIES.matcher(path).matches());
+        }
+
+        boolean spansCategories() {
+            return categoryId == null && !categoryList;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecombackend.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conditional GET and response caching for {@code /api/public/**}. It runs
+ * after the security filter chain, so requests are authenticated as before.
+ * <p>
+ * Every response carries a strong {@code ETag} and {@code Last-Modified}
+ * taken from {@link CatalogVersion}, and a request whose
+ * {@code If-None-Match} or {@code If-Modified-Since} still matches is
+ * answered with 304. Otherwise a GET is served from
+ * {@link CatalogResponseCache} when the same normalized URL has already been
+ * rendered and no write to its part of the catalog has happened since, and
+ * rendered by the controller and cached when it has not. Either way a hit costs no query and no
+ * serialization.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogResponseFilter extends OncePerRequestFilter {
+    private static final String PUBLIC_PATH = "/api/public/";
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final CatalogVersion catalogVersion;
+    private final CatalogResponseCache responseCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !path(request).startsWith(PUBLIC_PATH)
+                || !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CatalogVersion.Snapshot version = catalogVersion.snapshot();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (new ServletWebRequest(request, response).checkNotModified(version.etag(), version.lastModified())) {
+            return;
+        }
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = path(request);
+        String url = normalizedUrl(request);
+        CatalogResponseCache.CachedResponse cached = responseCache.get(path, url);
+        if (cached != null) {
+            write(cached, request, response);
+            return;
+        }
+
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper rendered = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, rendered);
+            if (rendered.getStatus() == HttpStatus.OK.value() && isJson(rendered.getContentType())) {
+                responseCache.put(path, url, rendered.getContentType(), rendered.getContentAsByteArray(), generation);
+            }
+        } finally {
+            rendered.copyBodyToResponse();
+        }
+    }
+
+    private static void write(CatalogResponseCache.CachedResponse cached, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        boolean gzip = cached.gzipped() != null && acceptsGzip(request);
+        byte[] body = gzip ? cached.gzipped() : cached.body();
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(cached.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * The path followed by the query parameters sorted by name, so that the
+     * same page asked for with its parameters in another order shares an
+     * entry.
+     */
+    private static String normalizedUrl(HttpServletRequest request) {
+        StringBuilder url = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                url.append(separator)
+                        .append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                        .append('=')
+                        .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                separator = '&';
+            }
+        }
+        return url.toString();
+    }
+
+    private static boolean isJson(String contentType) {
+        return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+}
@@ -0,0 +1,247 @@
+package com.ecombackend.cache;
+
+import com.ecombackend.entity.CatalogRevision;
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductsImportedEvent;
+import com.ecombackend.event.StockReservedEvent;
+import com.ecombackend.repository.CatalogRevisionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Version of the public catalog, shared by every node through the
+ * {@link CatalogRevision} row. It drives the {@code ETag} and
+ * {@code Last-Modified} headers of the {@code /api/public/**} listings, see
+ * {@link CatalogResponseFilter}.
+ * <p>
+ * After every committed product or category write and every placed order,
+ * the change is made visible on this node at once, under a tag that includes
+ * the startup time so it cannot match a tag of another node. The listeners
+ * run last so that the near-cache, the search index and the response cache
+ * have already caught up by then; a response tagged with the new version
+ * never carries the old catalog. The {@code catalog-version} thread then
+ * moves the row forward in a transaction of its own, once for all the
+ * changes made since it last did, so the committing request neither waits
+ * for it nor needs a second connection.
+ * <p>
+ * Every {@code catalog.version.refresh} the row is read again, and changes
+ * whose write failed are retried. A version this node did not write means
+ * another node changed the catalog in a way this node was not told about, so
+ * the near-cache and the response cache are emptied before the version is
+ * taken. A write on another node is therefore answered with a 304 for at
+ * most one refresh interval.
+ */
+@Component
+public class CatalogVersion {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private final CatalogRevisionRepository catalogRevisionRepository;
+    private final CatalogCache catalogCache;
+    private final CatalogResponseCache responseCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration refresh;
+    private final ScheduledExecutorService poller;
+    private final AtomicBoolean recordQueued = new AtomicBoolean();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile State state = new State(0, 0, currentSecond());
+
+    public CatalogVersion(CatalogRevisionRepository catalogRevisionRepository,
+                          CatalogCache catalogCache,
+                          CatalogResponseCache responseCache,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${catalog.version.refresh:1s}") Duration refresh) {
+        this.catalogRevisionRepository = catalogRevisionRepository;
+        this.catalogCache = catalogCache;
+        this.responseCache = responseCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refresh = refresh;
+        this.poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("catalog-version-", 1).factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        CatalogRevision revision = loadOrCreate();
+        state = new State(revision.getVersion(), 0, notLater(revision.getLastModified().toEpochMilli()));
+        long millis = refresh.toMillis();
+        poller.scheduleWithFixedDelay(this::refreshQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    /**
+     * The ETag and Last-Modified of the current version, read together.
+     */
+    public Snapshot snapshot() {
+        State current = state;
+        String tag = current.unrecorded() == 0
+                ? Long.toString(current.version())
+                : current.version() + "-" + epoch + "-" + current.unrecorded();
+        return new Snapshot("\"" + tag + "\"", current.lastModified());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        bump();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        bump();
+    }
+
+    /**
+     * HTTP dates have a resolution of one second and must not be later than
+     * the response's {@code Date}, so changes made within the same second
+     * share a Last-Modified. Their ETags still differ, and an
+     * {@code If-None-Match} is checked before any {@code If-Modified-Since}.
+     */
+    private void bump() {
+        synchronized (this) {
+            State current = state;
+            state = new State(current.version(), current.unrecorded() + 1, latest(current.lastModified()));
+        }
+        if (recordQueued.compareAndSet(false, true)) {
+            poller.execute(this::recordQuietly);
+        }
+    }
+
+    /**
+     * Writes the changes made on this node since the last write as one new
+     * version of the row. Only runs on the poller thread.
+     */
+    private void record() {
+        recordQueued.set(false);
+        State local = state;
+        long recorded = local.unrecorded();
+        if (recorded == 0) {
+            return;
+        }
+        CatalogRevision revision = transactionTemplate.execute(status -> {
+            CatalogRevision current = catalogRevisionRepository.findForUpdate(CatalogRevision.ID).orElseThrow();
+            current.setVersion(current.getVersion() + 1);
+            current.setLastModified(Instant.ofEpochMilli(notLater(Math.max(local.lastModified(),
+                    current.getLastModified().toEpochMilli()))));
+            return current;
+        });
+        adopt(revision, recorded);
+    }
+
+    private void refresh() {
+        catalogRevisionRepository.findById(CatalogRevision.ID).ifPresent(revision -> adopt(revision, 0));
+        record();
+    }
+
+    /**
+     * Moves to {@code revision}, which this node wrote itself for
+     * {@code recorded} of its changes, or not at all when that is 0. Any
+     * other version after the current one was written by another node, so
+     * the caches are emptied first.
+     */
+    private synchronized void adopt(CatalogRevision revision, long recorded) {
+        State current = state;
+        long version = revision.getVersion();
+        if (version <= current.version()) {
+            return;
+        }
+        long lastModified = notLater(Math.max(revision.getLastModified().toEpochMilli(), current.lastModified()));
+        if ((recorded > 0 ? version - 1 : version) > current.version()) {
+            catalogCache.invalidateAll();
+            responseCache.invalidateAll();
+            lastModified = currentSecond();
+        }
+        state = new State(version, current.unrecorded() - recorded, lastModified);
+    }
+
+    private void recordQuietly() {
+        try {
+            record();
+        } catch (RuntimeException e) {
+            logger.warn("Could not record catalog changes in the shared catalog version", e);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Could not read the shared catalog version", e);
+        }
+    }
+
+    /**
+     * The row is created by the migration; a database built by
+     * {@code ddl-auto} gets it from the first node to start.
+     */
+    private CatalogRevision loadOrCreate() {
+        try {
+            return transactionTemplate.execute(status -> catalogRevisionRepository.findById(CatalogRevision.ID)
+                    .orElseGet(() -> catalogRevisionRepository.save(
+                            new CatalogRevision(CatalogRevision.ID, 0L, Instant.ofEpochMilli(currentSecond())))));
+        } catch (DataIntegrityViolationException e) {
+            return catalogRevisionRepository.findById(CatalogRevision.ID).orElseThrow();
+        }
+    }
+
+    private static long latest(long lastModified) {
+        return Math.max(currentSecond(), lastModified);
+    }
+
+    /**
+     * Caps a time read from the shared row at the current second, as the
+     * row may have been written by a node whose clock runs ahead.
+     */
+    private static long notLater(long lastModified) {
+        return Math.min(currentSecond(), lastModified);
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    public record Snapshot(String etag, long lastModified) {
+    }
+
+    /**
+     * {@code unrecorded} counts the changes made on this node since
+     * {@code version} that are not written to the shared row yet.
+     */
+    private record State(long version, long unrecorded, long lastModified) {
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.pricing.PriceCalculator;
+import com.ecombackend.repository.projection.CartProductView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cart held in memory by the write-behind cart store. Not thread-safe: it
+ * is only touched under the lock of its stripe. {@code version} counts the
+ * changes made to it; {@code lastModified} is when its owner last changed
+ * it, which repricing does not move. {@code storedLastModified} is a time the
+ * database row's last-modified time is known not to be earlier than.
+ */
+public class ActiveCart {
+    private final String email;
+    private final Long cartId;
+    private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+    private long totalAmount;
+    private long version;
+    private long lastModified;
+    private long storedLastModified;
+    private long lastAccess;
+
+    public ActiveCart(String email, Long cartId, Collection<CartLine> lines, long lastModified, long now) {
+        this.email = email;
+        this.cartId = cartId;
+        lines.forEach(line -> this.lines.put(line.productId(), line));
+        this.totalAmount = computeTotal();
+        this.lastModified = lastModified;
+        this.storedLastModified = lastModified;
+        this.lastAccess = now;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    public CartLine getLine(Long productId) {
+        return lines.get(productId);
+    }
+
+    public Collection<CartLine> getLines() {
+        return lines.values();
+    }
+
+    public long getTotalAmount() {
+        return totalAmount;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getStoredLastModified() {
+        return storedLastModified;
+    }
+
+    public void lastModifiedStored(long time) {
+        storedLastModified = Math.max(storedLastModified, time);
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    public void touch(long now) {
+        lastAccess = now;
+    }
+
+    public void modifiedByOwner(long now) {
+        lastModified = now;
+    }
+
+    public void putLine(CartLine line) {
+        lines.put(line.productId(), line);
+        changed();
+    }
+
+    public boolean removeLine(Long productId) {
+        if (lines.remove(productId) == null) {
+            return false;
+        }
+        changed();
+        return true;
+    }
+
+    public void replaceLines(Collection<CartLine> newLines) {
+        lines.clear();
+        newLines.forEach(line -> lines.put(line.productId(), line));
+        changed();
+    }
+
+    /**
+     * Takes in the product's current catalog fields and charges its line at
+     * the product's current price. Only a price change counts as a change of
+     * the cart.
+     */
+    public void refresh(CartProductView product) {
+        CartLine line = lines.get(product.getProductId());
+        if (line == null) {
+            return;
+        }
+        CartLine refreshed = line.repriced(product);
+        lines.put(line.productId(), refreshed);
+        if (refreshed.productPrice() != line.productPrice() || refreshed.discount() != line.discount()) {
+            changed();
+        }
+    }
+
+    public CartSnapshot snapshot() {
+        return new CartSnapshot(cartId, totalAmount, lastModified, new ArrayList<>(lines.values()));
+    }
+
+    /**
+     * Totals are summed from the lines on every change rather than adjusted,
+     * so they are exact whatever happened before.
+     */
+    private void changed() {
+        totalAmount = computeTotal();
+        version++;
+    }
+
+    private long computeTotal() {
+        long total = 0;
+        for (CartLine line : lines.values()) {
+            total = PriceCalculator.addLine(total, line.productPrice(), line.quantity());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.dto.CartOperationDTO;
+import com.ecombackend.exception.APIException;
+import com.ecombackend.exception.ResourceNotFoundException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Works out what a batch of cart operations does to a cart, for both cart
+ * engines. Operations apply in order to the cart's line quantities; nothing
+ * is changed until the whole batch has been checked, so a batch either
+ * applies entirely or not at all.
+ * <ul>
+ *     <li>{@code ADD} puts {@code quantity} units of the product in the cart,
+ *     on top of any already there.</li>
+ *     <li>{@code UPDATE} sets the quantity of a product in the cart; zero
+ *     removes it.</li>
+ *     <li>{@code REMOVE} takes a product out of the cart.</li>
+ * </ul>
+ */
+public final class CartBatch {
+    public static final int MAX_OPERATIONS = 500;
+
+    private CartBatch() {
+    }
+
+    /**
+     * Checks the shape of the batch and returns the products it names, so
+     * they can be resolved with one query before the cart is touched.
+     */
+    public static Set<Long> productIds(List<CartOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new APIException("No cart operations given");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new APIException("At most " + MAX_OPERATIONS + " cart operations can be sent at once");
+        }
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (CartOperationDTO operation : operations) {
+            if (operation.getOperation() == null || operation.getProductId() == null) {
+                throw new APIException("Every cart operation needs an operation and a productId");
+            }
+            Integer quantity = operation.getQuantity();
+            switch (operation.getOperation()) {
+                case ADD -> {
+                    if (quantity == null || quantity <= 0) {
+                        throw new APIException("ADD of product " + operation.getProductId()
+                                + " needs a positive quantity");
+                    }
+                }
+                case UPDATE -> {
+                    if (quantity == null || quantity < 0) {
+                        throw new APIException("UPDATE of product " + operation.getProductId()
+                                + " needs a quantity of zero or more");
+                    }
+                }
+                case REMOVE -> {
+                }
+            }
+            productIds.add(operation.getProductId());
+        }
+        return productIds;
+    }
+
+    /**
+     * Applies the operations to {@code quantities}, the cart's current lines
+     * by product id, and returns the new quantity of every product the batch
+     * touched, zero for products that leave the cart. Every line whose
+     * quantity grows is checked against stock, and all shortfalls are
+     * reported together.
+     *
+     * @param products the products named by the batch, by product id
+     */
+    public static <P> Map<Long, Integer> apply(Map<Long, Integer> quantities, List<CartOperationDTO> operations,
+                                               Map<Long, P> products, Function<P, String> productName,
+                                               ToIntFunction<P> stock) {
+        Map<Long, Integer> changes = new LinkedHashMap<>();
+        for (CartOperationDTO operation : operations) {
+            Long productId = operation.getProductId();
+            P product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            int current = changes.getOrDefault(productId, quantities.getOrDefault(productId, 0));
+            if (operation.getOperation() != CartOperationDTO.Operation.ADD && current == 0) {
+                throw new APIException("Product " + productName.apply(product) + " not available in the cart!!!");
+            }
+            int updated = switch (operation.getOperation()) {
+                case ADD -> (int) Math.min(Integer.MAX_VALUE, (long) current + operation.getQuantity());
+                case UPDATE -> operation.getQuantity();
+                case REMOVE -> 0;
+            };
+            changes.put(productId, updated);
+        }
+
+        List<String> shortfalls = new ArrayList<>();
+        changes.forEach((productId, quantity) -> {
+            if (quantity <= quantities.getOrDefault(productId, 0)) {
+                return;
+            }
+            P product = products.get(productId);
+            int available = stock.applyAsInt(product);
+            if (available == 0) {
+                shortfalls.add(productName.apply(product) + " is not available");
+            } else if (available < quantity) {
+                shortfalls.add("Please, make an order of the " + productName.apply(product)
+                        + " less than or equal to the quantity " + available + ".");
+            }
+        });
+        if (!shortfalls.isEmpty()) {
+            throw new APIException(String.join(" ", shortfalls));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.repository.projection.CartProductView;
+
+/**
+ * One product in an in-memory cart. {@code productPrice} (cents) and
+ * {@code discount} (basis points) are what the line is charged at, as in
+ * {@code cart_items}; {@code product} holds the catalog fields shown with it
+ * and is not written to the log.
+ */
+public record CartLine(Long productId, int quantity, long productPrice, int discount, CartProductView product) {
+
+    public CartLine withQuantity(int quantity) {
+        return new CartLine(productId, quantity, productPrice, discount, product);
+    }
+
+    /**
+     * The line charged at the product's current special price and discount.
+     */
+    public CartLine repriced(CartProductView product) {
+        return new CartLine(productId, quantity, product.getSpecialPrice(), product.getDiscount(), product);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecombackend.cart;
+
+import java.util.List;
+
+/**
+ * The full contents of a cart at one point in time: what is written to the
+ * write-ahead log and, later, to {@code cart} and {@code cart_items}.
+ * {@code lastModified} is when the owner last changed the cart, in epoch
+ * milliseconds, and becomes the cart's {@code last_modified}.
+ * <p>
+ * A {@link #released} snapshot has no lines. It records that the database
+ * holds the latest state of the cart, so records written before it must not
+ * be replayed.
+ */
+public record CartSnapshot(Long cartId, long totalAmount, long lastModified, List<CartLine> lines) {
+
+    public static CartSnapshot released(Long cartId) {
+        return new CartSnapshot(cartId, 0, 0, null);
+    }
+
+    public boolean isReleased() {
+        return lines == null;
+    }
+}
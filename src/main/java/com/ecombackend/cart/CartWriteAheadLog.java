@@ -0,0 +1,262 @@
+package com.ecombackend.cart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of cart snapshots, split into numbered segment files
+ * ({@code cart-<n>.wal}). Every record is a whole cart, so replaying the log
+ * is just keeping the last record of each cart.
+ * <p>
+ * A record is its payload length, a CRC-32 of the payload and the payload.
+ * The owner's last change time comes after the lines, so records written
+ * before it was logged still read; they are taken as changed when read.
+ * {@link #sync} returns once a record is on disk; callers waiting at the
+ * same time share one {@code force}, which keeps the cost of durability per
+ * request low under load. The store {@link #roll rolls} to a new segment
+ * before each flush and deletes the older segments once everything in them
+ * is in the database.
+ */
+public class CartWriteAheadLog implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CartWriteAheadLog.class);
+    private static final String PREFIX = "cart-";
+    private static final String SUFFIX = ".wal";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private FileChannel segment;
+    private long segmentNumber;
+    private long written;
+    private volatile long synced;
+
+    public CartWriteAheadLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<Long> segments = segmentNumbers();
+        segmentNumber = segments.isEmpty() ? 1 : segments.getLast() + 1;
+        segment = open(segmentNumber);
+    }
+
+    /**
+     * Every record in the log, oldest first. A truncated or corrupt record
+     * ends its segment: it can only be a write that was cut short by a crash,
+     * and so was never acknowledged.
+     */
+    public List<CartSnapshot> readAll() throws IOException {
+        List<CartSnapshot> snapshots = new ArrayList<>();
+        for (long number : segmentNumbers()) {
+            if (number >= segmentNumber) {
+                continue;
+            }
+            Path file = segmentPath(number);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                while (true) {
+                    CartSnapshot snapshot = readRecord(in);
+                    if (snapshot == null) {
+                        break;
+                    }
+                    snapshots.add(snapshot);
+                }
+            } catch (IOException e) {
+                logger.warn("Stopped reading cart log segment {} at a damaged record", file, e);
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Appends the snapshot and returns the log position after it, to be
+     * passed to {@link #sync}.
+     */
+    public long append(CartSnapshot snapshot) {
+        ByteBuffer record = encode(snapshot);
+        synchronized (appendLock) {
+            try {
+                while (record.hasRemaining()) {
+                    segment.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not append to the cart log", e);
+            }
+            written += record.limit();
+            return written;
+        }
+    }
+
+    public void sync(long position) {
+        if (synced >= position) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            FileChannel channel;
+            long target;
+            synchronized (appendLock) {
+                channel = segment;
+                target = written;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not sync the cart log", e);
+            }
+            synced = target;
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one. Returns the number of
+     * the new segment: every record appended before the call is in an older
+     * one.
+     */
+    public long roll() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                segment.force(false);
+                segment.close();
+                synced = written;
+                segmentNumber++;
+                segment = open(segmentNumber);
+                return segmentNumber;
+            }
+        }
+    }
+
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (long older : segmentNumbers()) {
+            if (older < number) {
+                Files.deleteIfExists(segmentPath(older));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                segment.force(false);
+                segment.close();
+            }
+        }
+    }
+
+    private FileChannel open(long number) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        syncDirectory();
+        return channel;
+    }
+
+    /**
+     * Makes the new segment's directory entry durable, where the platform
+     * allows a directory to be synced.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync cart log directory {}", directory, e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(PREFIX + String.format("%020d", number) + SUFFIX);
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static ByteBuffer encode(CartSnapshot snapshot) {
+        int count = snapshot.isReleased() ? -1 : snapshot.lines().size();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + 28 + Math.max(count, 0) * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(0);
+            out.writeLong(snapshot.cartId());
+            out.writeLong(snapshot.totalAmount());
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                CartLine line = snapshot.lines().get(i);
+                out.writeLong(line.productId());
+                out.writeInt(line.quantity());
+                out.writeLong(line.productPrice());
+                out.writeInt(line.discount());
+            }
+            if (count >= 0) {
+                out.writeLong(snapshot.lastModified());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        int length = record.limit() - HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), HEADER_BYTES, length);
+        record.putInt(0, length);
+        record.putInt(4, (int) crc.getValue());
+        return record;
+    }
+
+    private static CartSnapshot readRecord(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        int checksum = in.readInt();
+        if (length < 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("Invalid record length " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Record checksum mismatch");
+        }
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+        long cartId = record.readLong();
+        long totalAmount = record.readLong();
+        int count = record.readInt();
+        if (count < 0) {
+            return CartSnapshot.released(cartId);
+        }
+        List<CartLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(new CartLine(record.readLong(), record.readInt(), record.readLong(), record.readInt(), null));
+        }
+        long lastModified = record.available() >= Long.BYTES ? record.readLong() : System.currentTimeMillis();
+        return new CartSnapshot(cartId, totalAmount, lastModified, lines);
+    }
+}
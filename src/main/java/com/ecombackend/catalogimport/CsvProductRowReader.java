@@ -0,0 +1,176 @@
+package com.ecombackend.catalogimport;
+
+import com.ecombackend.exception.APIException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader for RFC 4180 CSV. The first record is a header naming the
+ * columns: {@code productName}, {@code price} and {@code quantity} are
+ * required, {@code productDescription} and {@code discount} are optional and
+ * other columns are ignored. Fields may be quoted, with {@code ""} for a
+ * quote inside a quoted field, and quoted fields may span lines.
+ */
+public class CsvProductRowReader implements ProductRowReader {
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final int nameColumn;
+    private final int descriptionColumn;
+    private final int quantityColumn;
+    private final int priceColumn;
+    private final int discountColumn;
+    private long rowNumber;
+    private boolean endOfInput;
+
+    public CsvProductRowReader(BufferedReader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new APIException("The CSV import is empty, expected a header row");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.putIfAbsent(name.toLowerCase(Locale.ROOT), i);
+        }
+        this.nameColumn = requiredColumn(columns, "productName");
+        this.priceColumn = requiredColumn(columns, "price");
+        this.quantityColumn = requiredColumn(columns, "quantity");
+        this.descriptionColumn = columns.getOrDefault("productdescription", -1);
+        this.discountColumn = columns.getOrDefault("discount", -1);
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        long row = ++rowNumber;
+        try {
+            return new ProductImportRow(row,
+                    field(record, nameColumn),
+                    field(record, descriptionColumn),
+                    parseInteger(field(record, quantityColumn), "quantity"),
+                    parseDouble(field(record, priceColumn), "price"),
+                    parseDouble(field(record, discountColumn), "discount"),
+                    null);
+        } catch (IllegalArgumentException e) {
+            return ProductImportRow.failed(row, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads one record, or returns {@code null} at the end of the input.
+     */
+    private List<String> readRecord() throws IOException {
+        if (endOfInput) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAny = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            sawAny = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int following = reader.read();
+                    if (following == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        if (following != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                append(field, (char) c);
+            }
+        }
+        if (c == -1) {
+            endOfInput = true;
+            if (!sawAny) {
+                return null;
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void append(StringBuilder field, char c) {
+        if (field.length() >= MAX_FIELD_LENGTH) {
+            throw new APIException("CSV field longer than " + MAX_FIELD_LENGTH + " characters, is a quote unbalanced?");
+        }
+        field.append(c);
+    }
+
+    private static int requiredColumn(Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name.toLowerCase(Locale.ROOT));
+        if (column == null) {
+            throw new APIException("The CSV header is missing the " + name + " column");
+        }
+        return column;
+    }
+
+    private static String field(List<String> record, int column) {
+        if (column < 0 || column >= record.size()) {
+            return null;
+        }
+        String value = record.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer parseInteger(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a whole number: " + value);
+        }
+    }
+
+    private static Double parseDouble(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " is not a number: " + value);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecombackend.catalogimport;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/**
+ * Streaming reader for newline-delimited JSON: one product object per line,
+ * with the same field names as {@code ProductDTO}. Blank lines are skipped.
+ */
+public class NdjsonProductRowReader implements ProductRowReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long rowNumber;
+
+    public NdjsonProductRowReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ProductImportRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        long row = ++rowNumber;
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.failed(row, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            return ProductImportRow.failed(row, "Expected a JSON object");
+        }
+        try {
+            return new ProductImportRow(row,
+                    text(node, "productName"),
+                    text(node, "productDescription"),
+                    integer(node, "quantity"),
+                    number(node, "price"),
+                    number(node, "discount"),
+                    null);
+        } catch (IllegalArgumentException e) {
+            return ProductImportRow.failed(row, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException(name + " must be a string");
+        }
+        String text = value.asText().trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static Integer integer(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.canConvertToInt() || !value.isIntegralNumber()) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+        return value.intValue();
+    }
+
+    private static Double number(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        if (!value.isNumber()) {
+            throw new IllegalArgumentException(name + " must be a number");
+        }
+        return value.doubleValue();
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecombackend.catalogimport;
+
+import com.ecombackend.exception.APIException;
+
+import java.util.Locale;
+
+/**
+ * Body formats accepted by the bulk product import, chosen by the request's
+ * {@code Content-Type}.
+ */
+public enum ProductImportFormat {
+    CSV,
+    NDJSON;
+
+    public static ProductImportFormat fromContentType(String contentType) {
+        String mediaType = contentType == null ? "" : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return switch (mediaType) {
+            case "text/csv" -> CSV;
+            case "application/x-ndjson", "application/jsonl" -> NDJSON;
+            default -> throw new APIException("Unsupported import format '" + contentType
+                    + "', use text/csv or application/x-ndjson");
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.ecombackend.catalogimport;
+
+import com.ecombackend.dto.ProductImportErrorDTO;
+import com.ecombackend.dto.ProductImportJobDTO;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk import, updated by the import worker, which writes
+ * snapshots of it for the job status endpoint. Only the first
+ * {@code maxReportedErrors} row errors are kept; later ones are only counted.
+ */
+public class ProductImportJob {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    @Getter
+    private final String jobId = UUID.randomUUID().toString();
+    @Getter
+    private final Long categoryId;
+    @Getter
+    private final ProductImportFormat format;
+    private final int maxReportedErrors;
+    private final Instant createdAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsImported = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final List<ProductImportErrorDTO> errors = new ArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant finishedAt;
+    private volatile String message;
+
+    public ProductImportJob(Long categoryId, ProductImportFormat format, int maxReportedErrors) {
+        this.categoryId = categoryId;
+        this.format = format;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public void start() {
+        status = Status.RUNNING;
+    }
+
+    public void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    public void imported(int rows) {
+        rowsImported.addAndGet(rows);
+    }
+
+    public void rowFailed(long row, String error) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportErrorDTO(row, error));
+            }
+        }
+    }
+
+    public void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    public void fail(String reason) {
+        finish(Status.FAILED, reason);
+    }
+
+    private void finish(Status finalStatus, String reason) {
+        message = reason;
+        finishedAt = Instant.now();
+        status = finalStatus;
+    }
+
+    public ProductImportJobDTO toDto() {
+        List<ProductImportErrorDTO> reported;
+        synchronized (errors) {
+            reported = List.copyOf(errors);
+        }
+        long failed = rowsFailed.get();
+        return new ProductImportJobDTO(jobId, categoryId, format.name(), status.name(), rowsRead.get(),
+                rowsImported.get(), failed, reported, Math.max(0, failed - reported.size()),
+                createdAt, finishedAt, message);
+    }
+}
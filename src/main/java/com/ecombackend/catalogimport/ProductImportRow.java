@@ -0,0 +1,14 @@
+package com.ecombackend.catalogimport;
+
+/**
+ * One parsed product line of an import. {@code rowNumber} counts data rows
+ * from 1, not counting a CSV header. When the line could not be parsed,
+ * {@code error} says why and the other fields may be {@code null}.
+ */
+public record ProductImportRow(long rowNumber, String productName, String productDescription,
+                               Integer quantity, Double price, Double discount, String error) {
+
+    static ProductImportRow failed(long rowNumber, String error) {
+        return new ProductImportRow(rowNumber, null, null, null, null, null, error);
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecombackend.catalogimport;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Reads an import body one row at a time, so memory use does not depend on
+ * the size of the file.
+ */
+public interface ProductRowReader extends Closeable {
+    /**
+     * Returns the next row, or {@code null} at the end of the input.
+     */
+    ProductImportRow next() throws IOException;
+}
@@ -5,7 +5,10 @@ public class AppConstants {
     public static final String PAGE_SIZE = "10";
     public static final String SORT_CATEGORIES_BY = "categoryId";
     public static final String SORT_PRODUCTS_BY = "productId";
+    public static final String SORT_SEARCH_BY = "relevance";
+    public static final int MAX_SEARCH_HITS = 1000;
     public static final String SORT_DIR = "asc";
     public static final String SORT_ORDERS_BY = "totalAmount";
     public static final String SORT_USERS_BY = "userId";
+    public static final String EXPORT_FORMAT = "ndjson";
 }
\ No newline at end of file
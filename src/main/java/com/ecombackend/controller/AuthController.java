@@ -83,4 +83,11 @@ public class AuthController {
 
         return ResponseEntity.ok(authService.getAllSellers(pageDetails));
     }
+
+    @GetMapping("/sellers/scroll")
+    public ResponseEntity<?> scrollSellers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize) {
+        return ResponseEntity.ok(authService.scrollSellers(cursor, pageSize));
+    }
 }
\ No newline at end of file
@@ -2,8 +2,7 @@ package com.ecombackend.controller;
 
 import com.ecombackend.dto.CartDTO;
 import com.ecombackend.dto.CartItemDTO;
-import com.ecombackend.entity.Cart;
-import com.ecombackend.repository.CartRepository;
+import com.ecombackend.dto.CartOperationDTO;
 import com.ecombackend.security.utils.AuthUtil;
 import com.ecombackend.service.CartService;
 import lombok.RequiredArgsConstructor;
@@ -18,7 +17,6 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CartController {
 
-    private final CartRepository cartRepository;
     private final AuthUtil authUtil;
     private final CartService cartService;
 
@@ -44,9 +42,13 @@ public class CartController {
     @GetMapping("/carts/users/cart")
     public ResponseEntity<CartDTO> getCartById(){
         String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        Long cartId = cart.getCartId();
-        CartDTO cartDTO = cartService.getCart(emailId, cartId);
+        CartDTO cartDTO = cartService.getUserCart(emailId);
+        return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
+    }
+
+    @PostMapping("/carts/users/cart/batch")
+    public ResponseEntity<CartDTO> applyCartOperations(@RequestBody List<CartOperationDTO> operations) {
+        CartDTO cartDTO = cartService.applyCartOperations(operations);
         return new ResponseEntity<CartDTO>(cartDTO, HttpStatus.OK);
     }
 
@@ -4,6 +4,7 @@ package com.ecombackend.controller;
 import com.ecombackend.constants.AppConstants;
 import com.ecombackend.dto.CategoryDTO;
 import com.ecombackend.dto.CategoryResponse;
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.exception.ResourceNotFoundException;
 import com.ecombackend.service.CategoryService;
 import jakarta.validation.Valid;
@@ -29,6 +30,17 @@ public class CategoryController {
         return ResponseEntity.ok(categoryResponse);
     }
 
+    @GetMapping("/public/categories/scroll")
+    public ResponseEntity<CursorResponse<CategoryDTO>> scrollCategories(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "PageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_CATEGORIES_BY, required = false) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder) {
+
+        CursorResponse<CategoryDTO> categoryResponse = categoryService.scrollCategories(cursor, pageSize, sortBy, sortOrder);
+        return ResponseEntity.ok(categoryResponse);
+    }
+
     @PostMapping("/admin/categories")
     public ResponseEntity<CategoryDTO> createCategory(@Valid @RequestBody CategoryDTO categoryDTO){
         CategoryDTO savedCategoryDTO = categoryService.createCategory(categoryDTO);
@@ -2,15 +2,20 @@ package com.ecombackend.controller;
 
 import com.ecombackend.constants.AppConstants;
 import com.ecombackend.dto.*;
+import com.ecombackend.export.ExportFormat;
+import com.ecombackend.export.ExportResponses;
 import com.ecombackend.security.utils.AuthUtil;
+import com.ecombackend.service.ExportService;
 import com.ecombackend.service.OrderService;
 import com.ecombackend.service.StripeService;
 import com.stripe.exception.StripeException;
 import com.stripe.model.PaymentIntent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api")
@@ -19,6 +24,7 @@ public class OrderController {
     private final OrderService orderService;
     private final AuthUtil authUtil;
     private final StripeService stripeService;
+    private final ExportService exportService;
     @PostMapping("/order/users/payments/{paymentMethod}")
     public ResponseEntity<OrderDTO> orderProducts(@PathVariable String paymentMethod, @RequestBody OrderRequestDTO orderRequestDTO) {
         String emailId = authUtil.loggedInEmail();
@@ -53,6 +59,27 @@ public class OrderController {
         return new ResponseEntity<OrderResponse>(orderResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/admin/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "format", defaultValue = AppConstants.EXPORT_FORMAT, required = false) String format,
+            @RequestParam(name = "after", defaultValue = "0", required = false) Long after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        return ExportResponses.stream("orders", exportFormat, acceptEncoding,
+                out -> exportService.exportOrders(exportFormat, after, out));
+    }
+
+    @GetMapping("/admin/orders/scroll")
+    public ResponseEntity<CursorResponse<OrderDTO>> scrollOrders(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_ORDERS_BY, required = false) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+    ) {
+        CursorResponse<OrderDTO> orderResponse = orderService.scrollOrders(cursor, pageSize, sortBy, sortOrder);
+        return new ResponseEntity<CursorResponse<OrderDTO>>(orderResponse, HttpStatus.OK);
+    }
+
     @GetMapping("/seller/orders")
     public ResponseEntity<OrderResponse> getAllSellerOrders(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
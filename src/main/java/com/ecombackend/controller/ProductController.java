@@ -2,23 +2,35 @@ package com.ecombackend.controller;
 
 import com.ecombackend.constants.AppConstants;
 
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.dto.ProductImportJobDTO;
 import com.ecombackend.dto.ProductResponse;
+import com.ecombackend.export.ExportFormat;
+import com.ecombackend.export.ExportResponses;
+import com.ecombackend.service.ExportService;
+import com.ecombackend.service.ProductImportService;
 import com.ecombackend.service.ProductService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ExportService exportService;
 
     @PostMapping("/admin/categories/{categoryId}/product")
     public ResponseEntity<ProductDTO> addProduct(@Valid @RequestBody ProductDTO productDTO,
@@ -27,6 +39,31 @@ public class ProductController {
         return new ResponseEntity<>(savedProductDTO, HttpStatus.CREATED);
     }
 
+    @PostMapping("/admin/categories/{categoryId}/products/import")
+    public ResponseEntity<ProductImportJobDTO> importProducts(@PathVariable Long categoryId,
+                                                              @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body) throws IOException {
+        ProductImportJobDTO job = productImportService.startImport(categoryId, contentType, body);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/products/imports/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/admin/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(name = "format", defaultValue = AppConstants.EXPORT_FORMAT, required = false) String format,
+            @RequestParam(name = "after", defaultValue = "0", required = false) Long after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        return ExportResponses.stream("products", exportFormat, acceptEncoding,
+                out -> exportService.exportProducts(exportFormat, after, out));
+    }
+
+    @GetMapping("/admin/products/imports/{jobId}")
+    public ResponseEntity<ProductImportJobDTO> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(productImportService.getImportJob(jobId));
+    }
+
     @GetMapping("/public/products")
     public ResponseEntity<ProductResponse> getAllProducts(
             @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
@@ -38,6 +75,17 @@ public class ProductController {
         return ResponseEntity.ok(productResponse);
     }
 
+    @GetMapping("/public/products/scroll")
+    public ResponseEntity<CursorResponse<ProductDTO>> scrollProducts(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+    ){
+        CursorResponse<ProductDTO> productResponse = productService.scrollProducts(cursor, pageSize, sortBy, sortOrder);
+        return ResponseEntity.ok(productResponse);
+    }
+
     @GetMapping("/public/categories/{categoryId}/products")
     public ResponseEntity<ProductResponse> getProductsByCategory(@PathVariable Long categoryId,
                                                                  @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
@@ -52,7 +100,7 @@ public class ProductController {
     public ResponseEntity<ProductResponse> getProductsByKeyword(@PathVariable String keyword,
                                                                 @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
                                                                 @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
-                                                                @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
+                                                                @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_SEARCH_BY, required = false) String sortBy,
                                                                 @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder){
         ProductResponse productResponse = productService.searchProductByKeyword(keyword, pageNumber, pageSize, sortBy, sortOrder);
         return ResponseEntity.ok(productResponse);
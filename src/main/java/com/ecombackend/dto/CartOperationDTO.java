@@ -0,0 +1,20 @@
+package com.ecombackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDTO {
+    private Operation operation;
+    private Long productId;
+    private Integer quantity;
+
+    public enum Operation {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecombackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorResponse<T> {
+    private List<T> content;
+    private Integer pageSize;
+    private String nextCursor;
+    private boolean lastPage;
+}
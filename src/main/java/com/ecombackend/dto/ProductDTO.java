@@ -1,5 +1,6 @@
 package com.ecombackend.dto;
 
+import com.ecombackend.pricing.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,9 +12,22 @@ public class ProductDTO {
     private Long productId;
     private String productName;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String mediumImageUrl;
     private String productDescription;
     private Integer quantity;
     private Double price;
     private Double discount;
     private Double specialPrice;
+
+    /**
+     * For JPQL constructor expressions, which read prices in cents and the
+     * discount in basis points.
+     */
+    public ProductDTO(Long productId, String productName, String imageUrl, String thumbnailUrl,
+                      String mediumImageUrl, String productDescription, Integer quantity,
+                      long price, int discount, long specialPrice) {
+        this(productId, productName, imageUrl, thumbnailUrl, mediumImageUrl, productDescription, quantity,
+                Money.toAmount(price), Money.toPercent(discount), Money.toAmount(specialPrice));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.ecombackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJobDTO {
+    private String jobId;
+    private Long categoryId;
+    private String format;
+    private String status;
+    private Long rowsRead;
+    private Long rowsImported;
+    private Long rowsFailed;
+    private List<ProductImportErrorDTO> errors;
+    private Long errorsNotShown;
+    private Instant createdAt;
+    private Instant finishedAt;
+    private String message;
+}
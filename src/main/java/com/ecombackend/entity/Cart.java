@@ -3,6 +3,7 @@ package com.ecombackend.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,19 +12,32 @@ import java.util.List;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "cart")
+@Table(name = "cart", indexes = {
+        @Index(name = "idx_cart_last_modified", columnList = "last_modified")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_user", columnNames = "user_id")
+})
 public class Cart {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "cart_seq", allocationSize = 50)
     private Long cartId;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     @OneToMany(mappedBy = "cart", cascade = {CascadeType.PERSIST, CascadeType.MERGE,CascadeType.REMOVE},orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>();
 
-    private Double totalAmount = 0.0;
+    @Column(name = "total_amount_cents")
+    private long totalAmount;
+
+    @Version
+    private long version;
+
+    // Set on every change made by the owner; repricing does not count
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified = Instant.now();
 
 }
\ No newline at end of file
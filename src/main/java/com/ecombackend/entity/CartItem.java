@@ -6,23 +6,30 @@ import lombok.*;
 @Entity
 @Getter
 @Setter
-@Table(name = "cart_items")
+@Table(name = "cart_items", indexes = {
+        @Index(name = "idx_cart_items_cart", columnList = "cart_id"),
+        @Index(name = "idx_cart_items_product", columnList = "product_id")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class CartItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long cartItemId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cart_id")
     private Cart cart;
 
-    @ManyToOne
+    // Products of a cart's lines are loaded together, see Product's @BatchSize
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id")
     private Product product;
 
     private Integer quantity;
-    private double discount;
-    private double productPrice;
+    @Column(name = "discount_bp")
+    private int discount;
+    @Column(name = "product_price_cents")
+    private long productPrice;
 }
\ No newline at end of file
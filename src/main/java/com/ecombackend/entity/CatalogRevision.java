@@ -0,0 +1,30 @@
+package com.ecombackend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * The single row that versions the public catalog for every node. Each node
+ * moves it forward after committing a catalog write and reads it on a short
+ * interval, so ETags and Last-Modified dates agree across nodes.
+ */
+@Entity
+@Table(name = "catalog_revision")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogRevision {
+    public static final int ID = 1;
+
+    @Id
+    private Integer revisionId;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private Instant lastModified;
+}
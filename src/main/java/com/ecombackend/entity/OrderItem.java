@@ -6,13 +6,16 @@ import lombok.*;
 @Entity
 @Getter
 @Setter
-@Table(name = "order_items")
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_seller_order", columnList = "seller_id, order_id")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long orderItemId;
 
     @ManyToOne
@@ -23,8 +26,15 @@ public class OrderItem {
     @JoinColumn(name = "order_id")
     private Order order;
 
+    // Copy of product.user at order time, so seller order queries need no join
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "seller_id")
+    private User seller;
+
     private Integer quantity;
-    private double discount;
-    private double orderedProductPrice;
+    @Column(name = "discount_bp")
+    private int discount;
+    @Column(name = "ordered_product_price_cents")
+    private long orderedProductPrice;
 
 }
\ No newline at end of file
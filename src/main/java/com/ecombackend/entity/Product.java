@@ -3,6 +3,7 @@ package com.ecombackend.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,27 +13,38 @@ import java.util.List;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_name", columnList = "category_Id, productName")
+})
+@BatchSize(size = 100)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long productId;
     private String productName;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String mediumImageUrl;
     private String productDescription;
     private Integer quantity;
-    private Double price;
-    private Double discount;
-    private Double specialPrice;
+    // Prices in cents and the discount in basis points, see Money
+    @Column(name = "price_cents")
+    private long price;
+    @Column(name = "discount_bp")
+    private int discount;
+    @Column(name = "special_price_cents")
+    private long specialPrice;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_Id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     private User user;
 
-    @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE,CascadeType.REMOVE},orphanRemoval = true,fetch = FetchType.EAGER)
+    // Every cart line of the product, across all carts; only loaded when the product is deleted
+    @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE,CascadeType.REMOVE},orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>();
 }
\ No newline at end of file
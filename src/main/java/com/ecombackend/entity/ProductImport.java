@@ -0,0 +1,45 @@
+package com.ecombackend.entity;
+
+import com.ecombackend.dto.ProductImportErrorDTO;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Last recorded progress of a bulk product import. The import worker writes
+ * it after every chunk, so the job status can be read on any node, not only
+ * on the one running the import.
+ */
+@Entity
+@Table(name = "product_imports")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImport {
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    private Long categoryId;
+    private String format;
+    private String status;
+    private Long rowsRead;
+    private Long rowsImported;
+    private Long rowsFailed;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    private List<ProductImportErrorDTO> errors;
+
+    private Long errorsNotShown;
+    private Instant createdAt;
+    private Instant finishedAt;
+
+    @Column(length = 1000)
+    private String message;
+}
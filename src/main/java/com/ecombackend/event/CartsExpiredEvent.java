@@ -0,0 +1,16 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published once per chunk of carts deleted by the expiry sweeper, with the
+ * ids of the deleted carts.
+ */
+@Getter
+@AllArgsConstructor
+public class CartsExpiredEvent {
+    private final List<Long> cartIds;
+}
@@ -0,0 +1,19 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published after a category has been created, renamed or deleted.
+ * When a category is deleted its products are removed with it, and their ids
+ * are carried in {@code removedProductIds}.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final Long categoryId;
+    private final boolean deleted;
+    private final List<Long> removedProductIds;
+}
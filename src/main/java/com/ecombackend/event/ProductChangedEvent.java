@@ -0,0 +1,17 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published after a product has been created, updated, re-imaged or deleted.
+ * {@code categoryId} is the category the product belongs to, so listeners can
+ * scope their reaction to the affected part of the catalog.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+    private final Long categoryId;
+    private final boolean deleted;
+}
@@ -0,0 +1,17 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published when a product has been given a new original image whose
+ * renditions do not exist yet. {@code imageName} is the content-addressed
+ * file name of the original.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductImageUploadedEvent {
+    private final Long productId;
+    private final Long categoryId;
+    private final String imageName;
+}
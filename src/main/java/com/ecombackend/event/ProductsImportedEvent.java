@@ -0,0 +1,18 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published once per committed chunk of a bulk product import, instead of a
+ * {@link ProductChangedEvent} per product. All {@code productIds} are new
+ * products in category {@code categoryId}.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductsImportedEvent {
+    private final Long categoryId;
+    private final List<Long> productIds;
+}
@@ -0,0 +1,20 @@
+package com.ecombackend.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published once per placed order, after its lines have been taken out of
+ * stock. Only the stock of {@code productIds} has changed, so carts are left
+ * alone and the search index only refreshes their quantities;
+ * {@code categoryIds} are the categories those products are listed in.
+ */
+@Getter
+@AllArgsConstructor
+public class StockReservedEvent {
+    private final Set<Long> categoryIds;
+    private final List<Long> productIds;
+}
@@ -2,12 +2,14 @@ package com.ecombackend.exception;
 
 
 import com.ecombackend.dto.ApiResponse;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -36,4 +38,16 @@ public class MyGlobalExceptionHandler {
         ApiResponse apiResponse = new ApiResponse(message,false);
         return new ResponseEntity<>(apiResponse, HttpStatus.BAD_REQUEST);
     }
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ApiResponse> myMaxUploadSizeExceededException(MaxUploadSizeExceededException e) {
+        ApiResponse apiResponse = new ApiResponse("The upload is larger than the " + e.getMaxUploadSize()
+                + " byte limit", false);
+        return new ResponseEntity<>(apiResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ApiResponse> myConcurrencyFailureException(ConcurrencyFailureException e) {
+        ApiResponse apiResponse = new ApiResponse("The request conflicted with a concurrent change, please try again",
+                false);
+        return new ResponseEntity<>(apiResponse, HttpStatus.CONFLICT);
+    }
 }
\ No newline at end of file
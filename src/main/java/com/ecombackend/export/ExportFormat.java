@@ -0,0 +1,38 @@
+package com.ecombackend.export;
+
+import com.ecombackend.exception.APIException;
+
+import java.util.Locale;
+
+/**
+ * Output formats of the admin exports, chosen with the {@code format} query
+ * parameter.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat fromParameter(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Unsupported export format '" + format + "', use ndjson or csv");
+        }
+    }
+}
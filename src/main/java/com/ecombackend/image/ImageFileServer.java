@@ -0,0 +1,223 @@
+package com.ecombackend.image;
+
+import com.ecombackend.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Serves the stored product images without copying them through the heap.
+ * <ul>
+ *     <li>Images of up to {@code hot-max-file-bytes} are kept in a hot set of
+ *     direct buffers, bounded by {@code hot-max-bytes}, and written from
+ *     there.</li>
+ *     <li>Larger images are handed to Tomcat's sendfile support, so the
+ *     kernel copies them from the page cache to the socket once the request
+ *     returns. On other containers they are written with
+ *     {@link FileChannel#transferTo}.</li>
+ * </ul>
+ * Content-addressed images ({@code <sha256>.<ext>} and their renditions)
+ * never change, so their name is their strong {@code ETag} and they are
+ * cached by clients for a year as {@code immutable}. Other files, such as the
+ * {@code default.png} placeholder, are tagged by size and modification time
+ * and revalidated on every use. A single {@code Range} is honoured, subject
+ * to {@code If-Range}; multiple ranges are answered with the whole image.
+ */
+@Component
+public class ImageFileServer {
+    private static final Pattern FILE_NAME = Pattern.compile("[A-Za-z0-9_-][A-Za-z0-9._-]*");
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(-thumb|-medium)?\\.[a-z]+");
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+            .getHeaderValue();
+    private static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path folder;
+    private final long hotMaxFileBytes;
+    private final Cache<HotKey, ByteBuffer> hotSet;
+
+    public ImageFileServer(@Value("${project.image}") String path,
+                           @Value("${catalog.image.hot-max-file-bytes:65536}") long hotMaxFileBytes,
+                           @Value("${catalog.image.hot-max-bytes:67108864}") long hotMaxBytes,
+                           MeterRegistry meterRegistry) {
+        this.folder = Paths.get(path).toAbsolutePath().normalize();
+        this.hotMaxFileBytes = hotMaxFileBytes;
+        this.hotSet = Caffeine.newBuilder()
+                .maximumWeight(hotMaxBytes)
+                .weigher((HotKey key, ByteBuffer image) -> image.capacity())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, hotSet, "images.hot");
+    }
+
+    public void serve(String fileName, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!FILE_NAME.matcher(fileName).matches()) {
+            throw new ResourceNotFoundException("Image", "fileName", fileName);
+        }
+        Path file = folder.resolve(fileName);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("Image", "fileName", fileName);
+        }
+        if (!attributes.isRegularFile()) {
+            throw new ResourceNotFoundException("Image", "fileName", fileName);
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        boolean immutable = CONTENT_ADDRESSED.matcher(fileName).matches();
+        String etag = immutable
+                ? "\"" + fileName.substring(0, fileName.lastIndexOf('.')) + "\""
+                : "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(length) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE : REVALIDATE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setContentType(MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                .toString());
+
+        long start = 0;
+        long end = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || start == end) {
+            return;
+        }
+
+        if (length <= hotMaxFileBytes) {
+            ByteBuffer image = hotSet.get(new HotKey(fileName, length, lastModified), key -> load(file, length));
+            writeBuffer(image.duplicate().position((int) start).limit((int) end), response);
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+        } else {
+            transfer(file, start, end, response);
+        }
+    }
+
+    /**
+     * Parses a {@code Range} header against a file of {@code length} bytes.
+     * Returns {@code [start, end)} for one satisfiable byte range, an empty
+     * array when the header is to be ignored (not a byte range, malformed or
+     * several ranges), and {@code null} when the range cannot be satisfied.
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(Long.parseLong(last) + 1, length);
+            if (start >= length) {
+                return null;
+            }
+            if (end <= start) {
+                return new long[0];
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static ByteBuffer load(Path file, long length) {
+        ByteBuffer image = ByteBuffer.allocateDirect((int) length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (image.hasRemaining()) {
+                if (channel.read(image) < 0) {
+                    throw new IOException("Image is shorter than " + length + " bytes");
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read image " + file, e);
+        }
+        return image.flip();
+    }
+
+    private static void writeBuffer(ByteBuffer image, HttpServletResponse response) throws IOException {
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        while (image.hasRemaining()) {
+            out.write(image);
+        }
+    }
+
+    private static void transfer(Path file, long start, long end, HttpServletResponse response) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long transferred = channel.transferTo(position, end - position, out);
+                if (transferred == 0 && position >= channel.size()) {
+                    throw new IOException("Image " + file + " was truncated while being sent");
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private record HotKey(String fileName, long length, long lastModified) {
+    }
+}
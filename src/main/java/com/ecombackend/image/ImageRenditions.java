@@ -0,0 +1,20 @@
+package com.ecombackend.image;
+
+import java.util.Locale;
+
+/**
+ * File names of the derived sizes of a content-addressed original. They
+ * follow from the original's name, so they can be looked up without reading
+ * the image. PNG and GIF originals get PNG renditions to keep transparency,
+ * everything else JPEG.
+ */
+public record ImageRenditions(String thumbnailUrl, String mediumImageUrl) {
+
+    public static ImageRenditions forImage(String imageName) {
+        int dot = imageName.lastIndexOf('.');
+        String base = dot < 0 ? imageName : imageName.substring(0, dot);
+        String extension = dot < 0 ? "" : imageName.substring(dot + 1).toLowerCase(Locale.ROOT);
+        String format = extension.equals("png") || extension.equals("gif") ? "png" : "jpg";
+        return new ImageRenditions(base + "-thumb." + format, base + "-medium." + format);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.AddressDTO;
+import com.ecombackend.entity.Address;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface AddressMapper {
+    AddressDTO toDto(Address address);
+
+    @Mapping(target = "user", ignore = true)
+    Address toEntity(AddressDTO addressDTO);
+}
@@ -0,0 +1,60 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.CartDTO;
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Cart;
+import com.ecombackend.entity.CartItem;
+import com.ecombackend.repository.projection.CartContentRow;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps a cart to the shape the cart endpoints return: every cart item becomes
+ * the product it refers to, with the product quantity replaced by the
+ * quantity in the cart.
+ */
+@Mapper(componentModel = "spring", uses = MoneyMapping.class)
+public interface CartMapper {
+    @Mapping(target = "totalPrice", source = "totalAmount", qualifiedByName = "centsToAmount")
+    @Mapping(target = "products", source = "cartItems")
+    CartDTO toDto(Cart cart);
+
+    @Mapping(target = "productId", source = "product.productId")
+    @Mapping(target = "productName", source = "product.productName")
+    @Mapping(target = "imageUrl", source = "product.imageUrl")
+    @Mapping(target = "thumbnailUrl", source = "product.thumbnailUrl")
+    @Mapping(target = "mediumImageUrl", source = "product.mediumImageUrl")
+    @Mapping(target = "productDescription", source = "product.productDescription")
+    @Mapping(target = "quantity", source = "quantity")
+    // Money attributes of the nested product are converted explicitly; qualifiers do not reach nested sources
+    @Mapping(target = "price", expression = "java(MoneyMapping.centsToAmount(cartItem.getProduct().getPrice()))")
+    @Mapping(target = "discount",
+            expression = "java(MoneyMapping.basisPointsToPercent(cartItem.getProduct().getDiscount()))")
+    @Mapping(target = "specialPrice",
+            expression = "java(MoneyMapping.centsToAmount(cartItem.getProduct().getSpecialPrice()))")
+    ProductDTO toProductDto(CartItem cartItem);
+
+    /**
+     * Builds carts from the rows of {@code CartRepository.findContentRows*},
+     * in which the rows of each cart are adjacent.
+     */
+    default List<CartDTO> rowsToDtos(List<CartContentRow> rows) {
+        List<CartDTO> carts = new ArrayList<>();
+        CartDTO cart = null;
+        for (CartContentRow row : rows) {
+            if (cart == null || !cart.getCartId().equals(row.getCartId())) {
+                cart = new CartDTO(row.getCartId(), MoneyMapping.centsToAmount(row.getTotalAmount()), new ArrayList<>());
+                carts.add(cart);
+            }
+            if (row.getProductId() != null) {
+                cart.getProducts().add(new ProductDTO(row.getProductId(), row.getProductName(), row.getImageUrl(),
+                        row.getThumbnailUrl(), row.getMediumImageUrl(), row.getProductDescription(), row.getQuantity(),
+                        row.getPrice(), row.getDiscount(), row.getSpecialPrice()));
+            }
+        }
+        return carts;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.CategoryDTO;
+import com.ecombackend.entity.Category;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface CategoryMapper {
+    CategoryDTO toDto(Category category);
+
+    @Mapping(target = "products", ignore = true)
+    Category toEntity(CategoryDTO categoryDTO);
+}
@@ -0,0 +1,35 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.pricing.Money;
+import org.mapstruct.Named;
+
+/**
+ * Conversions between the cents and basis points held by the entities and
+ * the decimal amounts and percentages of the DTOs. They are selected by name
+ * on each money attribute rather than by type, so no other {@code long} or
+ * {@code int} is ever converted.
+ */
+public final class MoneyMapping {
+    private MoneyMapping() {
+    }
+
+    @Named("centsToAmount")
+    public static double centsToAmount(long cents) {
+        return Money.toAmount(cents);
+    }
+
+    @Named("amountToCents")
+    public static long amountToCents(double amount) {
+        return Money.toCents(amount);
+    }
+
+    @Named("basisPointsToPercent")
+    public static double basisPointsToPercent(int basisPoints) {
+        return Money.toPercent(basisPoints);
+    }
+
+    @Named("percentToBasisPoints")
+    public static int percentToBasisPoints(double percent) {
+        return Money.toBasisPoints(percent);
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.OrderDTO;
+import com.ecombackend.dto.OrderItemDTO;
+import com.ecombackend.dto.PaymentDTO;
+import com.ecombackend.entity.Order;
+import com.ecombackend.entity.OrderItem;
+import com.ecombackend.entity.Payment;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = {ProductMapper.class, MoneyMapping.class})
+public interface OrderMapper {
+    @Mapping(target = "addressId", source = "address.addressId")
+    @Mapping(target = "totalAmount", qualifiedByName = "centsToAmount")
+    OrderDTO toDto(Order order);
+
+    @Mapping(target = "discount", qualifiedByName = "basisPointsToPercent")
+    @Mapping(target = "orderedProductPrice", qualifiedByName = "centsToAmount")
+    OrderItemDTO toDto(OrderItem orderItem);
+
+    PaymentDTO toDto(Payment payment);
+}
@@ -0,0 +1,12 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.ProductImportJobDTO;
+import com.ecombackend.entity.ProductImport;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ProductImportMapper {
+    ProductImportJobDTO toDto(ProductImport productImport);
+
+    ProductImport toEntity(ProductImportJobDTO productImportJobDTO);
+}
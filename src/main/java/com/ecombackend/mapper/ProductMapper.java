@@ -0,0 +1,28 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Product;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring", uses = MoneyMapping.class)
+public interface ProductMapper {
+    @Mapping(target = "price", qualifiedByName = "centsToAmount")
+    @Mapping(target = "discount", qualifiedByName = "basisPointsToPercent")
+    @Mapping(target = "specialPrice", qualifiedByName = "centsToAmount")
+    ProductDTO toDto(Product product);
+
+    List<ProductDTO> toDtos(List<Product> products);
+
+    @Mapping(target = "category", ignore = true)
+    @Mapping(target = "user", ignore = true)
+    @Mapping(target = "cartItems", ignore = true)
+    @Mapping(target = "thumbnailUrl", ignore = true)
+    @Mapping(target = "mediumImageUrl", ignore = true)
+    @Mapping(target = "price", qualifiedByName = "amountToCents")
+    @Mapping(target = "discount", qualifiedByName = "percentToBasisPoints")
+    @Mapping(target = "specialPrice", ignore = true)
+    Product toEntity(ProductDTO productDTO);
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.mapper;
+
+import com.ecombackend.dto.UserDTO;
+import com.ecombackend.entity.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring", uses = CartMapper.class)
+public interface UserMapper {
+    @Mapping(target = "username", source = "userName")
+    @Mapping(target = "password", ignore = true)
+    @Mapping(target = "address", ignore = true)
+    UserDTO toDto(User user);
+}
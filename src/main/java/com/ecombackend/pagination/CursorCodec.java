@@ -0,0 +1,117 @@
+package com.ecombackend.pagination;
+
+import com.ecombackend.dto.CursorResponse;
+import com.ecombackend.exception.APIException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts keyset scroll positions to and from the opaque cursor strings
+ * handed out by the {@code /scroll} listing endpoints.
+ * <p>
+ * A cursor is the URL-safe Base64 of a JSON object holding the sort key and
+ * id of the last row of the previous page. Values are written as strings and
+ * converted back to the entity attribute's Java type on decode, so a cursor
+ * can only be used against the entity it was issued for.
+ */
+@Component
+public class CursorCodec {
+    private static final TypeReference<Map<String, String>> KEYS_TYPE = new TypeReference<>() {
+    };
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public CursorCodec(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public ScrollPosition decode(String cursor, Class<?> entityClass) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        Map<String, String> encodedKeys;
+        try {
+            encodedKeys = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new APIException("Invalid cursor: " + cursor);
+        }
+
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        encodedKeys.forEach((property, value) -> {
+            try {
+                keys.put(property, convert(value, entityType.getAttribute(property).getJavaType()));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                throw new APIException("Invalid cursor: " + cursor);
+            }
+        });
+        return ScrollPosition.forward(keys);
+    }
+
+    public <T, D> CursorResponse<D> toResponse(Window<T> window, List<D> content, Integer pageSize) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encode((KeysetScrollPosition) window.positionAt(window.size() - 1));
+        }
+        return new CursorResponse<>(content, pageSize, nextCursor, nextCursor == null);
+    }
+
+    private String encode(KeysetScrollPosition position) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        position.getKeys().forEach((property, value) ->
+                keys.put(property, value == null ? null : String.valueOf(value)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(objectMapper.writeValueAsString(keys).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode cursor", e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String value, Class<?> type) {
+        if (value == null || type == String.class) {
+            return value;
+        }
+        if (type == Long.class || type == long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == Integer.class || type == int.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Double.class || type == double.class) {
+            return Double.valueOf(value);
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Boolean.valueOf(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type.isEnum()) {
+            return Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        throw new IllegalArgumentException("Unsupported cursor key type " + type.getName());
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecombackend.pagination;
+
+import com.ecombackend.exception.APIException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset scrolling over a JPQL select list rather than over entities, for
+ * the {@code /scroll} listings that read projections. Rows are ordered by the
+ * requested sort and then by the entity's id, as Spring Data's own keyset
+ * scrolling does, so cursors keep the same keys. Rows whose sort key is null
+ * come last in either direction. A window starts after the keys of the
+ * position it is given, null keys included, and reads one row more than the
+ * limit to tell whether another window follows.
+ */
+public final class KeysetQuery {
+
+    private KeysetQuery() {
+    }
+
+    /**
+     * {@code select} is the select list after {@code SELECT} and {@code from}
+     * the clause after {@code FROM}, in which {@code alias} names the entity
+     * the sort properties belong to.
+     */
+    public static <T> Window<T> scroll(EntityManager entityManager, Class<?> entityClass, String alias,
+                                       String select, String from, Sort sort, ScrollPosition position,
+                                       int limit, Function<Tuple, T> mapper) {
+        EntityType<?> entityType = entityManager.getMetamodel().entity(entityClass);
+        String idAttribute = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        List<Sort.Order> orders = new ArrayList<>();
+        List<Boolean> nullable = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            nullable.add(checkSortable(entityType, order.getProperty()));
+            orders.add(order);
+        }
+        if (sort.getOrderFor(idAttribute) == null) {
+            orders.add(Sort.Order.asc(idAttribute));
+            nullable.add(false);
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        for (int i = 0; i < orders.size(); i++) {
+            jpql.append(alias).append('.').append(orders.get(i).getProperty()).append(" AS key").append(i).append(", ");
+        }
+        jpql.append(select).append(" FROM ").append(from);
+        Map<String, Object> keys = position instanceof KeysetScrollPosition keyset ? keyset.getKeys() : Map.of();
+        for (Sort.Order order : keys.isEmpty() ? List.<Sort.Order>of() : orders) {
+            if (!keys.containsKey(order.getProperty())) {
+                throw new APIException("The cursor was not issued for a listing sorted by " + order.getProperty());
+            }
+        }
+        if (!keys.isEmpty()) {
+            jpql.append(" WHERE ");
+            String separator = "";
+            for (int i = 0; i < orders.size(); i++) {
+                if (keys.get(orders.get(i).getProperty()) == null) {
+                    // Nulls sort last, so only the keys after a null one can move past it
+                    continue;
+                }
+                jpql.append(separator).append('(');
+                for (int j = 0; j < i; j++) {
+                    String previous = alias + '.' + orders.get(j).getProperty();
+                    jpql.append(previous).append(keys.get(orders.get(j).getProperty()) == null
+                            ? " IS NULL AND "
+                            : " = :after" + j + " AND ");
+                }
+                String property = alias + '.' + orders.get(i).getProperty();
+                jpql.append('(').append(property).append(orders.get(i).isAscending() ? " > :after" : " < :after")
+                        .append(i).append(nullable.get(i) ? " OR " + property + " IS NULL))" : "))");
+                separator = " OR ";
+            }
+        }
+        jpql.append(" ORDER BY ");
+        for (int i = 0; i < orders.size(); i++) {
+            jpql.append(i == 0 ? "" : ", ").append(alias).append('.').append(orders.get(i).getProperty())
+                    .append(orders.get(i).isAscending() ? " ASC" : " DESC").append(nullable.get(i) ? " NULLS LAST" : "");
+        }
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        for (int i = 0; i < orders.size(); i++) {
+            Object key = keys.get(orders.get(i).getProperty());
+            if (key != null) {
+                query.setParameter("after" + i, key);
+            }
+        }
+        query.setMaxResults(limit + 1);
+        List<Tuple> rows = query.getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Tuple> window = hasNext ? rows.subList(0, limit) : rows;
+
+        return Window.from(window.stream().map(mapper).toList(), index -> {
+            Map<String, Object> last = new LinkedHashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                last.put(orders.get(i).getProperty(), window.get(index).get("key" + i));
+            }
+            return ScrollPosition.forward(last);
+        }, hasNext);
+    }
+
+    /**
+     * The row's selected values by alias, for mapping it to an interface
+     * projection.
+     */
+    public static Map<String, Object> asMap(Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (TupleElement<?> element : row.getElements()) {
+            if (element.getAlias() != null) {
+                values.put(element.getAlias(), row.get(element));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Sort properties end up in the query text, so only the entity's own
+     * basic attributes are accepted. Returns whether the attribute can be
+     * null; only those get the null ordering and the null branches, so a seek
+     * on a column that cannot be null stays a plain index range.
+     */
+    private static boolean checkSortable(EntityType<?> entityType, String property) {
+        try {
+            Attribute<?, ?> attribute = entityType.getAttribute(property);
+            if (attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC) {
+                return !attribute.getJavaType().isPrimitive()
+                        && (!(attribute instanceof SingularAttribute<?, ?> singular) || singular.isOptional());
+            }
+        } catch (IllegalArgumentException e) {
+            // Not an attribute of the entity
+        }
+        throw new APIException("Cannot sort by " + property);
+    }
+}
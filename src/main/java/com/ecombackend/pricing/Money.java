@@ -0,0 +1,57 @@
+package com.ecombackend.pricing;
+
+import com.ecombackend.exception.APIException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is held as a {@code long} number of cents and a discount as an
+ * {@code int} number of basis points (hundredths of a percent), in the
+ * entities, the database and all pricing arithmetic. Sums of cents are exact,
+ * so cart and order totals can be added to and subtracted from without
+ * drifting.
+ * <p>
+ * The API still exchanges amounts and percentages as decimal numbers. They
+ * are converted here, at the edge, rounding half up to the nearest cent or
+ * basis point. Going through the decimal string of the {@code double} means
+ * {@code 0.285} becomes 29 cents, as written, rather than 28.
+ */
+public final class Money {
+    public static final int CENTS_PER_UNIT = 100;
+    public static final int BASIS_POINTS_PER_PERCENT = 100;
+    /**
+     * Largest amount accepted from the API, leaving a {@code long} of cents
+     * ample room for line and cart totals.
+     */
+    public static final long MAX_AMOUNT = 1_000_000_000_000L;
+
+    private Money() {
+    }
+
+    public static long toCents(double amount) {
+        if (!Double.isFinite(amount) || Math.abs(amount) > MAX_AMOUNT) {
+            throw new APIException("Amount must be a number no larger than " + MAX_AMOUNT + ": " + amount);
+        }
+        return toHundredths(amount).longValue();
+    }
+
+    public static double toAmount(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+
+    public static int toBasisPoints(double percent) {
+        if (!(percent >= 0 && percent <= 100)) {
+            throw new APIException("Discount must be between 0 and 100: " + percent);
+        }
+        return toHundredths(percent).intValue();
+    }
+
+    public static double toPercent(int basisPoints) {
+        return (double) basisPoints / BASIS_POINTS_PER_PERCENT;
+    }
+
+    private static BigDecimal toHundredths(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).movePointRight(2);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecombackend.pricing;
+
+/**
+ * Price arithmetic on cents and basis points, see {@link Money}. Everything
+ * is done on primitive {@code long}s, so no call allocates. Overflow throws
+ * an {@link ArithmeticException} instead of wrapping.
+ */
+public final class PriceCalculator {
+    private static final long BASIS_POINTS_PER_UNIT = 100L * Money.BASIS_POINTS_PER_PERCENT;
+
+    private PriceCalculator() {
+    }
+
+    /**
+     * The price after the discount. The discount itself is rounded half up
+     * to the cent, so a 10% discount on 0.05 takes off 1 cent.
+     */
+    public static long specialPrice(long priceCents, int discountBasisPoints) {
+        return priceCents - discountAmount(priceCents, discountBasisPoints);
+    }
+
+    public static long discountAmount(long priceCents, int discountBasisPoints) {
+        long scaled = Math.multiplyExact(priceCents, (long) discountBasisPoints);
+        return Math.floorDiv(scaled + BASIS_POINTS_PER_UNIT / 2, BASIS_POINTS_PER_UNIT);
+    }
+
+    public static long lineTotal(long unitPriceCents, int quantity) {
+        return Math.multiplyExact(unitPriceCents, (long) quantity);
+    }
+
+    /**
+     * {@code total} plus {@code quantity} units at {@code unitPriceCents};
+     * a negative quantity takes units off.
+     */
+    public static long addLine(long totalCents, long unitPriceCents, int quantity) {
+        return Math.addExact(totalCents, lineTotal(unitPriceCents, quantity));
+    }
+}
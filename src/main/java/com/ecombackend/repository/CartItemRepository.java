@@ -1,14 +1,22 @@
 package com.ecombackend.repository;
 
 import com.ecombackend.entity.CartItem;
+import com.ecombackend.repository.projection.CartLineView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
+
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT ci FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     CartItem findCartItemByProductIdAndCartId(Long cartId, Long productId);
 
+    @Query("SELECT ci.product.productId AS productId, ci.quantity AS quantity, " +
+            "ci.productPrice AS productPrice, ci.discount AS discount " +
+            "FROM CartItem ci WHERE ci.cart.cartId = ?1 ORDER BY ci.cartItemId")
+    List<CartLineView> findLineViewsByCartId(Long cartId);
+
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1 AND ci.product.id = ?2")
     void deleteCartItemByProductIdAndCartId(Long cartId, Long productId);
@@ -16,4 +24,12 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.cart.id = ?1")
     void deleteAllByCartId(Long cartId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId IN ?1")
+    int deleteAllByCartIdIn(List<Long> cartIds);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.productPrice = ?2, ci.discount = ?3 WHERE ci.product.productId = ?1")
+    int repriceItemsOfProduct(Long productId, long productPrice, int discount);
 }
\ No newline at end of file
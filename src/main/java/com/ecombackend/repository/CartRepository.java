@@ -1,18 +1,144 @@
 package com.ecombackend.repository;
 
 import com.ecombackend.entity.Cart;
+import com.ecombackend.repository.projection.CartContentRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart,Long> {
+    String CONTENT_ROWS = "SELECT c.cartId AS cartId, c.totalAmount AS totalAmount, p.productId AS productId, " +
+            "p.productName AS productName, p.imageUrl AS imageUrl, p.thumbnailUrl AS thumbnailUrl, " +
+            "p.mediumImageUrl AS mediumImageUrl, p.productDescription AS productDescription, " +
+            "ci.quantity AS quantity, p.price AS price, p.discount AS discount, p.specialPrice AS specialPrice " +
+            "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p ";
+
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
     Cart findCartByEmail(String email);
 
+    /**
+     * Loads the user's cart to change it. The cart's version is incremented
+     * when the transaction commits, even if only its lines changed, and the
+     * commit fails if another transaction changed the cart in the meantime.
+     * Nothing is locked until the change is about to write
+     * ({@link #lockForChange}).
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
+    Cart findCartByEmailForChange(String email);
+
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT c FROM Cart c WHERE c.cartId = ?1")
+    Optional<Cart> findByIdForChange(Long cartId);
+
+    /**
+     * Locks a cart loaded for change before its lines are written. Edits
+     * thereby take the cart row before its lines, in the same order as
+     * repricing, so neither can deadlock the other. The lock is held only
+     * for the writes and the commit. If the cart changed since it was read,
+     * the change fails at once, as its commit would, instead of holding the
+     * lock while it writes lines it cannot commit.
+     */
+    default void lockForChange(Cart cart) {
+        if (lockVersion(cart.getCartId()) != cart.getVersion()) {
+            throw new ObjectOptimisticLockingFailureException(Cart.class, cart.getCartId());
+        }
+    }
+
+    /**
+     * Declares {@code cart} as the statement's only table, so that it flushes
+     * a new cart first but leaves the rest of the session as it is.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "cart"))
+    @Query(value = "SELECT c.version FROM cart c WHERE c.cart_id = ?1 FOR UPDATE", nativeQuery = true)
+    long lockVersion(Long cartId);
+
+    /**
+     * Locks the user's cart, if there is one, before it is read. Only a
+     * change retried after losing a race for the cart takes the lock this
+     * early, so that it cannot lose again.
+     */
+    @Query(value = "SELECT c.cart_id FROM cart c WHERE c.user_id IN " +
+            "(SELECT u.user_id FROM users u WHERE u.email = ?1) FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockCartOfUser(String email);
+
+    @Query(value = "SELECT c.cart_id FROM cart c WHERE c.cart_id = ?1 FOR UPDATE", nativeQuery = true)
+    List<Long> lockCart(Long cartId);
+
+    @Query("SELECT c.user.email FROM Cart c WHERE c.cartId = ?1")
+    String findOwnerEmail(Long cartId);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalAmount = ?2, c.lastModified = ?3, c.version = c.version + 1 WHERE c.cartId = ?1")
+    int updateTotalAmount(Long cartId, long totalAmount, Instant lastModified);
+
+    /**
+     * Moves the cart's last-modified time without changing its version, as
+     * the cart's contents stay the same. Waits for a sweeper that has claimed
+     * the cart, and then finds nothing to update if the sweeper deleted it.
+     */
+    @Modifying
+    @Query("UPDATE Cart c SET c.lastModified = ?2 WHERE c.cartId = ?1")
+    int touchLastModified(Long cartId, Instant lastModified);
+
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.cartId = ?2")
     Cart findCartByEmailAndCartId(String emailId, Long cartId);
 
+    /**
+     * The user's cart with its lines and their products, in one statement
+     * that reads no other cart.
+     */
+    @Query(CONTENT_ROWS + "WHERE c.user.email = ?1 ORDER BY ci.cartItemId")
+    List<CartContentRow> findContentRowsByEmail(String email);
+
+    @Query(CONTENT_ROWS + "WHERE c.user.email = ?1 AND c.cartId = ?2 ORDER BY ci.cartItemId")
+    List<CartContentRow> findContentRowsByEmailAndCartId(String email, Long cartId);
+
+    @Query(CONTENT_ROWS + "ORDER BY c.cartId, ci.cartItemId")
+    List<CartContentRow> findAllContentRows();
+
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.productId = ?1")
     List<Cart> findCartsByProductId(Long productId);
-}
\ No newline at end of file
+
+    /**
+     * Locks every cart holding the product, in id order so that concurrent
+     * repricings cannot deadlock each other. Cart edits also lock their cart
+     * before writing its lines ({@link #lockForChange}), and write-behind
+     * flushes lock theirs in id order.
+     */
+    @Query(value = "SELECT c.cart_id FROM cart c WHERE EXISTS (SELECT 1 FROM cart_items ci " +
+            "WHERE ci.cart_id = c.cart_id AND ci.product_id = ?1) ORDER BY c.cart_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockCartIdsContainingProduct(Long productId);
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalAmount = (SELECT COALESCE(SUM(ci.productPrice * ci.quantity), 0L) " +
+            "FROM CartItem ci WHERE ci.cart = c), c.version = c.version + 1 " +
+            "WHERE EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart = c AND ci.product.productId = ?1)")
+    int recomputeTotalsOfCartsContainingProduct(Long productId);
+
+    /**
+     * Claims up to {@code limit} carts last changed before {@code cutoff} by
+     * locking them. Carts locked by another transaction, such as another
+     * node's sweeper, are skipped rather than waited for.
+     */
+    @Query(value = "SELECT c.cart_id FROM cart c WHERE c.last_modified < ?1 ORDER BY c.last_modified " +
+            "LIMIT ?2 FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<Long> claimCartIdsModifiedBefore(Instant cutoff, int limit);
+
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.cartId IN ?1")
+    int deleteAllByCartIdIn(List<Long> cartIds);
+}
@@ -0,0 +1,15 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.entity.CatalogRevision;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, Integer> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM CatalogRevision r WHERE r.revisionId = ?1")
+    Optional<CatalogRevision> findForUpdate(Integer revisionId);
+}
@@ -1,11 +1,20 @@
 package com.ecombackend.repository;
 
+import com.ecombackend.dto.CategoryDTO;
 import com.ecombackend.entity.Category;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
     Category findByCategoryName(@NotBlank String categoryName);
-}
\ No newline at end of file
+
+    @Query(value = "SELECT new com.ecombackend.dto.CategoryDTO(c.categoryId, c.categoryName) FROM Category c",
+            countQuery = "SELECT count(c) FROM Category c")
+    Page<CategoryDTO> findAllCategoryDTOs(Pageable pageDetails);
+}
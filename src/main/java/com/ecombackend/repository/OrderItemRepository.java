@@ -1,10 +1,24 @@
 package com.ecombackend.repository;
 
 import com.ecombackend.entity.OrderItem;
+import com.ecombackend.repository.projection.OrderItemView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
-
-}
\ No newline at end of file
+    @Query("SELECT oi.order.orderId AS orderId, oi.orderItemId AS orderItemId, oi.quantity AS quantity, " +
+            "oi.discount AS discount, oi.orderedProductPrice AS orderedProductPrice, p.productId AS productId, " +
+            "p.productName AS productName, p.imageUrl AS imageUrl, p.thumbnailUrl AS thumbnailUrl, " +
+            "p.mediumImageUrl AS mediumImageUrl, p.productDescription AS productDescription, " +
+            "p.quantity AS productQuantity, p.price AS price, p.discount AS productDiscount, " +
+            "p.specialPrice AS specialPrice " +
+            "FROM OrderItem oi LEFT JOIN oi.product p WHERE oi.order.orderId IN :orderIds " +
+            "ORDER BY oi.orderItemId")
+    List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -1,10 +1,49 @@
 package com.ecombackend.repository;
 
 import com.ecombackend.entity.Order;
+import com.ecombackend.repository.projection.OrderExportRow;
+import com.ecombackend.repository.projection.OrderListView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderScrollRepository {
+    String LIST_VIEW_COLUMNS = "o.orderId AS orderId, o.email AS email, o.orderDate AS orderDate, " +
+            "o.totalAmount AS totalAmount, o.orderStatus AS orderStatus, a.addressId AS addressId, " +
+            "pay.paymentId AS paymentId, pay.paymentMethod AS paymentMethod, pay.pgPaymentId AS pgPaymentId, " +
+            "pay.pgStatus AS pgStatus, pay.pgResponseMessage AS pgResponseMessage, pay.pgName AS pgName";
+    String LIST_VIEW_FROM = "Order o LEFT JOIN o.address a LEFT JOIN o.payment pay";
+
+    @Query(value = "SELECT " + LIST_VIEW_COLUMNS + " FROM " + LIST_VIEW_FROM,
+            countQuery = "SELECT count(o) FROM Order o")
+    Page<OrderListView> findAllOrderViews(Pageable pageDetails);
+
+    @Query(value = "SELECT " + LIST_VIEW_COLUMNS + " FROM " + LIST_VIEW_FROM + " " +
+            "WHERE o.orderId IN (SELECT oi.order.orderId FROM OrderItem oi WHERE oi.seller.userId = :sellerId)",
+            countQuery = "SELECT count(DISTINCT oi.order.orderId) FROM OrderItem oi WHERE oi.seller.userId = :sellerId")
+    Page<OrderListView> findSellerOrderViews(@Param("sellerId") Long sellerId, Pageable pageDetails);
 
-}
\ No newline at end of file
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o.orderId AS orderId, o.email AS email, o.orderDate AS orderDate, " +
+            "o.orderStatus AS orderStatus, o.totalAmount AS totalAmount, a.addressId AS addressId, " +
+            "pay.paymentMethod AS paymentMethod, pay.pgPaymentId AS pgPaymentId, pay.pgStatus AS pgStatus, " +
+            "pay.pgName AS pgName, oi.orderItemId AS orderItemId, p.productId AS productId, " +
+            "p.productName AS productName, s.userId AS sellerId, oi.quantity AS quantity, " +
+            "oi.discount AS discount, oi.orderedProductPrice AS orderedProductPrice " +
+            "FROM Order o LEFT JOIN o.address a LEFT JOIN o.payment pay LEFT JOIN o.orderItems oi " +
+            "LEFT JOIN oi.product p LEFT JOIN oi.seller s " +
+            "WHERE o.orderId > :afterId ORDER BY o.orderId, oi.orderItemId")
+    Stream<OrderExportRow> streamExportRowsAfter(@Param("afterId") Long afterId);
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.repository.projection.OrderListView;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+public interface OrderScrollRepository {
+    /**
+     * Reads the orders after {@code position} as {@link OrderListView}s, in
+     * one statement with their address and payment. Their lines are not read.
+     */
+    Window<OrderListView> scrollOrderViews(ScrollPosition position, Sort sort, int limit);
+}
@@ -0,0 +1,26 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.entity.Order;
+import com.ecombackend.pagination.KeysetQuery;
+import com.ecombackend.repository.projection.OrderListView;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+public class OrderScrollRepositoryImpl implements OrderScrollRepository {
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Window<OrderListView> scrollOrderViews(ScrollPosition position, Sort sort, int limit) {
+        return KeysetQuery.scroll(entityManager, Order.class, "o",
+                OrderRepository.LIST_VIEW_COLUMNS, OrderRepository.LIST_VIEW_FROM, sort, position, limit,
+                row -> projectionFactory.createProjection(OrderListView.class, KeysetQuery.asMap(row)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.entity.ProductImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface ProductImportRepository extends JpaRepository<ProductImport, String> {
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProductImport pi WHERE pi.createdAt < ?1")
+    int deleteCreatedBefore(Instant createdAt);
+}
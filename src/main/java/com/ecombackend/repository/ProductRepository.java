@@ -1,15 +1,87 @@
 package com.ecombackend.repository;
 
-import com.ecombackend.entity.Category;
+import com.ecombackend.dto.ProductDTO;
 import com.ecombackend.entity.Product;
+import com.ecombackend.repository.projection.CartProductView;
+import com.ecombackend.repository.projection.ProductExportView;
+import com.ecombackend.repository.projection.ProductSearchView;
+import com.ecombackend.repository.projection.ProductStockView;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByCategoryOrderByPriceAsc(Category category, Pageable pageDetails);
-    Page<Product> findByProductNameLikeIgnoreCase(String keyword, Pageable pageDetails);
-}
\ No newline at end of file
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository,
+        ProductScrollRepository {
+    @Query(value = "SELECT new com.ecombackend.dto.ProductDTO(p.productId, p.productName, p.imageUrl, " +
+            "p.thumbnailUrl, p.mediumImageUrl, p.productDescription, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p",
+            countQuery = "SELECT count(p) FROM Product p")
+    Page<ProductDTO> findAllProductDTOs(Pageable pageDetails);
+
+    @Query(value = "SELECT new com.ecombackend.dto.ProductDTO(p.productId, p.productName, p.imageUrl, " +
+            "p.thumbnailUrl, p.mediumImageUrl, p.productDescription, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p " +
+            "WHERE p.category.categoryId = :categoryId",
+            countQuery = "SELECT count(p) FROM Product p WHERE p.category.categoryId = :categoryId")
+    Page<ProductDTO> findProductDTOsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageDetails);
+
+    @Query("SELECT new com.ecombackend.dto.ProductDTO(p.productId, p.productName, p.imageUrl, " +
+            "p.thumbnailUrl, p.mediumImageUrl, p.productDescription, p.quantity, p.price, p.discount, p.specialPrice) FROM Product p " +
+            "WHERE p.productId IN :productIds")
+    List<ProductDTO> findProductDTOsByIds(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT p.productId FROM Product p WHERE p.category.categoryId = :categoryId")
+    List<Long> findProductIdsByCategoryId(@Param("categoryId") Long categoryId);
+
+    List<ProductSearchView> findFirst1000ByProductIdGreaterThanOrderByProductIdAsc(Long productId);
+    Optional<ProductSearchView> findSearchViewByProductId(Long productId);
+    List<ProductSearchView> findSearchViewsByProductIdIn(Collection<Long> productIds);
+    List<CartProductView> findCartProductViewsByProductIdIn(Collection<Long> productIds);
+    boolean existsByCategoryCategoryIdAndProductName(Long categoryId, String productName);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.productId AS productId, p.productName AS productName, " +
+            "p.productDescription AS productDescription, p.imageUrl AS imageUrl, p.quantity AS quantity, " +
+            "p.price AS price, p.discount AS discount, p.specialPrice AS specialPrice, " +
+            "c.categoryId AS categoryId, s.userId AS sellerId " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.user s " +
+            "WHERE p.productId > :afterId ORDER BY p.productId")
+    Stream<ProductExportView> streamExportViewsAfter(@Param("afterId") Long afterId);
+
+    @Query("SELECT p.productName FROM Product p WHERE p.category.categoryId = :categoryId " +
+            "AND p.productName IN :productNames")
+    List<String> findProductNamesInCategory(@Param("categoryId") Long categoryId,
+                                            @Param("productNames") Collection<String> productNames);
+
+    @Query("SELECT p.productId AS productId, p.productName AS productName, p.quantity AS quantity " +
+            "FROM Product p WHERE p.productId IN :productIds")
+    List<ProductStockView> findStockByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Records the renditions of {@code imageUrl}, unless the product has been
+     * given another image in the meantime.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Product p SET p.thumbnailUrl = :thumbnailUrl, p.mediumImageUrl = :mediumImageUrl " +
+            "WHERE p.productId = :productId AND p.imageUrl = :imageUrl")
+    int updateImageRenditions(@Param("productId") Long productId, @Param("imageUrl") String imageUrl,
+                              @Param("thumbnailUrl") String thumbnailUrl,
+                              @Param("mediumImageUrl") String mediumImageUrl);
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.dto.ProductDTO;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+public interface ProductScrollRepository {
+    /**
+     * Reads the products after {@code position} straight into DTOs, in one
+     * statement.
+     */
+    Window<ProductDTO> scrollProductDTOs(ScrollPosition position, Sort sort, int limit);
+}
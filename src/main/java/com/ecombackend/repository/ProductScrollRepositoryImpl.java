@@ -0,0 +1,36 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Product;
+import com.ecombackend.pagination.KeysetQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+public class ProductScrollRepositoryImpl implements ProductScrollRepository {
+    private static final String COLUMNS = "p.productId AS productId, p.productName AS productName, " +
+            "p.imageUrl AS imageUrl, p.thumbnailUrl AS thumbnailUrl, p.mediumImageUrl AS mediumImageUrl, " +
+            "p.productDescription AS productDescription, p.quantity AS quantity, p.price AS price, " +
+            "p.discount AS discount, p.specialPrice AS specialPrice";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Window<ProductDTO> scrollProductDTOs(ScrollPosition position, Sort sort, int limit) {
+        return KeysetQuery.scroll(entityManager, Product.class, "p", COLUMNS, "Product p", sort, position, limit,
+                row -> new ProductDTO(
+                        row.get("productId", Long.class),
+                        row.get("productName", String.class),
+                        row.get("imageUrl", String.class),
+                        row.get("thumbnailUrl", String.class),
+                        row.get("mediumImageUrl", String.class),
+                        row.get("productDescription", String.class),
+                        row.get("quantity", Integer.class),
+                        row.get("price", Long.class),
+                        row.get("discount", Integer.class),
+                        row.get("specialPrice", Long.class)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecombackend.repository;
+
+import java.util.Map;
+
+public interface ProductStockRepository {
+    /**
+     * Takes {@code quantities} (product id to requested quantity) out of stock
+     * in one conditional UPDATE. Either every product has enough stock and all
+     * of them are decremented, or none is; the number of updated rows is
+     * returned, so anything other than {@code quantities.size()} means the
+     * reservation failed and the transaction must be rolled back. The rows are
+     * locked in product id order beforehand, so concurrent reservations of
+     * overlapping products wait for each other instead of deadlocking.
+     */
+    int reserveStock(Map<Long, Integer> quantities);
+}
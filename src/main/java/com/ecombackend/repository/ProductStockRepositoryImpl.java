@@ -0,0 +1,46 @@
+package com.ecombackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.Map;
+
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int reserveStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return 0;
+        }
+        // Locked in id order first: the UPDATE alone locks rows in whatever
+        // order it scans them, so two orders sharing products could deadlock
+        entityManager.createNativeQuery("SELECT product_id FROM products WHERE product_id IN (:productIds)" +
+                        " ORDER BY product_id FOR UPDATE")
+                .setParameter("productIds", quantities.keySet())
+                .getResultList();
+        Query query = entityManager.createQuery(
+                "UPDATE Product p SET p.quantity = p.quantity - " + requested("p", quantities.size()) +
+                " WHERE p.productId IN :productIds AND p.quantity >= " + requested("p", quantities.size()) +
+                " AND NOT EXISTS (SELECT s.productId FROM Product s WHERE s.productId IN :productIds" +
+                " AND s.quantity < " + requested("s", quantities.size()) + ")");
+        int line = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            query.setParameter("id" + line, entry.getKey());
+            query.setParameter("qty" + line, entry.getValue());
+            line++;
+        }
+        query.setParameter("productIds", quantities.keySet());
+        return query.executeUpdate();
+    }
+
+    private static String requested(String alias, int lines) {
+        StringBuilder expression = new StringBuilder("CASE ").append(alias).append(".productId");
+        for (int line = 0; line < lines; line++) {
+            expression.append(" WHEN :id").append(line).append(" THEN :qty").append(line);
+        }
+        return expression.append(" END").toString();
+    }
+}
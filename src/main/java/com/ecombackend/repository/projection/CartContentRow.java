@@ -0,0 +1,21 @@
+package com.ecombackend.repository.projection;
+
+/**
+ * One line of a cart with the product fields shown for it, or a single row
+ * with no product for an empty cart. Prices are in cents and the discount in
+ * basis points; {@code quantity} is the quantity in the cart.
+ */
+public interface CartContentRow {
+    Long getCartId();
+    long getTotalAmount();
+    Long getProductId();
+    String getProductName();
+    String getImageUrl();
+    String getThumbnailUrl();
+    String getMediumImageUrl();
+    String getProductDescription();
+    Integer getQuantity();
+    Long getPrice();
+    Integer getDiscount();
+    Long getSpecialPrice();
+}
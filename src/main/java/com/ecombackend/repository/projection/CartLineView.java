@@ -0,0 +1,8 @@
+package com.ecombackend.repository.projection;
+
+public interface CartLineView {
+    Long getProductId();
+    Integer getQuantity();
+    long getProductPrice();
+    int getDiscount();
+}
@@ -0,0 +1,18 @@
+package com.ecombackend.repository.projection;
+
+/**
+ * The product fields a cart shows for each of its lines. Prices are in
+ * cents and the discount in basis points.
+ */
+public interface CartProductView {
+    Long getProductId();
+    String getProductName();
+    String getImageUrl();
+    String getThumbnailUrl();
+    String getMediumImageUrl();
+    String getProductDescription();
+    Integer getQuantity();
+    long getPrice();
+    int getDiscount();
+    long getSpecialPrice();
+}
@@ -0,0 +1,27 @@
+package com.ecombackend.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * One order line joined with its order and payment. An order without lines
+ * yields one row with the line fields {@code null}.
+ */
+public interface OrderExportRow {
+    Long getOrderId();
+    String getEmail();
+    LocalDate getOrderDate();
+    String getOrderStatus();
+    long getTotalAmount();
+    Long getAddressId();
+    String getPaymentMethod();
+    String getPgPaymentId();
+    String getPgStatus();
+    String getPgName();
+    Long getOrderItemId();
+    Long getProductId();
+    String getProductName();
+    Long getSellerId();
+    Integer getQuantity();
+    Integer getDiscount();
+    Long getOrderedProductPrice();
+}
@@ -0,0 +1,19 @@
+package com.ecombackend.repository.projection;
+
+public interface OrderItemView {
+    Long getOrderId();
+    Long getOrderItemId();
+    Integer getQuantity();
+    int getDiscount();
+    long getOrderedProductPrice();
+    Long getProductId();
+    String getProductName();
+    String getImageUrl();
+    String getThumbnailUrl();
+    String getMediumImageUrl();
+    String getProductDescription();
+    Integer getProductQuantity();
+    Long getPrice();
+    Integer getProductDiscount();
+    Long getSpecialPrice();
+}
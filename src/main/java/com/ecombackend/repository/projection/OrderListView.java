@@ -0,0 +1,18 @@
+package com.ecombackend.repository.projection;
+
+import java.time.LocalDate;
+
+public interface OrderListView {
+    Long getOrderId();
+    String getEmail();
+    LocalDate getOrderDate();
+    long getTotalAmount();
+    String getOrderStatus();
+    Long getAddressId();
+    Long getPaymentId();
+    String getPaymentMethod();
+    String getPgPaymentId();
+    String getPgStatus();
+    String getPgResponseMessage();
+    String getPgName();
+}
@@ -0,0 +1,14 @@
+package com.ecombackend.repository.projection;
+
+public interface ProductExportView {
+    Long getProductId();
+    String getProductName();
+    String getProductDescription();
+    String getImageUrl();
+    Integer getQuantity();
+    long getPrice();
+    int getDiscount();
+    long getSpecialPrice();
+    Long getCategoryId();
+    Long getSellerId();
+}
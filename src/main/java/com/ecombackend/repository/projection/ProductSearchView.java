@@ -0,0 +1,11 @@
+package com.ecombackend.repository.projection;
+
+public interface ProductSearchView {
+    Long getProductId();
+    String getProductName();
+    String getProductDescription();
+    long getPrice();
+    int getDiscount();
+    long getSpecialPrice();
+    Integer getQuantity();
+}
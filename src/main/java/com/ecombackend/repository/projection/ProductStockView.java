@@ -0,0 +1,7 @@
+package com.ecombackend.repository.projection;
+
+public interface ProductStockView {
+    Long getProductId();
+    String getProductName();
+    Integer getQuantity();
+}
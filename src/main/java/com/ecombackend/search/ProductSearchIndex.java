@@ -0,0 +1,601 @@
+package com.ecombackend.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and description.
+ * <p>
+ * Every indexed product gets an internal ordinal; each term keeps a postings
+ * list of (ordinal, term frequency) pairs in ordinal order. Name terms count
+ * {@value #NAME_WEIGHT} times so that a match in the name outranks the same
+ * match in the description. Queries are scored with BM25 and query terms that
+ * are not in the vocabulary are expanded to terms within one edit
+ * (insert, delete, substitute or swap two adjacent letters), found through a
+ * map of single-deletion variants of every term.
+ * <p>
+ * Updates replace the previous version of a product: the old ordinal is
+ * tombstoned and a new one is appended. Tombstoned postings are compacted
+ * away once they make up a quarter of the index.
+ * <p>
+ * Each product's name, prices, discount and quantity are kept next to its
+ * postings, so matches can also be sorted by one of the
+ * {@link SearchSortField}s without going back to the database. Names are
+ * compared in code point order.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final float FUZZY_WEIGHT = 0.6f;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_COMPACTION_POSTINGS = 10_000;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<String, Integer> termIds = new HashMap<>();
+    private List<Postings> postings = new ArrayList<>();
+    private Map<String, int[]> deletionVariants = new HashMap<>();
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private BitSet live = new BitSet();
+
+    private long[] productIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private int[][] docTerms = new int[1024][];
+    private String[] names = new String[1024];
+    private long[] prices = new long[1024];
+    private int[] discounts = new int[1024];
+    private long[] specialPrices = new long[1024];
+    private int[] quantities = new int[1024];
+    private int nextOrdinal;
+    private int liveDocs;
+    private long totalLength;
+    private long totalPostings;
+    private long deadPostings;
+
+    /**
+     * Adds the product to the index, replacing any previously indexed version.
+     */
+    public void index(SearchDocument product) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : TextAnalyzer.analyze(product.productName())) {
+            frequencies.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : TextAnalyzer.analyze(product.productDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        long productId = product.productId();
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            int ordinal = nextOrdinal++;
+            ensureCapacity(nextOrdinal);
+
+            int[] terms = new int[frequencies.size()];
+            int length = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                int termId = termIdLocked(entry.getKey());
+                postings.get(termId).add(ordinal, entry.getValue());
+                terms[i++] = termId;
+                length += entry.getValue();
+            }
+
+            productIds[ordinal] = productId;
+            lengths[ordinal] = length;
+            docTerms[ordinal] = terms;
+            names[ordinal] = product.productName();
+            prices[ordinal] = product.price();
+            discounts[ordinal] = product.discount();
+            specialPrices[ordinal] = product.specialPrice();
+            quantities[ordinal] = product.quantity();
+            live.set(ordinal);
+            ordinals.put(productId, ordinal);
+            liveDocs++;
+            totalLength += length;
+            totalPostings += terms.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records a new stock level of an indexed product, which leaves its
+     * postings alone.
+     */
+    public void updateQuantity(long productId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(productId);
+            if (ordinal != null) {
+                quantities[ordinal] = quantity;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            termIds.clear();
+            postings.clear();
+            deletionVariants.clear();
+            ordinals.clear();
+            live.clear();
+            productIds = new long[1024];
+            lengths = new int[1024];
+            docTerms = new int[1024][];
+            names = new String[1024];
+            prices = new long[1024];
+            discounts = new int[1024];
+            specialPrices = new long[1024];
+            quantities = new int[1024];
+            nextOrdinal = 0;
+            liveDocs = 0;
+            totalLength = 0;
+            totalPostings = 0;
+            deadPostings = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Takes over the contents of {@code rebuilt}, an index built off to the
+     * side, in one step. {@code rebuilt} must not be used afterwards.
+     */
+    public void replaceWith(ProductSearchIndex rebuilt) {
+        lock.writeLock().lock();
+        try {
+            termIds = rebuilt.termIds;
+            postings = rebuilt.postings;
+            deletionVariants = rebuilt.deletionVariants;
+            ordinals = rebuilt.ordinals;
+            live = rebuilt.live;
+            productIds = rebuilt.productIds;
+            lengths = rebuilt.lengths;
+            docTerms = rebuilt.docTerms;
+            names = rebuilt.names;
+            prices = rebuilt.prices;
+            discounts = rebuilt.discounts;
+            specialPrices = rebuilt.specialPrices;
+            quantities = rebuilt.quantities;
+            nextOrdinal = rebuilt.nextOrdinal;
+            liveDocs = rebuilt.liveDocs;
+            totalLength = rebuilt.totalLength;
+            totalPostings = rebuilt.totalPostings;
+            deadPostings = rebuilt.deadPostings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} product ids, starting at {@code offset}, in
+     * descending relevance order. Ties are broken by product id.
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return SearchHits.EMPTY;
+            }
+            return topHits(scoreLocked(queryTerms), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} ids of the products matching the query,
+     * starting at {@code offset}, ordered by {@code sortField}. Ties are
+     * broken by ascending product id. Only the first {@code offset + limit}
+     * matches are ever held in order, so the cost grows with the number of
+     * matches times the log of the page end.
+     */
+    public SearchHits search(String query, SearchSortField sortField, boolean ascending, int offset, int limit) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+        Set<String> queryTerms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return SearchHits.EMPTY;
+        }
+
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0) {
+                return SearchHits.EMPTY;
+            }
+            return sortedHits(scoreLocked(queryTerms), sortComparator(sortField, ascending), offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ScoreAccumulator scoreLocked(Set<String> queryTerms) {
+        ScoreAccumulator scores = new ScoreAccumulator();
+        float averageLength = (float) totalLength / liveDocs;
+        for (String term : queryTerms) {
+            Integer termId = termIds.get(term);
+            if (termId != null && postings.get(termId).liveCount > 0) {
+                accumulate(scores, postings.get(termId), 1f, averageLength);
+            } else if (term.length() >= MIN_FUZZY_LENGTH) {
+                for (int fuzzyTermId : fuzzyTermIdsLocked(term)) {
+                    accumulate(scores, postings.get(fuzzyTermId), FUZZY_WEIGHT, averageLength);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(ScoreAccumulator scores, Postings termPostings, float weight, float averageLength) {
+        int documentFrequency = termPostings.liveCount;
+        float idf = (float) Math.log(1 + (liveDocs - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (int i = 0; i < termPostings.size; i++) {
+            int ordinal = termPostings.docs[i];
+            if (!live.get(ordinal)) {
+                continue;
+            }
+            int tf = termPostings.freqs[i];
+            float norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+            scores.add(ordinal, weight * idf * tf * (K1 + 1) / (tf + norm));
+        }
+    }
+
+    private SearchHits topHits(ScoreAccumulator scores, int offset, int limit) {
+        if (offset >= scores.size) {
+            return new SearchHits(List.of(), scores.size);
+        }
+        int wanted = (int) Math.min((long) offset + limit, scores.size);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.min(wanted, scores.size) + 1, (a, b) -> {
+            int byScore = Float.compare(scores.values[a], scores.values[b]);
+            return byScore != 0 ? byScore
+                    : Long.compare(productIds[scores.ordinal(b)], productIds[scores.ordinal(a)]);
+        });
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            if (scores.keys[slot] != 0) {
+                heap.offer(slot);
+                if (heap.size() > wanted) {
+                    heap.poll();
+                }
+            }
+        }
+
+        int[] ranked = new int[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll();
+        }
+        List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, ranked.length - offset)));
+        for (int i = offset; i < ranked.length; i++) {
+            page.add(productIds[scores.ordinal(ranked[i])]);
+        }
+        return new SearchHits(page, scores.size);
+    }
+
+    private SearchHits sortedHits(ScoreAccumulator scores, Comparator<Integer> order, int offset, int limit) {
+        if (offset >= scores.size) {
+            return new SearchHits(List.of(), scores.size);
+        }
+        int wanted = (int) Math.min((long) offset + limit, scores.size);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(wanted + 1, order.reversed());
+        for (int slot = 0; slot < scores.keys.length; slot++) {
+            if (scores.keys[slot] != 0) {
+                heap.offer(scores.ordinal(slot));
+                if (heap.size() > wanted) {
+                    heap.poll();
+                }
+            }
+        }
+
+        int[] sorted = new int[heap.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = heap.poll();
+        }
+        List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, sorted.length - offset)));
+        for (int i = offset; i < sorted.length; i++) {
+            page.add(productIds[sorted[i]]);
+        }
+        return new SearchHits(page, scores.size);
+    }
+
+    /**
+     * Orders ordinals by the field, then by ascending product id. A missing
+     * name sorts last going up and first going down, as in PostgreSQL.
+     */
+    private Comparator<Integer> sortComparator(SearchSortField sortField, boolean ascending) {
+        Comparator<Integer> byField = switch (sortField) {
+            case PRODUCT_ID -> Comparator.comparingLong(ordinal -> productIds[ordinal]);
+            case PRODUCT_NAME -> Comparator.comparing(ordinal -> names[ordinal],
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case PRICE -> Comparator.comparingLong(ordinal -> prices[ordinal]);
+            case DISCOUNT -> Comparator.comparingInt(ordinal -> discounts[ordinal]);
+            case SPECIAL_PRICE -> Comparator.comparingLong(ordinal -> specialPrices[ordinal]);
+            case QUANTITY -> Comparator.comparingInt(ordinal -> quantities[ordinal]);
+        };
+        if (!ascending) {
+            byField = byField.reversed();
+        }
+        return byField.thenComparingLong(ordinal -> productIds[ordinal]);
+    }
+
+    private Set<Integer> fuzzyTermIdsLocked(String term) {
+        Set<Integer> candidates = new LinkedHashSet<>();
+        addLiveCandidates(candidates, deletionVariants.get(term), term);
+        for (int i = 0; i < term.length(); i++) {
+            String variant = term.substring(0, i) + term.substring(i + 1);
+            Integer termId = termIds.get(variant);
+            if (termId != null && postings.get(termId).liveCount > 0) {
+                candidates.add(termId);
+            }
+            addLiveCandidates(candidates, deletionVariants.get(variant), term);
+        }
+        return candidates;
+    }
+
+    private void addLiveCandidates(Set<Integer> candidates, int[] variantTermIds, String term) {
+        if (variantTermIds == null) {
+            return;
+        }
+        for (int termId : variantTermIds) {
+            Postings termPostings = postings.get(termId);
+            if (termPostings.liveCount > 0 && withinOneEdit(term, termPostings.term)) {
+                candidates.add(termId);
+            }
+        }
+    }
+
+    private int termIdLocked(String term) {
+        Integer existing = termIds.get(term);
+        if (existing != null) {
+            return existing;
+        }
+        int termId = postings.size();
+        termIds.put(term, termId);
+        postings.add(new Postings(term));
+        if (term.length() >= MIN_FUZZY_LENGTH) {
+            for (int i = 0; i < term.length(); i++) {
+                String variant = term.substring(0, i) + term.substring(i + 1);
+                int[] existingIds = deletionVariants.get(variant);
+                if (existingIds == null) {
+                    deletionVariants.put(variant, new int[]{termId});
+                } else if (existingIds[existingIds.length - 1] != termId) {
+                    int[] grown = Arrays.copyOf(existingIds, existingIds.length + 1);
+                    grown[existingIds.length] = termId;
+                    deletionVariants.put(variant, grown);
+                }
+            }
+        }
+        return termId;
+    }
+
+    private void removeLocked(long productId) {
+        Integer ordinal = ordinals.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        live.clear(ordinal);
+        for (int termId : docTerms[ordinal]) {
+            postings.get(termId).liveCount--;
+        }
+        liveDocs--;
+        totalLength -= lengths[ordinal];
+        deadPostings += docTerms[ordinal].length;
+        docTerms[ordinal] = null;
+        names[ordinal] = null;
+
+        if (deadPostings > MIN_COMPACTION_POSTINGS && deadPostings * 4 > totalPostings) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() {
+        int[] remap = new int[nextOrdinal];
+        int compacted = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (live.get(ordinal)) {
+                remap[ordinal] = compacted;
+                productIds[compacted] = productIds[ordinal];
+                lengths[compacted] = lengths[ordinal];
+                docTerms[compacted] = docTerms[ordinal];
+                names[compacted] = names[ordinal];
+                prices[compacted] = prices[ordinal];
+                discounts[compacted] = discounts[ordinal];
+                specialPrices[compacted] = specialPrices[ordinal];
+                quantities[compacted] = quantities[ordinal];
+                ordinals.put(productIds[compacted], compacted);
+                compacted++;
+            } else {
+                remap[ordinal] = -1;
+            }
+        }
+        Arrays.fill(docTerms, compacted, nextOrdinal, null);
+        Arrays.fill(names, compacted, nextOrdinal, null);
+        for (Postings termPostings : postings) {
+            termPostings.compact(remap);
+        }
+        live.clear();
+        live.set(0, compacted);
+        nextOrdinal = compacted;
+        totalPostings -= deadPostings;
+        deadPostings = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > productIds.length) {
+            int newLength = Math.max(capacity, productIds.length * 2);
+            productIds = Arrays.copyOf(productIds, newLength);
+            lengths = Arrays.copyOf(lengths, newLength);
+            docTerms = Arrays.copyOf(docTerms, newLength);
+            names = Arrays.copyOf(names, newLength);
+            prices = Arrays.copyOf(prices, newLength);
+            discounts = Arrays.copyOf(discounts, newLength);
+            specialPrices = Arrays.copyOf(specialPrices, newLength);
+            quantities = Arrays.copyOf(quantities, newLength);
+        }
+    }
+
+    /**
+     * Optimal string alignment distance check, bounded at one edit.
+     */
+    static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1) {
+            return false;
+        }
+        if (lengthDifference != 0) {
+            String longer = lengthDifference > 0 ? a : b;
+            String shorter = lengthDifference > 0 ? b : a;
+            int i = 0;
+            while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+                i++;
+            }
+            return shorter.regionMatches(i, longer, i + 1, shorter.length() - i);
+        }
+        int first = -1;
+        int second = -1;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) {
+                if (first < 0) {
+                    first = i;
+                } else if (second < 0) {
+                    second = i;
+                } else {
+                    return false;
+                }
+            }
+        }
+        if (second < 0) {
+            return true;
+        }
+        return second == first + 1
+                && a.charAt(first) == b.charAt(second)
+                && a.charAt(second) == b.charAt(first);
+    }
+
+    private static final class Postings {
+        private final String term;
+        private int[] docs = new int[4];
+        private int[] freqs = new int[4];
+        private int size;
+        private int liveCount;
+
+        private Postings(String term) {
+            this.term = term;
+        }
+
+        private void add(int ordinal, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = ordinal;
+            freqs[size] = frequency;
+            size++;
+            liveCount++;
+        }
+
+        private void compact(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[docs[i]];
+                if (ordinal >= 0) {
+                    docs[kept] = ordinal;
+                    freqs[kept] = freqs[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+
+    /**
+     * Open-addressing map from ordinal to accumulated score, sized to the
+     * number of matching documents rather than to the whole index.
+     */
+    private static final class ScoreAccumulator {
+        private int[] keys = new int[256];
+        private float[] values = new float[256];
+        // Slots are the top log2(capacity) bits of the Fibonacci hash, which are the well-mixed ones
+        private int shift = 32 - 8;
+        private int size;
+
+        private int ordinal(int slot) {
+            return keys[slot] - 1;
+        }
+
+        private void add(int ordinal, float score) {
+            int mask = keys.length - 1;
+            int slot = (ordinal * 0x9E3779B9) >>> shift;
+            while (keys[slot] != 0) {
+                if (keys[slot] == ordinal + 1) {
+                    values[slot] += score;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ordinal + 1;
+            values[slot] = score;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            float[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new float[oldValues.length * 2];
+            shift--;
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    add(oldKeys[slot] - 1, oldValues[slot]);
+                }
+            }
+        }
+    }
+}
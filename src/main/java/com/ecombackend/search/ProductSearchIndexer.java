@@ -0,0 +1,176 @@
+package com.ecombackend.search;
+
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductsImportedEvent;
+import com.ecombackend.event.StockReservedEvent;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.projection.ProductSearchView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link ProductSearchIndex} in step with the products table: builds it
+ * by walking the table in id order, then applies every product and category
+ * change and every placed order as it is committed.
+ * <p>
+ * Changes committed on other nodes raise no event here, so the index is
+ * rebuilt every {@code catalog.search.rebuild-interval} into a second index
+ * that replaces the live one when it is complete; searches keep using the
+ * old one meanwhile. Products changed on this node while a rebuild runs are
+ * read again once it has replaced the live index, as the walk may have
+ * passed them before they changed.
+ * <p>
+ * The first build runs while the application context is created, before
+ * the web server starts, so no search is answered from an empty index.
+ */
+@Component
+public class ProductSearchIndexer {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService rebuilder;
+    private volatile Set<Long> changedDuringRebuild;
+
+    public ProductSearchIndexer(ProductSearchIndex searchIndex,
+                                ProductRepository productRepository,
+                                @Value("${catalog.search.rebuild-interval:10m}") Duration rebuildInterval) {
+        this.searchIndex = searchIndex;
+        this.productRepository = productRepository;
+        this.rebuildInterval = rebuildInterval;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("search-rebuild-", 1).factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        rebuild();
+        long millis = rebuildInterval.toMillis();
+        rebuilder.scheduleWithFixedDelay(this::rebuildQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        changedDuringRebuild = changed;
+        try {
+            ProductSearchIndex rebuilt = new ProductSearchIndex();
+            long lastProductId = 0;
+            List<ProductSearchView> batch;
+            do {
+                batch = productRepository.findFirst1000ByProductIdGreaterThanOrderByProductIdAsc(lastProductId);
+                for (ProductSearchView product : batch) {
+                    rebuilt.index(SearchDocument.of(product));
+                    lastProductId = product.getProductId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+            searchIndex.replaceWith(rebuilt);
+        } finally {
+            changedDuringRebuild = null;
+        }
+        reindex(changed);
+        logger.info("Indexed {} products for search in {} ms", searchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        noteChanged(List.of(event.getProductId()));
+        if (event.isDeleted()) {
+            searchIndex.remove(event.getProductId());
+            return;
+        }
+        productRepository.findSearchViewByProductId(event.getProductId())
+                .ifPresentOrElse(
+                        product -> searchIndex.index(SearchDocument.of(product)),
+                        () -> searchIndex.remove(event.getProductId()));
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        noteChanged(event.getProductIds());
+        for (ProductSearchView product : productRepository.findSearchViewsByProductIdIn(event.getProductIds())) {
+            searchIndex.index(SearchDocument.of(product));
+        }
+    }
+
+    /**
+     * A placed order only changes stock, so only the quantities the index
+     * sorts by are refreshed.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockReserved(StockReservedEvent event) {
+        noteChanged(event.getProductIds());
+        for (ProductSearchView product : productRepository.findSearchViewsByProductIdIn(event.getProductIds())) {
+            searchIndex.updateQuantity(product.getProductId(), product.getQuantity() == null ? 0 : product.getQuantity());
+        }
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE - 2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.isDeleted()) {
+            noteChanged(event.getRemovedProductIds());
+            event.getRemovedProductIds().forEach(searchIndex::remove);
+        }
+    }
+
+    private void noteChanged(Collection<Long> productIds) {
+        Set<Long> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.addAll(productIds);
+        }
+    }
+
+    /**
+     * Reads the products again and indexes them as they are now, dropping the
+     * ones that no longer exist.
+     */
+    private void reindex(Set<Long> productIds) {
+        List<Long> remaining = new ArrayList<>(productIds);
+        for (int from = 0; from < remaining.size(); from += BATCH_SIZE) {
+            List<Long> batch = remaining.subList(from, Math.min(from + BATCH_SIZE, remaining.size()));
+            Set<Long> missing = new HashSet<>(batch);
+            for (ProductSearchView product : productRepository.findSearchViewsByProductIdIn(batch)) {
+                searchIndex.index(SearchDocument.of(product));
+                missing.remove(product.getProductId());
+            }
+            missing.forEach(searchIndex::remove);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Rebuilding the search index failed", e);
+        }
+    }
+}
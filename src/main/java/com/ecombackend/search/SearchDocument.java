@@ -0,0 +1,18 @@
+package com.ecombackend.search;
+
+import com.ecombackend.repository.projection.ProductSearchView;
+
+/**
+ * What the search index keeps of a product: the text it matches against and
+ * the fields matches can be sorted by. Prices are in cents and the discount
+ * in basis points, as on {@code Product}.
+ */
+public record SearchDocument(long productId, String productName, String productDescription,
+                             long price, int discount, long specialPrice, int quantity) {
+
+    public static SearchDocument of(ProductSearchView product) {
+        return new SearchDocument(product.getProductId(), product.getProductName(), product.getProductDescription(),
+                product.getPrice(), product.getDiscount(), product.getSpecialPrice(),
+                product.getQuantity() == null ? 0 : product.getQuantity());
+    }
+}
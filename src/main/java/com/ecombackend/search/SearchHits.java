@@ -0,0 +1,19 @@
+package com.ecombackend.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of product ids in relevance order, together with the total number
+ * of matching products.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHits {
+    public static final SearchHits EMPTY = new SearchHits(List.of(), 0);
+
+    private final List<Long> productIds;
+    private final long totalHits;
+}
@@ -0,0 +1,35 @@
+package com.ecombackend.search;
+
+import java.util.Optional;
+
+/**
+ * Product fields that keyword matches can be sorted by inside the search
+ * index, named like the {@code sortBy} values of the product listings.
+ */
+public enum SearchSortField {
+    PRODUCT_ID("productId"),
+    PRODUCT_NAME("productName"),
+    PRICE("price"),
+    DISCOUNT("discount"),
+    SPECIAL_PRICE("specialPrice"),
+    QUANTITY("quantity");
+
+    private final String property;
+
+    SearchSortField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Optional<SearchSortField> of(String property) {
+        for (SearchSortField field : values()) {
+            if (field.property.equals(property)) {
+                return Optional.of(field);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecombackend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns product text and search queries into index terms: lower-cases,
+ * splits on anything that is not a letter or digit, drops stop words and
+ * applies a light English suffix stemmer so that "chargers" finds "charger".
+ */
+public final class TextAnalyzer {
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "the", "this", "to", "with");
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                addTerm(terms, token.toString());
+                token.setLength(0);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH || STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    static String stem(String term) {
+        if (term.length() <= 3 || !isAlphabetic(term)) {
+            return term;
+        }
+        if (term.endsWith("ies") && term.length() > 4) {
+            term = term.substring(0, term.length() - 3) + "y";
+        } else if (term.endsWith("sses")) {
+            term = term.substring(0, term.length() - 2);
+        } else if (term.endsWith("ches") || term.endsWith("shes") || term.endsWith("xes") || term.endsWith("zes")) {
+            term = term.substring(0, term.length() - 2);
+        } else if (term.endsWith("s") && !term.endsWith("ss") && !term.endsWith("us") && !term.endsWith("is")) {
+            term = term.substring(0, term.length() - 1);
+        }
+
+        if (term.endsWith("ing") && term.length() > 5) {
+            return undouble(term.substring(0, term.length() - 3));
+        }
+        if (term.endsWith("ed") && term.length() > 4) {
+            return undouble(term.substring(0, term.length() - 2));
+        }
+        if (term.endsWith("ly") && term.length() > 4) {
+            return term.substring(0, term.length() - 2);
+        }
+        return term;
+    }
+
+    private static String undouble(String term) {
+        int length = term.length();
+        if (length > 2 && term.charAt(length - 1) == term.charAt(length - 2)
+                && "lsz".indexOf(term.charAt(length - 1)) < 0) {
+            return term.substring(0, length - 1);
+        }
+        return term;
+    }
+
+    private static boolean isAlphabetic(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,12 +1,20 @@
 package com.ecombackend.security.jwt;
 
 import com.ecombackend.security.service.UserDetailsImpl;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -14,26 +22,54 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 
 
+/**
+ * Issues and verifies the JWT cookie. Tokens carry the user id, email and
+ * roles as claims, so a request is authenticated from the token alone. The
+ * signing key and parser are built once, and tokens that verified are
+ * remembered in a bounded cache until they expire, so a client sending the
+ * same cookie again skips the signature check.
+ */
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMAIL_CLAIM = "email";
+    private static final String ROLES_CLAIM = "roles";
+    private static final Duration MAX_CACHE_TTL = Duration.ofMinutes(10);
 
-    @Value("${spring.app.jwtSecret}")
-    private String jwtSecret;
+    private final int jwtExpirationMs;
+    private final String jwtCookie;
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
 
-    @Value("${spring.app.jwtExpirationMs}")
-    private int jwtExpirationMs;
-
-    @Value("${spring.ecom.app.jwtCookieName}")
-    private String jwtCookie;
+    public JwtUtils(@Value("${spring.app.jwtSecret}") String jwtSecret,
+                    @Value("${spring.app.jwtExpirationMs}") int jwtExpirationMs,
+                    @Value("${spring.ecom.app.jwtCookieName}") String jwtCookie,
+                    @Value("${spring.app.jwtCacheSize:10000}") long jwtCacheSize,
+                    MeterRegistry meterRegistry) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.jwtCookie = jwtCookie;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtCacheSize)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) -> verified.timeToLive()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.tokens");
+    }
 
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
@@ -45,7 +81,7 @@ public class JwtUtils {
     }
 
     public ResponseCookie generateJwtCookie(UserDetailsImpl userPrincipal) {
-        String jwt = generateTokenFromUsername(userPrincipal.getUsername());
+        String jwt = generateToken(userPrincipal);
         return ResponseCookie.from(jwtCookie, jwt)
                 .path("/api")
                 .maxAge(24 * 60 * 60)
@@ -57,38 +93,72 @@ public class JwtUtils {
                 .path("/api")
                 .build();
     }
-    public String generateTokenFromUsername(String username) {
+    public String generateToken(UserDetailsImpl userPrincipal) {
+        List<String> roles = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        Date now = new Date();
         return Jwts.builder()
-                .subject(username)
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
+                .subject(userPrincipal.getUsername())
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + jwtExpirationMs))
+                .signWith(signingKey)
                 .compact();
     }
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build().parseSignedClaims(token)
-                .getPayload().getSubject();
-    }
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
 
-    public boolean validateJwtToken(String authToken) {
+    /**
+     * Verifies the token once and returns the principal described by its
+     * claims, or {@code null} when the token is invalid, expired or was issued
+     * without the user claims.
+     */
+    public UserDetailsImpl getUserDetailsFromJwtToken(String authToken) {
+        VerifiedToken cached = verifiedTokens.getIfPresent(authToken);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.userDetails();
+        }
         try {
-            System.out.println("Validate");
-            Jwts.parser().verifyWith((SecretKey) key()).build().parseSignedClaims(authToken);
-            return true;
+            Claims claims = jwtParser.parseSignedClaims(authToken).getPayload();
+            UserDetailsImpl userDetails = toUserDetails(claims);
+            if (userDetails == null) {
+                logger.error("JWT token is missing user claims, a new login is required");
+                return null;
+            }
+            verifiedTokens.put(authToken, new VerifiedToken(userDetails, claims.getExpiration().getTime()));
+            return userDetails;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+        } catch (SignatureException e) {
+            logger.error("JWT signature does not match: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    private static UserDetailsImpl toUserDetails(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (userId == null || roles == null || claims.getExpiration() == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(userId, claims.getSubject(), claims.get(EMAIL_CLAIM, String.class),
+                null, authorities);
+    }
+
+    private record VerifiedToken(UserDetailsImpl userDetails, long expiresAt) {
+        Duration timeToLive() {
+            Duration untilExpiry = Duration.ofMillis(Math.max(0, expiresAt - System.currentTimeMillis()));
+            return untilExpiry.compareTo(MAX_CACHE_TTL) < 0 ? untilExpiry : MAX_CACHE_TTL;
+        }
     }
-}
\ No newline at end of file
+}
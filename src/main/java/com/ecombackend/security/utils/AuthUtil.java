@@ -1,35 +1,26 @@
 package com.ecombackend.security.utils;
 
 import com.ecombackend.entity.User;
-import com.ecombackend.repository.UserRepository;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AuthUtil {
-   private final UserRepository userRepository;
-    public AuthUtil(UserRepository userRepository) {
-        this.userRepository = userRepository;
+   private final CurrentUser currentUser;
+    public AuthUtil(CurrentUser currentUser) {
+        this.currentUser = currentUser;
     }
 
     public String loggedInEmail(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-        return user.getEmail();
+        return currentUser.principal().getEmail();
     }
 
     public Long loggedInUserId(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        User user = userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
-        return user.getUserId();
+        return currentUser.principal().getId();
     }
     public User loggedInUser(){
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return userRepository.findByUserName(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + authentication.getName()));
+        return currentUser.user();
     }
-}
\ No newline at end of file
+    public User loggedInUserReference(){
+        return currentUser.reference();
+    }
+}
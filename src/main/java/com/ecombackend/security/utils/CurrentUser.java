@@ -0,0 +1,72 @@
+package com.ecombackend.security.utils;
+
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The authenticated user of the current request. Id, username and email
+ * come straight from the principal that {@code AuthTokenFilter} built from
+ * the token. The {@link User} entity is loaded at most once per request, and
+ * only when a caller needs the managed entity. The number of such loads is
+ * recorded per request in the {@code auth.user.lookups} distribution summary.
+ */
+@Component
+@RequestScope
+public class CurrentUser {
+    private final UserRepository userRepository;
+    private final DistributionSummary lookupsPerRequest;
+
+    private UserDetailsImpl principal;
+    private User user;
+    private int lookups;
+
+    public CurrentUser(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.lookupsPerRequest = DistributionSummary.builder("auth.user.lookups")
+                .description("User entity loads per request that resolved the current user")
+                .register(meterRegistry);
+    }
+
+    public UserDetailsImpl principal() {
+        if (principal == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)) {
+                throw new UsernameNotFoundException("No authenticated user for this request");
+            }
+            principal = userDetails;
+        }
+        return principal;
+    }
+
+    public User user() {
+        if (user == null) {
+            lookups++;
+            Long userId = principal().getId();
+            user = userRepository.findById(userId)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + principal().getUsername()));
+        }
+        return user;
+    }
+
+    /**
+     * A reference usable as a foreign key, e.g. for {@code cart.setUser},
+     * without loading the row.
+     */
+    public User reference() {
+        return user != null ? user : userRepository.getReferenceById(principal().getId());
+    }
+
+    @PreDestroy
+    public void recordLookups() {
+        lookupsPerRequest.record(lookups);
+    }
+}
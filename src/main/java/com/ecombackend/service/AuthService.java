@@ -1,6 +1,8 @@
 package com.ecombackend.service;
 
 import com.ecombackend.dto.AuthenticationResult;
+import com.ecombackend.dto.CursorResponse;
+import com.ecombackend.dto.UserDTO;
 import com.ecombackend.dto.UserResponse;
 import com.ecombackend.security.request.LoginRequest;
 import com.ecombackend.security.request.SignupRequest;
@@ -21,4 +23,6 @@ public interface AuthService {
     ResponseCookie logoutUser();
 
     UserResponse getAllSellers(Pageable pageable);
+
+    CursorResponse<UserDTO> scrollSellers(String cursor, Integer pageSize);
 }
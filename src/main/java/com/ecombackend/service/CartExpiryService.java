@@ -0,0 +1,9 @@
+package com.ecombackend.service;
+
+public interface CartExpiryService {
+    /**
+     * Deletes every cart not changed by its owner within the TTL, with its
+     * lines, and returns the number of carts deleted.
+     */
+    int expireIdleCarts();
+}
@@ -2,17 +2,33 @@ package com.ecombackend.service;
 
 import com.ecombackend.dto.CartDTO;
 import com.ecombackend.dto.CartItemDTO;
+import com.ecombackend.dto.CartOperationDTO;
 import jakarta.transaction.Transactional;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
     List<CartDTO> getAllCarts();
     CartDTO getCart(String emailId, Long cartId);
+    CartDTO getUserCart(String emailId);
     @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
     String deleteProductFromCart(Long cartId, Long productId);
     void updateProductInCarts(Long cartId, Long productId);
+    int repriceProductInCarts(Long productId, long specialPrice, int discount);
     String createOrUpdateCartWithItems(List<CartItemDTO> cartItems);
+
+    /**
+     * Applies a batch of add, update and remove operations to the logged-in
+     * user's cart, all or nothing, and returns the resulting cart.
+     */
+    CartDTO applyCartOperations(List<CartOperationDTO> operations);
+
+    /**
+     * Runs {@code placeOrder} against the user's cart as it is in the
+     * database, with no change to the cart possible in between.
+     */
+    <T> T checkout(String emailId, Supplier<T> placeOrder);
 }
\ No newline at end of file
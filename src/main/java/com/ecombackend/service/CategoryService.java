@@ -2,11 +2,13 @@ package com.ecombackend.service;
 
 import com.ecombackend.dto.CategoryDTO;
 import com.ecombackend.dto.CategoryResponse;
+import com.ecombackend.dto.CursorResponse;
 
 import java.util.Optional;
 
 public interface CategoryService {
     CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    CursorResponse<CategoryDTO> scrollCategories(String cursor, Integer pageSize, String sortBy, String sortOrder);
     CategoryDTO createCategory(CategoryDTO categoryDTO);
 
     CategoryDTO deleteCategory(Long categoryId);
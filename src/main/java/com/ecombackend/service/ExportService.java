@@ -0,0 +1,11 @@
+package com.ecombackend.service;
+
+import com.ecombackend.export.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+    void exportProducts(ExportFormat format, Long afterProductId, OutputStream out) throws IOException;
+    void exportOrders(ExportFormat format, Long afterOrderId, OutputStream out) throws IOException;
+}
@@ -0,0 +1,11 @@
+package com.ecombackend.service;
+
+import com.ecombackend.image.ImageRenditions;
+
+public interface ImageRenditionService {
+    /**
+     * Returns the renditions of {@code imageName} if they have already been
+     * generated, or {@code null}.
+     */
+    ImageRenditions findRenditions(String imageName);
+}
@@ -1,5 +1,6 @@
 package com.ecombackend.service;
 
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.OrderDTO;
 import com.ecombackend.dto.OrderResponse;
 import jakarta.transaction.Transactional;
@@ -10,6 +11,8 @@ public interface OrderService {
 
     OrderResponse getAllOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
 
+    CursorResponse<OrderDTO> scrollOrders(String cursor, Integer pageSize, String sortBy, String sortOrder);
+
     OrderDTO updateOrder(Long orderId, String status);
 
     OrderResponse getAllSellerOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
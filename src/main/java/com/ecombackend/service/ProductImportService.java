@@ -0,0 +1,11 @@
+package com.ecombackend.service;
+
+import com.ecombackend.dto.ProductImportJobDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportJobDTO startImport(Long categoryId, String contentType, InputStream body) throws IOException;
+    ProductImportJobDTO getImportJob(String jobId);
+}
@@ -1,5 +1,6 @@
 package com.ecombackend.service;
 
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.ProductDTO;
 import com.ecombackend.dto.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
@@ -9,6 +10,7 @@ import java.io.IOException;
 public interface ProductService {
     ProductDTO addProduct(Long categoryId, ProductDTO product);
     ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
+    CursorResponse<ProductDTO> scrollProducts(String cursor, Integer pageSize, String sortBy, String sortOrder);
     ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
     ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder);
     ProductDTO updateProduct(Long productId, ProductDTO product);
@@ -4,12 +4,12 @@ import com.ecombackend.dto.AddressDTO;
 import com.ecombackend.entity.Address;
 import com.ecombackend.entity.User;
 import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.AddressMapper;
 import com.ecombackend.repository.AddressRepository;
 import com.ecombackend.repository.UserRepository;
 import com.ecombackend.service.AddressService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -21,12 +21,12 @@ import java.util.List;
 public class AddressServiceImpl implements AddressService {
 
     private final AddressRepository addressRepository;
-    private final ModelMapper modelMapper;
+    private final AddressMapper addressMapper;
     private final UserRepository userRepository;
     @Override
     @Transactional
     public AddressDTO createAddress(AddressDTO addressDTO, User user) {
-        Address address = modelMapper.map(addressDTO, Address.class);
+        Address address = addressMapper.toEntity(addressDTO);
         address.setUser(user);
 
         if (user.getAddresses() == null) {
@@ -35,14 +35,14 @@ public class AddressServiceImpl implements AddressService {
         user.getAddresses().add(address);
 
         Address savedAddress = addressRepository.save(address);
-        return modelMapper.map(savedAddress, AddressDTO.class);
+        return addressMapper.toDto(savedAddress);
     }
 
     @Override
     public List<AddressDTO> getAddresses() {
         List<Address> addresses = addressRepository.findAll();
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(address -> addressMapper.toDto(address))
                 .toList();
     }
 
@@ -50,7 +50,7 @@ public class AddressServiceImpl implements AddressService {
     public AddressDTO getAddressesById(Long addressId) {
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
-        return modelMapper.map(address, AddressDTO.class);
+        return addressMapper.toDto(address);
     }
 
     @Override
@@ -60,7 +60,7 @@ public class AddressServiceImpl implements AddressService {
             return Collections.emptyList();
         }
         return addresses.stream()
-                .map(address -> modelMapper.map(address, AddressDTO.class))
+                .map(address -> addressMapper.toDto(address))
                 .toList();
     }
 
@@ -78,7 +78,7 @@ public class AddressServiceImpl implements AddressService {
 
         Address updatedAddress = addressRepository.save(existingAddress);
 
-        return modelMapper.map(updatedAddress, AddressDTO.class);
+        return addressMapper.toDto(updatedAddress);
     }
 
     @Override
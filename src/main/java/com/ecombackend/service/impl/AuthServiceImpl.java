@@ -1,11 +1,16 @@
 package com.ecombackend.service.impl;
 
+import com.ecombackend.constants.AppConstants;
 import com.ecombackend.dto.AuthenticationResult;
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.UserDTO;
 import com.ecombackend.dto.UserResponse;
 import com.ecombackend.entity.Role;
 import com.ecombackend.entity.User;
 import com.ecombackend.entity.enums.AppRole;
+import com.ecombackend.exception.APIException;
+import com.ecombackend.mapper.UserMapper;
+import com.ecombackend.pagination.CursorCodec;
 import com.ecombackend.repository.RoleRepository;
 import com.ecombackend.repository.UserRepository;
 import com.ecombackend.security.jwt.JwtUtils;
@@ -16,10 +21,11 @@ import com.ecombackend.security.response.UserInfoResponse;
 import com.ecombackend.security.service.UserDetailsImpl;
 import com.ecombackend.service.AuthService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -44,7 +50,8 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder encoder;
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+    private final CursorCodec cursorCodec;
 
     @Override
     public AuthenticationResult login(LoginRequest loginRequest) {
@@ -141,7 +148,7 @@ public class AuthServiceImpl implements AuthService {
         Page<User> allUsers = userRepository.findByRoleName(AppRole.ROLE_SELLER, pageable);
         List<UserDTO> userDtos = allUsers.getContent()
                 .stream()
-                .map(p -> modelMapper.map(p, UserDTO.class))
+                .map(userMapper::toDto)
                 .collect(Collectors.toList());
 
         UserResponse response = new UserResponse();
@@ -153,4 +160,21 @@ public class AuthServiceImpl implements AuthService {
         response.setLastPage(allUsers.isLast());
         return response;
     }
+
+    @Override
+    public CursorResponse<UserDTO> scrollSellers(String cursor, Integer pageSize) {
+        if (pageSize < 1) {
+            throw new APIException("pageSize must be positive");
+        }
+        Sort sortByAndOrder = Sort.by(AppConstants.SORT_USERS_BY).descending();
+        Window<User> window = userRepository.findBy(
+                (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.join("roles").get("roleName"), AppRole.ROLE_SELLER),
+                q -> q.sortBy(sortByAndOrder).limit(pageSize).scroll(cursorCodec.decode(cursor, User.class)));
+
+        List<UserDTO> userDtos = window.getContent()
+                .stream()
+                .map(userMapper::toDto)
+                .collect(Collectors.toList());
+        return cursorCodec.toResponse(window, userDtos, pageSize);
+    }
 }
@@ -0,0 +1,144 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.event.CartsExpiredEvent;
+import com.ecombackend.repository.CartItemRepository;
+import com.ecombackend.repository.CartRepository;
+import com.ecombackend.service.CartExpiryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes abandoned carts: carts their owners have not changed for
+ * {@code cart.expiry.ttl}. Every {@code cart.expiry.interval}, expired carts
+ * are claimed {@code cart.expiry.chunk-size} at a time with
+ * {@code FOR UPDATE SKIP LOCKED} and deleted with their lines, one
+ * transaction per chunk, until none are left. Each transaction holds at most
+ * one chunk of row locks, and several nodes can sweep at once, each taking
+ * the carts the others have not claimed.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class CartExpiryServiceImpl implements CartExpiryService {
+    private static final Logger logger = LoggerFactory.getLogger(CartExpiryServiceImpl.class);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final Duration interval;
+    private final int chunkSize;
+    private final Counter cartsDeleted;
+    private final Counter itemsDeleted;
+    private final Timer sweepTime;
+    private final ScheduledExecutorService sweeper;
+
+    public CartExpiryServiceImpl(CartRepository cartRepository,
+                                 CartItemRepository cartItemRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${cart.expiry.ttl:30d}") Duration ttl,
+                                 @Value("${cart.expiry.interval:1h}") Duration interval,
+                                 @Value("${cart.expiry.chunk-size:500}") int chunkSize) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.interval = interval;
+        this.chunkSize = chunkSize;
+        this.cartsDeleted = Counter.builder("cart.expiry.carts")
+                .description("Expired carts deleted")
+                .register(meterRegistry);
+        this.itemsDeleted = Counter.builder("cart.expiry.items")
+                .description("Cart lines deleted with expired carts")
+                .register(meterRegistry);
+        this.sweepTime = Timer.builder("cart.expiry.duration")
+                .description("Time spent deleting expired carts")
+                .register(meterRegistry);
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cart-expiry-", 1).factory());
+    }
+
+    @PostConstruct
+    public void start() {
+        long millis = interval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::expireQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public int expireIdleCarts() {
+        Instant cutoff = Instant.now().minus(ttl);
+        long start = System.nanoTime();
+        int carts = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Chunk chunk = transactionTemplate.execute(status -> deleteChunk(cutoff));
+                if (chunk == null || chunk.claimed() == 0) {
+                    break;
+                }
+                cartsDeleted.increment(chunk.carts());
+                itemsDeleted.increment(chunk.items());
+                carts += chunk.carts();
+                if (chunk.claimed() < chunkSize) {
+                    break;
+                }
+            }
+        } finally {
+            sweepTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (carts > 0) {
+            logger.info("Deleted {} carts not changed since {} in {} ms", carts, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return carts;
+    }
+
+    private void expireQuietly() {
+        try {
+            expireIdleCarts();
+        } catch (RuntimeException e) {
+            logger.warn("Cart expiry failed", e);
+        }
+    }
+
+    /**
+     * Lines go first, as they reference the carts. The claimed carts stay
+     * locked until the chunk commits, so no edit can slip in between.
+     */
+    private Chunk deleteChunk(Instant cutoff) {
+        List<Long> cartIds = cartRepository.claimCartIdsModifiedBefore(cutoff, chunkSize);
+        if (cartIds.isEmpty()) {
+            return new Chunk(0, 0, 0);
+        }
+        int items = cartItemRepository.deleteAllByCartIdIn(cartIds);
+        int carts = cartRepository.deleteAllByCartIdIn(cartIds);
+        eventPublisher.publishEvent(new CartsExpiredEvent(cartIds));
+        return new Chunk(cartIds.size(), carts, items);
+    }
+
+    private record Chunk(int claimed, int carts, int items) {
+    }
+}
@@ -1,306 +1,473 @@
 package com.ecombackend.service.impl;
 
+import com.ecombackend.cart.CartBatch;
 import com.ecombackend.dto.CartDTO;
 import com.ecombackend.dto.CartItemDTO;
-import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.dto.CartOperationDTO;
 import com.ecombackend.entity.Cart;
 import com.ecombackend.entity.CartItem;
 import com.ecombackend.entity.Product;
 import com.ecombackend.exception.APIException;
 import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.CartMapper;
+import com.ecombackend.pricing.PriceCalculator;
 import com.ecombackend.repository.CartItemRepository;
 import com.ecombackend.repository.CartRepository;
 import com.ecombackend.repository.ProductRepository;
 import com.ecombackend.security.utils.AuthUtil;
 import com.ecombackend.service.CartService;
 import jakarta.transaction.Transactional;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
+/**
+ * Cart engine that reads and writes carts in the database on every request.
+ * <p>
+ * Carts are versioned rather than locked. A change loads the cart with
+ * {@code OPTIMISTIC_FORCE_INCREMENT}, edits its lines, sums the total from
+ * all of them and commits; the commit fails if another request or a bulk
+ * repricing changed the cart first. The change is then run again from the
+ * start, up to {@code cart.max-attempts} times with a short random pause, so
+ * double-clicks and parallel tabs are serialized without holding a row lock
+ * for the length of a request. Only a retried change locks the cart before
+ * reading it, which keeps it from losing a second time. Once a change has validated its input, it
+ * locks the cart row before writing any line, the order in which repricing
+ * takes them too.
+ * <p>
+ * Cart reads are one projection query over the cart, its lines and their
+ * products. Changes load the cart, its lines and then their products in one
+ * batch, so neither touches any other cart however popular its products are.
+ */
 @Service
-@RequiredArgsConstructor
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
 public class CartServiceImpl implements CartService {
+    private static final Logger logger = LoggerFactory.getLogger(CartServiceImpl.class);
+    private static final long MAX_BACKOFF_MILLIS = 20;
+
     private final CartRepository cartRepository;
     private final AuthUtil authUtil;
     private final ProductRepository productRepository;
     private final CartItemRepository cartItemRepository;
-    private final ModelMapper modelMapper;
+    private final CartMapper cartMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+
+    public CartServiceImpl(CartRepository cartRepository,
+                           AuthUtil authUtil,
+                           ProductRepository productRepository,
+                           CartItemRepository cartItemRepository,
+                           CartMapper cartMapper,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${cart.max-attempts:5}") int maxAttempts) {
+        this.cartRepository = cartRepository;
+        this.authUtil = authUtil;
+        this.productRepository = productRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.cartMapper = cartMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+    }
 
     @Override
     public CartDTO addProductToCart(Long productId, Integer quantity) {
-        Cart cart  = createCart();
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cart.getCartId(), productId);
-
-        if (cartItem != null) {
-            throw new APIException("Product " + product.getProductName() + " already exists in the cart");
-        }
-
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
+        String emailId = authUtil.loggedInEmail();
+        return changeCart(() -> cartRepository.lockCartOfUser(emailId), () -> {
+            Cart cart  = createCart();
 
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        CartItem newCartItem = new CartItem();
+            if (findItem(cart, productId) != null) {
+                throw new APIException("Product " + product.getProductName() + " already exists in the cart");
+            }
 
-        newCartItem.setProduct(product);
-        newCartItem.setCart(cart);
-        newCartItem.setQuantity(quantity);
-        newCartItem.setDiscount(product.getDiscount());
-        newCartItem.setProductPrice(product.getSpecialPrice());
+            if (product.getQuantity() == 0) {
+                throw new APIException(product.getProductName() + " is not available");
+            }
 
-        cartItemRepository.save(newCartItem);
+            if (product.getQuantity() < quantity) {
+                throw new APIException("Please, make an order of the " + product.getProductName()
+                        + " less than or equal to the quantity " + product.getQuantity() + ".");
+            }
 
-        product.setQuantity(product.getQuantity());
+            cartRepository.lockForChange(cart);
+            CartItem newCartItem = new CartItem();
 
-        cart.setTotalAmount(cart.getTotalAmount() + (product.getSpecialPrice() * quantity));
+            newCartItem.setProduct(product);
+            newCartItem.setCart(cart);
+            newCartItem.setQuantity(quantity);
+            newCartItem.setDiscount(product.getDiscount());
+            newCartItem.setProductPrice(product.getSpecialPrice());
 
-        cartRepository.save(cart);
+            cartItemRepository.save(newCartItem);
+            cart.getCartItems().add(newCartItem);
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+            cart.setTotalAmount(totalOf(cart));
+            cart.setLastModified(Instant.now());
 
-        List<CartItem> cartItems = cart.getCartItems();
+            cartRepository.save(cart);
 
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
-            map.setQuantity(item.getQuantity());
-            return map;
+            return cartMapper.toDto(cart);
         });
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
     }
 
     @Override
     public List<CartDTO> getAllCarts() {
-        List<Cart> carts = cartRepository.findAll();
+        List<CartDTO> carts = cartMapper.rowsToDtos(cartRepository.findAllContentRows());
 
         if (carts.isEmpty()) {
             throw new APIException("No cart exists");
         }
 
-        return carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
-
-
-            cartDTO.setProducts(products);
-
-            return cartDTO;
-
-        }).collect(Collectors.toList());
+        return carts;
     }
 
     @Override
     public CartDTO getCart(String emailId, Long cartId) {
-        Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
-        if (cart == null){
+        List<CartDTO> carts = cartMapper.rowsToDtos(cartRepository.findContentRowsByEmailAndCartId(emailId, cartId));
+        if (carts.isEmpty()){
             throw new ResourceNotFoundException("Cart", "cartId", cartId);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c ->
-                c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-                .toList();
-        cartDTO.setProducts(products);
-        return cartDTO;
+        return carts.get(0);
     }
 
-    @Transactional
     @Override
-    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-
-        String emailId = authUtil.loggedInEmail();
-        Cart userCart = cartRepository.findCartByEmail(emailId);
-        Long cartId  = userCart.getCartId();
-
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
-
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
-
-        // Calculate new quantity
-        int newQuantity = cartItem.getQuantity() + quantity;
-
-        // Validation to prevent negative quantities
-        if (newQuantity < 0) {
-            throw new APIException("The resulting quantity cannot be negative.");
-        }
-
-        if (newQuantity == 0){
-            deleteProductFromCart(cartId, productId);
-        } else {
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem.setDiscount(product.getDiscount());
-            cart.setTotalAmount(cart.getTotalAmount() + (cartItem.getProductPrice() * quantity));
-            cartRepository.save(cart);
-        }
-
-        CartItem updatedItem = cartItemRepository.save(cartItem);
-        if(updatedItem.getQuantity() == 0){
-            cartItemRepository.deleteById(updatedItem.getCartItemId());
+    public CartDTO getUserCart(String emailId) {
+        List<CartDTO> carts = cartMapper.rowsToDtos(cartRepository.findContentRowsByEmail(emailId));
+        if (carts.isEmpty()) {
+            throw new ResourceNotFoundException("Cart", "email", emailId);
         }
+        return carts.get(0);
+    }
 
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        String emailId = authUtil.loggedInEmail();
+        return changeCart(() -> cartRepository.lockCartOfUser(emailId), () -> {
+            Cart cart = cartRepository.findCartByEmailForChange(emailId);
+            if (cart == null) {
+                throw new ResourceNotFoundException("Cart", "email", emailId);
+            }
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-        List<CartItem> cartItems = cart.getCartItems();
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
-            prd.setQuantity(item.getQuantity());
-            return prd;
+            if (product.getQuantity() == 0) {
+                throw new APIException(product.getProductName() + " is not available");
+            }
+
+            if (product.getQuantity() < quantity) {
+                throw new APIException("Please, make an order of the " + product.getProductName()
+                        + " less than or equal to the quantity " + product.getQuantity() + ".");
+            }
+
+            CartItem cartItem = findItem(cart, productId);
+
+            if (cartItem == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+
+            // Calculate new quantity
+            int newQuantity = cartItem.getQuantity() + quantity;
+
+            // Validation to prevent negative quantities
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
+
+            cartRepository.lockForChange(cart);
+            if (newQuantity == 0) {
+                // Deleted by orphan removal
+                cart.getCartItems().remove(cartItem);
+            } else {
+                cartItem.setProductPrice(product.getSpecialPrice());
+                cartItem.setQuantity(newQuantity);
+                cartItem.setDiscount(product.getDiscount());
+            }
+            cart.setTotalAmount(totalOf(cart));
+            cart.setLastModified(Instant.now());
+
+            return cartMapper.toDto(cart);
         });
-
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
     }
 
 
     private Cart createCart() {
-        Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
+        Cart userCart  = cartRepository.findCartByEmailForChange(authUtil.loggedInEmail());
         if(userCart != null){
             return userCart;
         }
 
         Cart cart = new Cart();
-        cart.setTotalAmount(0.00);
-        cart.setUser(authUtil.loggedInUser());
+        cart.setUser(authUtil.loggedInUserReference());
         return cartRepository.save(cart);
     }
 
 
-    @Transactional
     @Override
     public String deleteProductFromCart(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        return changeCart(() -> cartRepository.lockCart(cartId), () -> {
+            Cart cart = cartRepository.findByIdForChange(cartId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-        if (cartItem == null) {
-            throw new ResourceNotFoundException("Product", "productId", productId);
-        }
+            CartItem cartItem = findItem(cart, productId);
 
-        cart.setTotalAmount(cart.getTotalAmount() -
-                (cartItem.getProductPrice() * cartItem.getQuantity()));
+            if (cartItem == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
 
-        cartItemRepository.deleteCartItemByProductIdAndCartId(cartId, productId);
+            cartRepository.lockForChange(cart);
+            cart.getCartItems().remove(cartItem);
+            cart.setTotalAmount(totalOf(cart));
+            cart.setLastModified(Instant.now());
 
-        return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+            return "Product " + cartItem.getProduct().getProductName() + " removed from the cart !!!";
+        });
     }
 
 
     @Override
     public void updateProductInCarts(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+        changeCart(() -> cartRepository.lockCart(cartId), () -> {
+            Cart cart = cartRepository.findByIdForChange(cartId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
 
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
-
-        double cartPrice = cart.getTotalAmount()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
-        cartItem.setProductPrice(product.getSpecialPrice());
+            CartItem cartItem = findItem(cart, productId);
 
-        cart.setTotalAmount(cartPrice
-                + (cartItem.getProductPrice() * cartItem.getQuantity()));
+            if (cartItem == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
 
-        cartItem = cartItemRepository.save(cartItem);
+            cartRepository.lockForChange(cart);
+            cartItem.setProductPrice(product.getSpecialPrice());
+            cartItem.setDiscount(product.getDiscount());
+            cart.setTotalAmount(totalOf(cart));
+            return null;
+        });
     }
 
+    /**
+     * Reprices a product in every open cart with three statements, however
+     * many carts hold it: lock the carts, rewrite the product's cart lines,
+     * then recompute those carts' totals from their lines and increment
+     * their versions. A cart edit that read one of those carts before the
+     * repricing fails its version check and runs again on the new prices.
+     * Edits lock their cart before its lines as well, so the two wait for
+     * each other instead of deadlocking.
+     * Runs in the caller's transaction, so it is not retried here.
+     */
     @Transactional
+    @Override
+    public int repriceProductInCarts(Long productId, long specialPrice, int discount) {
+        List<Long> cartIds = cartRepository.lockCartIdsContainingProduct(productId);
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+        cartItemRepository.repriceItemsOfProduct(productId, specialPrice, discount);
+        cartRepository.recomputeTotalsOfCartsContainingProduct(productId);
+        return cartIds.size();
+    }
+
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
         // Get user's email
         String emailId = authUtil.loggedInEmail();
 
-        // Check if an existing cart is available or create a new one
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
-        if (existingCart == null) {
-            existingCart = new Cart();
-            existingCart.setTotalAmount(0.00);
-            existingCart.setUser(authUtil.loggedInUser());
-            existingCart = cartRepository.save(existingCart);
-        } else {
-            // Clear all current items in the existing cart
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
-        }
+        return changeCart(() -> cartRepository.lockCartOfUser(emailId), () -> {
+            // Check if an existing cart is available or create a new one
+            Cart existingCart = cartRepository.findCartByEmailForChange(emailId);
+            if (existingCart == null) {
+                existingCart = new Cart();
+                existingCart.setUser(authUtil.loggedInUserReference());
+                existingCart = cartRepository.save(existingCart);
+            } else {
+                // Clear all current items in the existing cart
+                cartRepository.lockForChange(existingCart);
+                cartItemRepository.deleteAllByCartId(existingCart.getCartId());
+            }
+
+            long totalPrice = 0;
+            List<CartItem> newCartItems = new ArrayList<>();
+            Map<Long, Product> products = findProducts(cartItems.stream()
+                    .map(CartItemDTO::getProductId)
+                    .collect(Collectors.toSet()));
+
+            // Process each item in the request to add to the cart
+            for (CartItemDTO cartItemDTO : cartItems) {
+                Long productId = cartItemDTO.getProductId();
+                Integer quantity = cartItemDTO.getQuantity();
+
+                Product product = products.get(productId);
+                if (product == null) {
+                    throw new ResourceNotFoundException("Product", "productId", productId);
+                }
+
+                // Directly update product stock and total price
+                // product.setQuantity(product.getQuantity() - quantity);
+                totalPrice = PriceCalculator.addLine(totalPrice, product.getSpecialPrice(), quantity);
+
+                // Create cart item
+                CartItem cartItem = new CartItem();
+                cartItem.setProduct(product);
+                cartItem.setCart(existingCart);
+                cartItem.setQuantity(quantity);
+                cartItem.setProductPrice(product.getSpecialPrice());
+                cartItem.setDiscount(product.getDiscount());
+                newCartItems.add(cartItem);
+            }
+            // Inserted as JDBC batches
+            cartItemRepository.saveAll(newCartItems);
+
+            // Update the cart's total price and save
+            existingCart.setTotalAmount(totalPrice);
+            existingCart.setLastModified(Instant.now());
+            cartRepository.save(existingCart);
+            return "Cart created/updated with the new items successfully";
+        });
+    }
 
-        double totalPrice = 0.00;
+    /**
+     * Resolves every product of the batch with one query and loads the cart
+     * and its lines once. New lines are inserted, changed lines updated and
+     * emptied lines deleted by orphan removal, all as JDBC batches when the
+     * transaction commits.
+     */
+    @Override
+    public CartDTO applyCartOperations(List<CartOperationDTO> operations) {
+        Set<Long> productIds = CartBatch.productIds(operations);
+        String emailId = authUtil.loggedInEmail();
+        return changeCart(() -> cartRepository.lockCartOfUser(emailId), () -> {
+            Cart cart = createCart();
+            Map<Long, Product> products = findProducts(productIds);
+
+            Map<Long, CartItem> items = new HashMap<>();
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (CartItem cartItem : cart.getCartItems()) {
+                Long productId = cartItem.getProduct().getProductId();
+                items.put(productId, cartItem);
+                quantities.put(productId, cartItem.getQuantity());
+            }
+            Map<Long, Integer> changes = CartBatch.apply(quantities, operations, products,
+                    Product::getProductName, Product::getQuantity);
+
+            cartRepository.lockForChange(cart);
+            List<CartItem> newCartItems = new ArrayList<>();
+            changes.forEach((productId, quantity) -> {
+                CartItem cartItem = items.get(productId);
+                Product product = products.get(productId);
+                if (quantity == 0) {
+                    if (cartItem != null) {
+                        cart.getCartItems().remove(cartItem);
+                    }
+                    return;
+                }
+                if (cartItem == null) {
+                    cartItem = new CartItem();
+                    cartItem.setProduct(product);
+                    cartItem.setCart(cart);
+                    newCartItems.add(cartItem);
+                    cart.getCartItems().add(cartItem);
+                }
+                cartItem.setQuantity(quantity);
+                cartItem.setProductPrice(product.getSpecialPrice());
+                cartItem.setDiscount(product.getDiscount());
+            });
+            cartItemRepository.saveAll(newCartItems);
+            cart.setTotalAmount(totalOf(cart));
+            cart.setLastModified(Instant.now());
+
+            return cartMapper.toDto(cart);
+        });
+    }
 
-        // Process each item in the request to add to the cart
-        for (CartItemDTO cartItemDTO : cartItems) {
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
+    /**
+     * Carts only live in the database here, and placeOrder loads the cart
+     * for change itself, so an edit racing the order makes one of them fail.
+     */
+    @Override
+    public <T> T checkout(String emailId, Supplier<T> placeOrder) {
+        return placeOrder.get();
+    }
 
-            // Find the product by ID
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+    /**
+     * Runs a cart change in its own transaction, and runs it again if it
+     * lost a race for the cart. That includes the first change of a buyer
+     * without a cart, whose new cart breaks the one-cart-per-user constraint
+     * when a concurrent change created one first; the retry finds that cart.
+     * The first attempt reads the cart without locking it. A retry calls
+     * {@code lockCart} first and holds the lock while it reads, so however
+     * many requests compete for one cart, each loses at most once.
+     * Validation errors are not retried.
+     */
+    private <T> T changeCart(Runnable lockCart, Supplier<T> change) {
+        for (int attempt = 1; ; attempt++) {
+            boolean locked = attempt > 1;
+            try {
+                return transactionTemplate.execute(status -> {
+                    if (locked) {
+                        lockCart.run();
+                    }
+                    return change.get();
+                });
+            } catch (ConcurrencyFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Cart change conflicted on attempt {}, retrying", attempt);
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(MAX_BACKOFF_MILLIS * attempt / maxAttempts + 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
 
-            // Directly update product stock and total price
-            // product.setQuantity(product.getQuantity() - quantity);
-            totalPrice += product.getSpecialPrice() * quantity;
+    private Map<Long, Product> findProducts(Set<Long> productIds) {
+        return productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+    }
 
-            // Create and save cart item
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
+    private static CartItem findItem(Cart cart, Long productId) {
+        for (CartItem cartItem : cart.getCartItems()) {
+            if (cartItem.getProduct().getProductId().equals(productId)) {
+                return cartItem;
+            }
         }
-
-        // Update the cart's total price and save
-        existingCart.setTotalAmount(totalPrice);
-        cartRepository.save(existingCart);
-        return "Cart created/updated with the new items successfully";
+        return null;
     }
 
-}
\ No newline at end of file
+    /**
+     * Totals are summed from all the lines on every change rather than
+     * adjusted by the line that changed, so they are exact whatever ran
+     * before.
+     */
+    private static long totalOf(Cart cart) {
+        long total = 0;
+        for (CartItem cartItem : cart.getCartItems()) {
+            total = PriceCalculator.addLine(total, cartItem.getProductPrice(), cartItem.getQuantity());
+        }
+        return total;
+    }
+}
@@ -2,17 +2,23 @@ package com.ecombackend.service.impl;
 
 import com.ecombackend.dto.CategoryDTO;
 import com.ecombackend.dto.CategoryResponse;
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.entity.Category;
+import com.ecombackend.event.CategoryChangedEvent;
 import com.ecombackend.exception.APIException;
 import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.CategoryMapper;
+import com.ecombackend.pagination.CursorCodec;
 import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
 import com.ecombackend.service.CategoryService;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,7 +28,10 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final ProductRepository productRepository;
+    private final CategoryMapper categoryMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CursorCodec cursorCodec;
 
 
     @Override
@@ -32,16 +41,12 @@ public class CategoryServiceImpl implements CategoryService {
                 : Sort.by(sortBy).descending();
 
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Category> categoryPage = categoryRepository.findAll(pageDetails);
+        Page<CategoryDTO> categoryPage = categoryRepository.findAllCategoryDTOs(pageDetails);
 
-        List<Category> categories = categoryPage.getContent();
-        if (categories.isEmpty())
+        List<CategoryDTO> categoryDTOS = categoryPage.getContent();
+        if (categoryDTOS.isEmpty())
             throw new APIException("No category created till now.");
 
-        List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
-                .toList();
-
         CategoryResponse categoryResponse = new CategoryResponse();
         categoryResponse.setContent(categoryDTOS);
         categoryResponse.setPageNumber(categoryPage.getNumber());
@@ -52,14 +57,35 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryResponse;
     }
 
+    @Override
+    public CursorResponse<CategoryDTO> scrollCategories(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        if (pageSize < 1) {
+            throw new APIException("pageSize must be positive");
+        }
+        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Window<Category> window = categoryRepository.findBy((root, query, criteriaBuilder) -> null,
+                q -> q.sortBy(sortByAndOrder).limit(pageSize).scroll(cursorCodec.decode(cursor, Category.class)));
+        if (window.isEmpty() && (cursor == null || cursor.isBlank()))
+            throw new APIException("No category created till now.");
+
+        List<CategoryDTO> categoryDTOS = window.getContent().stream()
+                .map(category -> categoryMapper.toDto(category))
+                .toList();
+        return cursorCodec.toResponse(window, categoryDTOS, pageSize);
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         Category categoryFromDb = categoryRepository.findByCategoryName(category.getCategoryName());
         if (categoryFromDb != null)
             throw new APIException("Category with the name " + category.getCategoryName() + " already exists !!!");
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getCategoryId(), false, List.of()));
+        return categoryMapper.toDto(savedCategory);
     }
 
     @Override
@@ -67,8 +93,10 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
+        List<Long> productIds = productRepository.findProductIdsByCategoryId(categoryId);
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId, true, productIds));
+        return categoryMapper.toDto(category);
     }
 
     @Override
@@ -76,9 +104,10 @@ public class CategoryServiceImpl implements CategoryService {
         Category savedCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         category.setCategoryId(categoryId);
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId, false, List.of()));
+        return categoryMapper.toDto(savedCategory);
     }
 }
\ No newline at end of file
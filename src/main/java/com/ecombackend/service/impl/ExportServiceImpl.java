@@ -0,0 +1,222 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.export.CsvWriter;
+import com.ecombackend.export.ExportFormat;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.repository.OrderRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.projection.OrderExportRow;
+import com.ecombackend.repository.projection.ProductExportView;
+import com.ecombackend.service.ExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Full product and order dumps. Rows are read through a forward-only cursor
+ * as flat projections, so nothing is added to the persistence context, and
+ * each row is written out as soon as it is read. Memory use is the same for
+ * ten rows or ten million. Rows come in id order, so an interrupted export
+ * can be resumed from the last id received.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportServiceImpl(ProductRepository productRepository, OrderRepository orderRepository,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public void exportProducts(ExportFormat format, Long afterProductId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        inReadOnlyTransaction(() -> {
+            try (Stream<ProductExportView> products = productRepository.streamExportViewsAfter(afterProductId)) {
+                if (format == ExportFormat.CSV) {
+                    writeProductsCsv(products.iterator(), new CsvWriter(writer));
+                } else {
+                    writeProductsNdjson(products.iterator(), writer);
+                }
+            }
+        });
+        writer.flush();
+    }
+
+    @Override
+    public void exportOrders(ExportFormat format, Long afterOrderId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        inReadOnlyTransaction(() -> {
+            try (Stream<OrderExportRow> rows = orderRepository.streamExportRowsAfter(afterOrderId)) {
+                if (format == ExportFormat.CSV) {
+                    writeOrdersCsv(rows.iterator(), new CsvWriter(writer));
+                } else {
+                    writeOrdersNdjson(rows.iterator(), writer);
+                }
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeProductsCsv(Iterator<ProductExportView> products, CsvWriter csv) throws IOException {
+        csv.writeRecord("productId", "productName", "productDescription", "imageUrl", "quantity", "price",
+                "discount", "specialPrice", "categoryId", "sellerId");
+        while (products.hasNext()) {
+            ProductExportView product = products.next();
+            csv.writeRecord(product.getProductId(), product.getProductName(), product.getProductDescription(),
+                    product.getImageUrl(), product.getQuantity(), Money.toAmount(product.getPrice()),
+                    Money.toPercent(product.getDiscount()), Money.toAmount(product.getSpecialPrice()),
+                    product.getCategoryId(), product.getSellerId());
+        }
+    }
+
+    private void writeProductsNdjson(Iterator<ProductExportView> products, Writer writer) throws IOException {
+        try (JsonGenerator json = ndjsonGenerator(writer)) {
+            while (products.hasNext()) {
+                ProductExportView product = products.next();
+                json.writeStartObject();
+                json.writeObjectField("productId", product.getProductId());
+                json.writeObjectField("productName", product.getProductName());
+                json.writeObjectField("productDescription", product.getProductDescription());
+                json.writeObjectField("imageUrl", product.getImageUrl());
+                json.writeObjectField("quantity", product.getQuantity());
+                json.writeNumberField("price", Money.toAmount(product.getPrice()));
+                json.writeNumberField("discount", Money.toPercent(product.getDiscount()));
+                json.writeNumberField("specialPrice", Money.toAmount(product.getSpecialPrice()));
+                json.writeObjectField("categoryId", product.getCategoryId());
+                json.writeObjectField("sellerId", product.getSellerId());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * One record per order line, repeating the order fields on each line.
+     */
+    private void writeOrdersCsv(Iterator<OrderExportRow> rows, CsvWriter csv) throws IOException {
+        csv.writeRecord("orderId", "email", "orderDate", "orderStatus", "totalAmount", "addressId",
+                "paymentMethod", "pgPaymentId", "pgStatus", "pgName", "orderItemId", "productId", "productName",
+                "sellerId", "quantity", "discount", "orderedProductPrice");
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            csv.writeRecord(row.getOrderId(), row.getEmail(), row.getOrderDate(), row.getOrderStatus(),
+                    Money.toAmount(row.getTotalAmount()), row.getAddressId(), row.getPaymentMethod(),
+                    row.getPgPaymentId(), row.getPgStatus(), row.getPgName(), row.getOrderItemId(),
+                    row.getProductId(), row.getProductName(), row.getSellerId(), row.getQuantity(),
+                    percent(row.getDiscount()), amount(row.getOrderedProductPrice()));
+        }
+    }
+
+    /**
+     * One object per order with its lines nested. Rows arrive grouped by
+     * order, so only the order being written is held.
+     */
+    private void writeOrdersNdjson(Iterator<OrderExportRow> rows, Writer writer) throws IOException {
+        try (JsonGenerator json = ndjsonGenerator(writer)) {
+            Long currentOrderId = null;
+            while (rows.hasNext()) {
+                OrderExportRow row = rows.next();
+                if (!row.getOrderId().equals(currentOrderId)) {
+                    if (currentOrderId != null) {
+                        endOrder(json);
+                    }
+                    startOrder(json, row);
+                    currentOrderId = row.getOrderId();
+                }
+                if (row.getOrderItemId() != null) {
+                    json.writeStartObject();
+                    json.writeObjectField("orderItemId", row.getOrderItemId());
+                    json.writeObjectField("productId", row.getProductId());
+                    json.writeObjectField("productName", row.getProductName());
+                    json.writeObjectField("sellerId", row.getSellerId());
+                    json.writeObjectField("quantity", row.getQuantity());
+                    json.writeObjectField("discount", percent(row.getDiscount()));
+                    json.writeObjectField("orderedProductPrice", amount(row.getOrderedProductPrice()));
+                    json.writeEndObject();
+                }
+            }
+            if (currentOrderId != null) {
+                endOrder(json);
+            }
+        }
+    }
+
+    private static void startOrder(JsonGenerator json, OrderExportRow row) throws IOException {
+        json.writeStartObject();
+        json.writeObjectField("orderId", row.getOrderId());
+        json.writeObjectField("email", row.getEmail());
+        json.writeObjectField("orderDate", row.getOrderDate() == null ? null : row.getOrderDate().toString());
+        json.writeObjectField("orderStatus", row.getOrderStatus());
+        json.writeNumberField("totalAmount", Money.toAmount(row.getTotalAmount()));
+        json.writeObjectField("addressId", row.getAddressId());
+        json.writeObjectFieldStart("payment");
+        json.writeObjectField("paymentMethod", row.getPaymentMethod());
+        json.writeObjectField("pgPaymentId", row.getPgPaymentId());
+        json.writeObjectField("pgStatus", row.getPgStatus());
+        json.writeObjectField("pgName", row.getPgName());
+        json.writeEndObject();
+        json.writeArrayFieldStart("orderItems");
+    }
+
+    private static void endOrder(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static Double amount(Long cents) {
+        return cents == null ? null : Money.toAmount(cents);
+    }
+
+    private static Double percent(Integer basisPoints) {
+        return basisPoints == null ? null : Money.toPercent(basisPoints);
+    }
+
+    private JsonGenerator ndjsonGenerator(Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private void inReadOnlyTransaction(IoAction action) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try {
+                    action.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
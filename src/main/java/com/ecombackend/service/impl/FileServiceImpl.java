@@ -1,27 +1,72 @@
 package com.ecombackend.service.impl;
 
+import com.ecombackend.exception.APIException;
 import com.ecombackend.service.FileService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
 
+/**
+ * Content-addressed image storage. The upload is streamed to a temporary
+ * file in the image folder while its SHA-256 is computed, then moved to
+ * {@code <sha256>.<format>}. Uploading the same image twice stores it once.
+ * The format comes from the file's content, not from the client's file name,
+ * and anything that is not a readable image is refused.
+ */
 @Service
 public class FileServiceImpl implements FileService {
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
-        String originalFileName = file.getOriginalFilename();
-        String randomId = UUID.randomUUID().toString();
-        String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path + File.separator + fileName;
-        File folder = new File(path);
-        if (!folder.exists())
-            folder.mkdir();
-        Files.copy(file.getInputStream(), Paths.get(filePath));
-        return fileName;
+        Path folder = Paths.get(path);
+        Files.createDirectories(folder);
+        Path upload = Files.createTempFile(folder, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, upload, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String fileName = HexFormat.of().formatHex(digest.digest()) + "." + imageFormat(upload);
+            Path target = folder.resolve(fileName);
+            if (!Files.exists(target)) {
+                Files.move(upload, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return fileName;
+        } finally {
+            Files.deleteIfExists(upload);
+        }
     }
-}
\ No newline at end of file
+
+    private static String imageFormat(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                throw new APIException("The upload is not a supported image, expected JPEG, PNG, GIF or BMP");
+            }
+            String format = readers.next().getFormatName().toLowerCase(Locale.ROOT);
+            return format.equals("jpeg") ? "jpg" : format;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
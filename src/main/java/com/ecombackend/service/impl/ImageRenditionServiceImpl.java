@@ -0,0 +1,101 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductImageUploadedEvent;
+import com.ecombackend.image.ImageRenditions;
+import com.ecombackend.image.ImageResizer;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.service.ImageRenditionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates the thumbnail and medium renditions of uploaded product images
+ * on a small worker pool, off the request thread. The original is decoded
+ * once for both sizes. When they are written the product row is updated and
+ * a {@link ProductChangedEvent} is published so the catalog caches pick up
+ * the new URLs. Renditions are named after the original's content hash, so
+ * an image that is already rendered is never rendered again.
+ */
+@Service
+public class ImageRenditionServiceImpl implements ImageRenditionService {
+    private static final Logger logger = LoggerFactory.getLogger(ImageRenditionServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path folder;
+    private final int thumbnailSize;
+    private final int mediumSize;
+    private final long maxPixels;
+    private final ExecutorService executor;
+
+    public ImageRenditionServiceImpl(ProductRepository productRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${project.image}") String path,
+                                     @Value("${catalog.image.thumbnail-size:200}") int thumbnailSize,
+                                     @Value("${catalog.image.medium-size:600}") int mediumSize,
+                                     @Value("${catalog.image.max-pixels:50000000}") long maxPixels,
+                                     @Value("${catalog.image.threads:2}") int threads) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.folder = Paths.get(path);
+        this.thumbnailSize = thumbnailSize;
+        this.mediumSize = mediumSize;
+        this.maxPixels = maxPixels;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("image-rendition-", 1).factory());
+    }
+
+    @Override
+    public ImageRenditions findRenditions(String imageName) {
+        ImageRenditions renditions = ImageRenditions.forImage(imageName);
+        boolean rendered = Files.exists(folder.resolve(renditions.thumbnailUrl()))
+                && Files.exists(folder.resolve(renditions.mediumImageUrl()));
+        return rendered ? renditions : null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductImageUploaded(ProductImageUploadedEvent event) {
+        executor.execute(() -> render(event));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void render(ProductImageUploadedEvent event) {
+        ImageRenditions renditions = ImageRenditions.forImage(event.getImageName());
+        if (findRenditions(event.getImageName()) == null) {
+            long start = System.currentTimeMillis();
+            try {
+                BufferedImage original = ImageResizer.read(folder.resolve(event.getImageName()),
+                        Math.max(thumbnailSize, mediumSize), maxPixels);
+                ImageResizer.write(original, thumbnailSize, folder.resolve(renditions.thumbnailUrl()));
+                ImageResizer.write(original, mediumSize, folder.resolve(renditions.mediumImageUrl()));
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not render image {} of product {}", event.getImageName(), event.getProductId(), e);
+                return;
+            }
+            logger.debug("Rendered image {} in {} ms", event.getImageName(), System.currentTimeMillis() - start);
+        }
+
+        int updated = productRepository.updateImageRenditions(event.getProductId(), event.getImageName(),
+                renditions.thumbnailUrl(), renditions.mediumImageUrl());
+        if (updated > 0) {
+            eventPublisher.publishEvent(new ProductChangedEvent(event.getProductId(), event.getCategoryId(), false));
+        }
+    }
+}
@@ -1,57 +1,103 @@
 package com.ecombackend.service.impl;
 
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.OrderDTO;
 import com.ecombackend.dto.OrderItemDTO;
 import com.ecombackend.dto.OrderResponse;
+import com.ecombackend.dto.PaymentDTO;
+import com.ecombackend.dto.ProductDTO;
 import com.ecombackend.entity.*;
+import com.ecombackend.event.StockReservedEvent;
 import com.ecombackend.exception.APIException;
 import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.OrderMapper;
+import com.ecombackend.pagination.CursorCodec;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
 import com.ecombackend.repository.*;
+import com.ecombackend.repository.projection.OrderItemView;
+import com.ecombackend.repository.projection.OrderListView;
+import com.ecombackend.repository.projection.ProductStockView;
 import com.ecombackend.security.utils.AuthUtil;
 import com.ecombackend.service.CartService;
 import com.ecombackend.service.OrderService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
     private final AddressRepository addressRepository;
     private final OrderItemRepository orderItemRepository;
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
-    private final CartService cartService;
-    private final ModelMapper modelMapper;
+    private final OrderMapper orderMapper;
     private final ProductRepository productRepository;
     private final AuthUtil authUtil;
+    private final CursorCodec cursorCodec;
+    private final CartService cartService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * The order transaction runs inside {@link CartService#checkout}, so a
+     * cart engine that holds carts outside the database can hand over the
+     * buyer's cart first.
+     */
     @Override
-    @Transactional
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod, String pgName,
                                String pgPaymentId, String pgStatus, String pgResponseMessage) {
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        return cartService.checkout(emailId, () -> transactionTemplate.execute(status -> placeOrderFromCart(
+                emailId, addressId, paymentMethod, pgName, pgPaymentId, pgStatus, pgResponseMessage)));
+    }
+
+    private OrderDTO placeOrderFromCart(String emailId, Long addressId, String paymentMethod, String pgName,
+                                        String pgPaymentId, String pgStatus, String pgResponseMessage) {
+        Cart cart = cartRepository.findCartByEmailForChange(emailId);
         if (cart == null) {
             throw new ResourceNotFoundException("Cart", "email", emailId);
         }
 
+        List<CartItem> cartItems = cart.getCartItems();
+        if (cartItems.isEmpty()) {
+            throw new APIException("Cart is empty");
+        }
+
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
 
+        Map<Long, Integer> stockLeft = reserveStock(cartItems);
+
+        // Summed from the lines the order is made of, not copied from the cart
+        long totalAmount = 0;
+        for (CartItem cartItem : cartItems) {
+            totalAmount = PriceCalculator.addLine(totalAmount, cartItem.getProductPrice(), cartItem.getQuantity());
+        }
+
         Order order = new Order();
         order.setEmail(emailId);
         order.setOrderDate(LocalDate.now());
-        order.setTotalAmount(cart.getTotalAmount());
+        order.setTotalAmount(totalAmount);
         order.setOrderStatus("Order Accepted !");
         order.setAddress(address);
 
@@ -62,15 +108,11 @@ public class OrderServiceImpl implements OrderService {
 
         Order savedOrder = orderRepository.save(order);
 
-        List<CartItem> cartItems = cart.getCartItems();
-        if (cartItems.isEmpty()) {
-            throw new APIException("Cart is empty");
-        }
-
         List<OrderItem> orderItems = new ArrayList<>();
         for (CartItem cartItem : cartItems) {
             OrderItem orderItem = new OrderItem();
             orderItem.setProduct(cartItem.getProduct());
+            orderItem.setSeller(cartItem.getProduct().getUser());
             orderItem.setQuantity(cartItem.getQuantity());
             orderItem.setDiscount(cartItem.getDiscount());
             orderItem.setOrderedProductPrice(cartItem.getProductPrice());
@@ -79,31 +121,63 @@ public class OrderServiceImpl implements OrderService {
         }
         orderItems = orderItemRepository.saveAll(orderItems);
 
-        for (CartItem item : cart.getCartItems()) {
-            int quantity = item.getQuantity();
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() - quantity);
-            productRepository.save(product);
-            cartService.deleteProductFromCart(cart.getCartId(), product.getProductId());
+        cartRepository.lockForChange(cart);
+        cartItemRepository.deleteAllByCartId(cart.getCartId());
+        cart.setTotalAmount(0);
+        cart.setLastModified(Instant.now());
+
+        OrderDTO orderDTO = orderMapper.toDto(savedOrder);
+        for (OrderItem orderItem : orderItems) {
+            OrderItemDTO orderItemDTO = orderMapper.toDto(orderItem);
+            // The cart's products were loaded before their stock was taken
+            if (orderItemDTO.getProduct() != null) {
+                orderItemDTO.getProduct().setQuantity(stockLeft.getOrDefault(
+                        orderItemDTO.getProduct().getProductId(), orderItemDTO.getProduct().getQuantity()));
+            }
+            orderDTO.getOrderItems().add(orderItemDTO);
         }
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
         orderDTO.setAddressId(addressId);
 
         return orderDTO;
     }
 
+    /**
+     * Takes every cart line out of stock in one conditional statement. If any
+     * product is short nothing is decremented and the order is rejected;
+     * otherwise the catalog is told which products' stock changed once the
+     * order commits, and the stock left of each product is returned.
+     */
+    private Map<Long, Integer> reserveStock(List<CartItem> cartItems) {
+        Map<Long, Integer> requested = new LinkedHashMap<>();
+        Set<Long> categoryIds = new LinkedHashSet<>();
+        for (CartItem cartItem : cartItems) {
+            requested.merge(cartItem.getProduct().getProductId(), cartItem.getQuantity(), Integer::sum);
+            categoryIds.add(cartItem.getProduct().getCategory().getCategoryId());
+        }
+        if (productRepository.reserveStock(requested) == requested.size()) {
+            eventPublisher.publishEvent(new StockReservedEvent(categoryIds, List.copyOf(requested.keySet())));
+            return productRepository.findStockByProductIds(requested.keySet()).stream()
+                    .collect(Collectors.toMap(ProductStockView::getProductId, ProductStockView::getQuantity));
+        }
+
+        String shortages = productRepository.findStockByProductIds(requested.keySet()).stream()
+                .filter(stock -> stock.getQuantity() < requested.get(stock.getProductId()))
+                .map(stock -> stock.getProductName() + " (requested " + requested.get(stock.getProductId())
+                        + ", available " + stock.getQuantity() + ")")
+                .collect(Collectors.joining(", "));
+        throw new APIException(shortages.isEmpty()
+                ? "Stock changed while placing the order, please try again"
+                : "Not enough stock for: " + shortages);
+    }
+
     @Override
     public OrderResponse getAllOrders(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Order> pageOrders = orderRepository.findAll(pageDetails);
-        List<Order> orders = pageOrders.getContent();
-        List<OrderDTO> orderDTOs = orders.stream()
-                .map(order -> modelMapper.map(order, OrderDTO.class))
-                .toList();
+        Page<OrderListView> pageOrders = orderRepository.findAllOrderViews(pageDetails);
+        List<OrderDTO> orderDTOs = toOrderDTOs(pageOrders.getContent());
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOs);
         orderResponse.setPageNumber(pageOrders.getNumber());
@@ -114,13 +188,73 @@ public class OrderServiceImpl implements OrderService {
         return orderResponse;
     }
 
+    private List<OrderDTO> toOrderDTOs(List<OrderListView> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderIds = orders.stream().map(OrderListView::getOrderId).toList();
+        Map<Long, List<OrderItemDTO>> itemsByOrderId = orderItemRepository.findItemViewsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemView::getOrderId,
+                        Collectors.mapping(this::toOrderItemDTO, Collectors.toList())));
+
+        return orders.stream().map(order -> {
+            PaymentDTO payment = order.getPaymentId() == null ? null : new PaymentDTO(
+                    order.getPaymentId(),
+                    order.getPaymentMethod(),
+                    order.getPgPaymentId(),
+                    order.getPgStatus(),
+                    order.getPgResponseMessage(),
+                    order.getPgName());
+            return new OrderDTO(
+                    order.getOrderId(),
+                    order.getEmail(),
+                    itemsByOrderId.getOrDefault(order.getOrderId(), new ArrayList<>()),
+                    order.getOrderDate(),
+                    payment,
+                    Money.toAmount(order.getTotalAmount()),
+                    order.getOrderStatus(),
+                    order.getAddressId());
+        }).toList();
+    }
+
+    private OrderItemDTO toOrderItemDTO(OrderItemView item) {
+        ProductDTO product = item.getProductId() == null ? null : new ProductDTO(
+                item.getProductId(),
+                item.getProductName(),
+                item.getImageUrl(),
+                item.getThumbnailUrl(),
+                item.getMediumImageUrl(),
+                item.getProductDescription(),
+                item.getProductQuantity(),
+                item.getPrice(),
+                item.getProductDiscount(),
+                item.getSpecialPrice());
+        return new OrderItemDTO(item.getOrderItemId(), product, item.getQuantity(),
+                Money.toPercent(item.getDiscount()), Money.toAmount(item.getOrderedProductPrice()));
+    }
+
+    @Override
+    public CursorResponse<OrderDTO> scrollOrders(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        if (pageSize < 1) {
+            throw new APIException("pageSize must be positive");
+        }
+        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                ? Sort.by(sortBy).ascending()
+                : Sort.by(sortBy).descending();
+
+        Window<OrderListView> window = orderRepository.scrollOrderViews(
+                cursorCodec.decode(cursor, Order.class), sortByAndOrder, pageSize);
+
+        return cursorCodec.toResponse(window, toOrderDTOs(window.getContent()), pageSize);
+    }
+
     @Override
     public OrderDTO updateOrder(Long orderId, String status) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order","orderId",orderId));
         order.setOrderStatus(status);
         orderRepository.save(order);
-        return modelMapper.map(order, OrderDTO.class);
+        return orderMapper.toDto(order);
     }
 
     @Override
@@ -130,25 +264,10 @@ public class OrderServiceImpl implements OrderService {
                 : Sort.by(sortBy).descending();
         Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
 
-        User seller = authUtil.loggedInUser();
-
-        Page<Order> pageOrders = orderRepository.findAll(pageDetails);
-
-        List<Order> sellerOrders = pageOrders.getContent().stream()
-                .filter(order -> order.getOrderItems().stream()
-                        .anyMatch(orderItem -> {
-                            var product = orderItem.getProduct();
-                            if (product == null || product.getUser() == null) {
-                                return false;
-                            }
-                            return product.getUser().getUserId().equals(
-                                    seller.getUserId());
-                        }))
-                .toList();
-
-        List<OrderDTO> orderDTOs = sellerOrders.stream()
-                .map(order -> modelMapper.map(order, OrderDTO.class))
-                .toList();
+        Long sellerId = authUtil.loggedInUserId();
+
+        Page<OrderListView> pageOrders = orderRepository.findSellerOrderViews(sellerId, pageDetails);
+        List<OrderDTO> orderDTOs = toOrderDTOs(pageOrders.getContent());
         OrderResponse orderResponse = new OrderResponse();
         orderResponse.setContent(orderDTOs);
         orderResponse.setPageNumber(pageOrders.getNumber());
@@ -0,0 +1,309 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.catalogimport.CsvProductRowReader;
+import com.ecombackend.catalogimport.NdjsonProductRowReader;
+import com.ecombackend.catalogimport.ProductImportFormat;
+import com.ecombackend.catalogimport.ProductImportJob;
+import com.ecombackend.catalogimport.ProductImportRow;
+import com.ecombackend.catalogimport.ProductRowReader;
+import com.ecombackend.dto.ProductImportJobDTO;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.event.ProductsImportedEvent;
+import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.ProductImportMapper;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductImportRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.utils.AuthUtil;
+import com.ecombackend.service.ProductImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import. The request body is spooled to a temporary file and
+ * the import runs on a small worker pool, so the request returns as soon as
+ * the upload is complete. The worker streams rows from the file, validates
+ * each one and inserts valid rows in chunks, one transaction per chunk,
+ * through Hibernate's JDBC batching. Memory use is bounded by the chunk size
+ * whatever the size of the file. A chunk that fails to save is reported
+ * against its rows and the import carries on with the next one. Uploads larger
+ * than {@code catalog.import.max-bytes} are rejected while they are spooled.
+ * The job's progress is written to the {@code product_imports} table after
+ * every chunk, so its status can be read from any node.
+ */
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final AuthUtil authUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductImportRepository productImportRepository;
+    private final ProductImportMapper productImportMapper;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final long maxBytes;
+    private final Duration jobRetention;
+    private final ExecutorService executor;
+
+    public ProductImportServiceImpl(CategoryRepository categoryRepository,
+                                    ProductRepository productRepository,
+                                    UserRepository userRepository,
+                                    AuthUtil authUtil,
+                                    TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    ProductImportRepository productImportRepository,
+                                    ProductImportMapper productImportMapper,
+                                    ObjectMapper objectMapper,
+                                    @Value("${catalog.import.chunk-size:1000}") int chunkSize,
+                                    @Value("${catalog.import.max-reported-errors:1000}") int maxReportedErrors,
+                                    @Value("${catalog.import.max-bytes:512MB}") DataSize maxBytes,
+                                    @Value("${catalog.import.threads:2}") int threads,
+                                    @Value("${catalog.import.job-retention:24h}") Duration jobRetention) {
+        this.categoryRepository = categoryRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.authUtil = authUtil;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.productImportRepository = productImportRepository;
+        this.productImportMapper = productImportMapper;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxBytes = maxBytes.toBytes();
+        this.jobRetention = jobRetention;
+        this.executor = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("product-import-", 1).factory());
+    }
+
+    @Override
+    public ProductImportJobDTO startImport(Long categoryId, String contentType, InputStream body) throws IOException {
+        ProductImportFormat format = ProductImportFormat.fromContentType(contentType);
+        if (!categoryRepository.existsById(categoryId)) {
+            throw new ResourceNotFoundException("Category", "categoryId", categoryId);
+        }
+        Long sellerId = authUtil.loggedInUserId();
+
+        Path file = Files.createTempFile("product-import-", "." + format.name().toLowerCase(Locale.ROOT));
+        try (OutputStream out = Files.newOutputStream(file)) {
+            copyAtMost(body, out, maxBytes);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+
+        productImportRepository.deleteCreatedBefore(Instant.now().minus(jobRetention));
+        ProductImportJob job = new ProductImportJob(categoryId, format, maxReportedErrors);
+        ProductImportJobDTO queued = job.toDto();
+        try {
+            productImportRepository.save(productImportMapper.toEntity(queued));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        executor.execute(() -> run(job, sellerId, file));
+        return queued;
+    }
+
+    @Override
+    public ProductImportJobDTO getImportJob(String jobId) {
+        return productImportRepository.findById(jobId)
+                .map(productImportMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job", "jobId", jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static void copyAtMost(InputStream in, OutputStream out, long maxBytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        long copied = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            copied += read;
+            if (copied > maxBytes) {
+                throw new MaxUploadSizeExceededException(maxBytes);
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private void run(ProductImportJob job, Long sellerId, Path file) {
+        job.start();
+        record(job);
+        long start = System.currentTimeMillis();
+        try (ProductRowReader reader = openReader(job.getFormat(), file)) {
+            List<ProductImportRow> chunk = new ArrayList<>(chunkSize);
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                String error = row.error() != null ? row.error() : validate(row);
+                if (error != null) {
+                    job.rowFailed(row.rowNumber(), error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(job, sellerId, chunk);
+                    chunk.clear();
+                    record(job);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, sellerId, chunk);
+            }
+            job.complete();
+            logger.info("Product import {} finished in {} ms", job.getJobId(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Product import {} failed", job.getJobId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            record(job);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Could not delete import file {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the job's progress for the status endpoint. A failed write is
+     * only logged: the next one carries the same counts.
+     */
+    private void record(ProductImportJob job) {
+        try {
+            productImportRepository.save(productImportMapper.toEntity(job.toDto()));
+        } catch (RuntimeException e) {
+            logger.warn("Could not record the progress of product import {}", job.getJobId(), e);
+        }
+    }
+
+    private ProductRowReader openReader(ProductImportFormat format, Path file) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        try {
+            return switch (format) {
+                case CSV -> new CsvProductRowReader(reader);
+                case NDJSON -> new NdjsonProductRowReader(reader, objectMapper);
+            };
+        } catch (RuntimeException | IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private void importChunk(ProductImportJob job, Long sellerId, List<ProductImportRow> rows) {
+        List<ProductImportRow> duplicates = new ArrayList<>();
+        Integer imported;
+        try {
+            imported = transactionTemplate.execute(status -> {
+                Set<String> names = rows.stream().map(ProductImportRow::productName).collect(Collectors.toSet());
+                Set<String> taken = new HashSet<>(productRepository.findProductNamesInCategory(job.getCategoryId(), names));
+                Category category = categoryRepository.getReferenceById(job.getCategoryId());
+                User seller = sellerId == null ? null : userRepository.getReferenceById(sellerId);
+
+                List<Product> products = new ArrayList<>(rows.size());
+                for (ProductImportRow row : rows) {
+                    if (!taken.add(row.productName())) {
+                        duplicates.add(row);
+                        continue;
+                    }
+                    products.add(toProduct(row, category, seller));
+                }
+                productRepository.saveAll(products);
+                eventPublisher.publishEvent(new ProductsImportedEvent(job.getCategoryId(),
+                        products.stream().map(Product::getProductId).toList()));
+                return products.size();
+            });
+        } catch (RuntimeException e) {
+            String reason = "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            rows.forEach(row -> job.rowFailed(row.rowNumber(), reason));
+            return;
+        }
+        duplicates.forEach(row -> job.rowFailed(row.rowNumber(), "Product already exists: " + row.productName()));
+        job.imported(imported == null ? 0 : imported);
+    }
+
+    private static String validate(ProductImportRow row) {
+        if (row.productName() == null) {
+            return "productName is required";
+        }
+        if (row.productName().length() > MAX_TEXT_LENGTH) {
+            return "productName is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.productDescription() != null && row.productDescription().length() > MAX_TEXT_LENGTH) {
+            return "productDescription is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.quantity() == null) {
+            return "quantity is required";
+        }
+        if (row.quantity() < 0) {
+            return "quantity must not be negative";
+        }
+        if (row.price() == null) {
+            return "price is required";
+        }
+        if (!Double.isFinite(row.price()) || row.price() < 0 || row.price() > Money.MAX_AMOUNT) {
+            return "price must be a number between 0 and " + Money.MAX_AMOUNT;
+        }
+        if (row.discount() != null && (!Double.isFinite(row.discount()) || row.discount() < 0 || row.discount() > 100)) {
+            return "discount must be between 0 and 100";
+        }
+        return null;
+    }
+
+    private static Product toProduct(ProductImportRow row, Category category, User seller) {
+        long price = Money.toCents(row.price());
+        int discount = row.discount() == null ? 0 : Money.toBasisPoints(row.discount());
+        Product product = new Product();
+        product.setProductName(row.productName());
+        product.setProductDescription(row.productDescription());
+        product.setQuantity(row.quantity());
+        product.setPrice(price);
+        product.setDiscount(discount);
+        product.setSpecialPrice(PriceCalculator.specialPrice(price, discount));
+        product.setImageUrl("default.png");
+        product.setCategory(category);
+        product.setUser(seller);
+        return product;
+    }
+}
@@ -1,37 +1,65 @@
 package com.ecombackend.service.impl;
 
+import com.ecombackend.cache.CatalogCache;
+import com.ecombackend.constants.AppConstants;
+import com.ecombackend.dto.CursorResponse;
 import com.ecombackend.dto.ProductDTO;
 import com.ecombackend.dto.ProductResponse;
 import com.ecombackend.entity.Category;
 import com.ecombackend.entity.Product;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.event.ProductImageUploadedEvent;
 import com.ecombackend.exception.APIException;
 import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.image.ImageRenditions;
+import com.ecombackend.mapper.ProductMapper;
+import com.ecombackend.pagination.CursorCodec;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
 import com.ecombackend.repository.CategoryRepository;
 import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.search.ProductSearchIndex;
+import com.ecombackend.search.SearchHits;
+import com.ecombackend.search.SearchSortField;
+import com.ecombackend.service.CartService;
 import com.ecombackend.service.FileService;
+import com.ecombackend.service.ImageRenditionService;
 import com.ecombackend.service.ProductService;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
+
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
     private final FileService fileService;
+    private final ImageRenditionService imageRenditionService;
+    private final CatalogCache catalogCache;
+    private final ProductSearchIndex searchIndex;
+    private final CartService cartService;
+    private final CursorCodec cursorCodec;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Value("${project.image")
+    @Value("${project.image}")
     private String path;
 
     @Override
@@ -40,23 +68,16 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() ->
                         new ResourceNotFoundException("Category", "categoryId", categoryId));
 
-        boolean isProductNotPresent = true;
-        List<Product> products = category.getProducts();
-        for (Product value : products) {
-            if (value.getProductName().equals(productDTO.getProductName())) {
-                isProductNotPresent = false;
-                break;
-            }
-        }
+        boolean isProductNotPresent = !productRepository.existsByCategoryCategoryIdAndProductName(
+                categoryId, productDTO.getProductName());
         if (isProductNotPresent) {
-            Product product = modelMapper.map(productDTO, Product.class);
+            Product product = productMapper.toEntity(productDTO);
             product.setImageUrl("default.png");
             product.setCategory(category);
-            double specialPrice = product.getPrice() -
-                    ((product.getDiscount() * 0.01) * product.getPrice());
-            product.setSpecialPrice(specialPrice);
+            product.setSpecialPrice(PriceCalculator.specialPrice(product.getPrice(), product.getDiscount()));
             Product savedProduct = productRepository.save(product);
-            return modelMapper.map(savedProduct, ProductDTO.class);
+            publishProductChanged(savedProduct, false);
+            return productMapper.toDto(savedProduct);
         } else {
             throw new APIException("Product already exist!!");
         }
@@ -64,43 +85,53 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findAll(pageDetails);
+        return catalogCache.getPage(null, pageNumber, pageSize, sortBy, sortOrder, () -> {
+            Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                    ? Sort.by(sortBy).ascending()
+                    : Sort.by(sortBy).descending();
 
-        List<Product> products = pageProducts.getContent();
+            Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+            Page<ProductDTO> pageProducts = productRepository.findAllProductDTOs(pageDetails);
 
-        return getProductResponse(pageProducts, products);
+            return getProductResponse(pageProducts);
+        });
     }
     @Override
-    public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() ->
-                        new ResourceNotFoundException("Category", "categoryId", categoryId));
-
+    public CursorResponse<ProductDTO> scrollProducts(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        if (pageSize < 1) {
+            throw new APIException("pageSize must be positive");
+        }
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
-        Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
-        Page<Product> pageProducts = productRepository.findByCategoryOrderByPriceAsc(category, pageDetails);
 
-        List<Product> products = pageProducts.getContent();
+        Window<ProductDTO> window = productRepository.scrollProductDTOs(
+                cursorCodec.decode(cursor, Product.class), sortByAndOrder, pageSize);
 
-        if(products.isEmpty()){
-            throw new APIException(category.getCategoryName() + " category does not have any products");
-        }
-        return getProductResponse(pageProducts, products);
+        return cursorCodec.toResponse(window, window.getContent(), pageSize);
     }
-    private ProductResponse getProductResponse(Page<Product> pageProducts, List<Product> products) {
-        List<ProductDTO> productDTOS = products.stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
-                .toList();
 
+    @Override
+    public ProductResponse searchByCategory(Long categoryId, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+        return catalogCache.getPage(categoryId, pageNumber, pageSize, sortBy, sortOrder, () -> {
+            Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
+                    ? Sort.by(sortBy).ascending()
+                    : Sort.by(sortBy).descending();
+            Pageable pageDetails = PageRequest.of(pageNumber, pageSize, sortByAndOrder);
+            Page<ProductDTO> pageProducts = productRepository.findProductDTOsByCategoryId(categoryId, pageDetails);
+
+            if(pageProducts.isEmpty()){
+                Category category = categoryRepository.findById(categoryId)
+                        .orElseThrow(() ->
+                                new ResourceNotFoundException("Category", "categoryId", categoryId));
+                throw new APIException(category.getCategoryName() + " category does not have any products");
+            }
+            return getProductResponse(pageProducts);
+        });
+    }
+    private ProductResponse getProductResponse(Page<ProductDTO> pageProducts) {
         ProductResponse productResponse = new ProductResponse();
-        productResponse.setContents(productDTOS);
+        productResponse.setContents(pageProducts.getContent());
         productResponse.setPageNumber(pageProducts.getNumber());
         productResponse.setPageSize(pageProducts.getSize());
         productResponse.setTotalElements(pageProducts.getTotalElements());
@@ -110,46 +141,94 @@ public class ProductServiceImpl implements ProductService {
     }
     @Override
     public ProductResponse searchProductByKeyword(String keyword, Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
-        Sort sort = sortOrder.equalsIgnoreCase("asc")
-                ? Sort.by(sortBy).ascending()
-                : Sort.by(sortBy).descending();
-
-        Pageable pageable = PageRequest.of(pageNumber, pageSize, sort);
-        String searchPattern = "%" + keyword + "%";
-
-        Page<Product> productPage = productRepository.findByProductNameLikeIgnoreCase(searchPattern, pageable);
+        if (!AppConstants.SORT_SEARCH_BY.equalsIgnoreCase(sortBy)) {
+            return searchProductByKeywordSorted(keyword, pageNumber, pageSize, sortBy, sortOrder);
+        }
 
-        if (productPage.isEmpty()) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new APIException("pageNumber must not be negative and pageSize must be positive");
+        }
+        // Pages past the last hit are empty; the offset is clamped rather than allowed to overflow
+        int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+        SearchHits hits = searchIndex.search(keyword, offset, pageSize);
+        if (hits.getTotalHits() == 0) {
             throw new APIException("No products found with keyword: " + keyword);
         }
 
-        List<ProductDTO> productDTOS = productPage.getContent().stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
+        return toProductResponse(hits, pageNumber, pageSize);
+    }
+
+    /**
+     * Reads the products of a page of hits, in the order of the hits.
+     */
+    private ProductResponse toProductResponse(SearchHits hits, int pageNumber, int pageSize) {
+        Map<Long, ProductDTO> productsById = productRepository.findProductDTOsByIds(hits.getProductIds()).stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+        List<ProductDTO> productDTOS = hits.getProductIds().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .toList();
 
+        int totalPages = (int) ((hits.getTotalHits() + pageSize - 1) / pageSize);
         return new ProductResponse(
                 productDTOS,
-                productPage.getNumber(),
-                productPage.getSize(),
-                productPage.getTotalElements(),
-                productPage.getTotalPages(),
-                productPage.isLast()
+                pageNumber,
+                pageSize,
+                hits.getTotalHits(),
+                totalPages,
+                pageNumber >= totalPages - 1
         );
     }
 
+    /**
+     * Orders every match by one of the {@link SearchSortField}s, which the
+     * search index keeps next to its postings, so the database is only asked
+     * for the products of the page. Ties are broken by product id. Pages past
+     * the first {@value AppConstants#MAX_SEARCH_HITS} results are refused, as
+     * every match up to the end of the page is held in order.
+     */
+    private ProductResponse searchProductByKeywordSorted(String keyword, Integer pageNumber, Integer pageSize,
+                                                         String sortBy, String sortOrder) {
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new APIException("pageNumber must not be negative and pageSize must be positive");
+        }
+        SearchSortField sortField = SearchSortField.of(sortBy)
+                .orElseThrow(() -> new APIException("Keyword search cannot be sorted by " + sortBy));
+        long end = ((long) pageNumber + 1) * pageSize;
+        if (end > AppConstants.MAX_SEARCH_HITS) {
+            throw new APIException("Keyword search sorted by " + sortBy + " only pages through the first "
+                    + AppConstants.MAX_SEARCH_HITS + " results");
+        }
+        SearchHits hits = searchIndex.search(keyword, sortField, sortOrder.equalsIgnoreCase("asc"),
+                pageNumber * pageSize, pageSize);
+        if (hits.getTotalHits() == 0) {
+            throw new APIException("No products found with keyword: " + keyword);
+        }
+        return toProductResponse(hits, pageNumber, pageSize);
+    }
+
+    @Transactional
     @Override
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+        long previousSpecialPrice = productFromDb.getSpecialPrice();
+        int previousDiscount = productFromDb.getDiscount();
+        long price = Money.toCents(productDTO.getPrice());
+        int discount = Money.toBasisPoints(productDTO.getDiscount());
+        long specialPrice = PriceCalculator.specialPrice(price, discount);
         productFromDb.setProductName(productDTO.getProductName());
         productFromDb.setProductDescription(productDTO.getProductDescription());
         productFromDb.setQuantity(productDTO.getQuantity());
-        productFromDb.setDiscount(productDTO.getDiscount());
-        productFromDb.setPrice(productDTO.getPrice());
-        Double specialPrice = productDTO.getPrice() - ((productDTO.getDiscount() * 0.01) * productDTO.getPrice());
+        productFromDb.setDiscount(discount);
+        productFromDb.setPrice(price);
         productFromDb.setSpecialPrice(specialPrice);
         Product savedProduct = productRepository.save(productFromDb);
-        return modelMapper.map(savedProduct, ProductDTO.class);
+        if (specialPrice != previousSpecialPrice || discount != previousDiscount) {
+            cartService.repriceProductInCarts(productId, specialPrice, discount);
+        }
+        publishProductChanged(savedProduct, false);
+        return productMapper.toDto(savedProduct);
     }
 
     @Override
@@ -158,7 +237,8 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
 
         productRepository.delete(product);
-        return modelMapper.map(product, ProductDTO.class);
+        publishProductChanged(product, true);
+        return productMapper.toDto(product);
     }
 
     @Override
@@ -166,8 +246,22 @@ public class ProductServiceImpl implements ProductService {
         Product productFromDb = productRepository.findById(productId)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
         String fileName = fileService.uploadImage(path, image);
+        ImageRenditions renditions = imageRenditionService.findRenditions(fileName);
         productFromDb.setImageUrl(fileName);
+        productFromDb.setThumbnailUrl(renditions == null ? null : renditions.thumbnailUrl());
+        productFromDb.setMediumImageUrl(renditions == null ? null : renditions.mediumImageUrl());
         Product updatedProduct = productRepository.save(productFromDb);
-        return modelMapper.map(updatedProduct, ProductDTO.class);
+        publishProductChanged(updatedProduct, false);
+        if (renditions == null) {
+            eventPublisher.publishEvent(new ProductImageUploadedEvent(updatedProduct.getProductId(),
+                    updatedProduct.getCategory() != null ? updatedProduct.getCategory().getCategoryId() : null,
+                    fileName));
+        }
+        return productMapper.toDto(updatedProduct);
+    }
+
+    private void publishProductChanged(Product product, boolean deleted) {
+        Long categoryId = product.getCategory() != null ? product.getCategory().getCategoryId() : null;
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getProductId(), categoryId, deleted));
     }
 }
\ No newline at end of file
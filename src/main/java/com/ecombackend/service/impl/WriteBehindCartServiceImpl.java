@@ -0,0 +1,801 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.cart.ActiveCart;
+import com.ecombackend.cart.CartBatch;
+import com.ecombackend.cart.CartLine;
+import com.ecombackend.cart.CartSnapshot;
+import com.ecombackend.cart.CartWriteAheadLog;
+import com.ecombackend.dto.CartDTO;
+import com.ecombackend.dto.CartItemDTO;
+import com.ecombackend.dto.CartOperationDTO;
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Cart;
+import com.ecombackend.entity.CartItem;
+import com.ecombackend.event.CartsExpiredEvent;
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.exception.APIException;
+import com.ecombackend.exception.ResourceNotFoundException;
+import com.ecombackend.mapper.CartMapper;
+import com.ecombackend.pricing.Money;
+import com.ecombackend.pricing.PriceCalculator;
+import com.ecombackend.repository.CartItemRepository;
+import com.ecombackend.repository.CartRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.projection.CartLineView;
+import com.ecombackend.repository.projection.CartProductView;
+import com.ecombackend.security.utils.AuthUtil;
+import com.ecombackend.service.CartService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cart engine that keeps active carts in memory and writes them to the
+ * database behind the requests, enabled with
+ * {@code cart.write-behind.enabled=true}.
+ * <ul>
+ *     <li>Carts are keyed by user email and guarded by a fixed set of lock
+ *     stripes, so requests for different users rarely contend and no lock is
+ *     ever held per cart.</li>
+ *     <li>A cart is loaded from the database on first use and then read and
+ *     changed in memory only.</li>
+ *     <li>Every change appends the whole cart to a {@link CartWriteAheadLog}
+ *     and is acknowledged once the log is on disk, so a crash loses nothing
+ *     that a client was told succeeded. The log is replayed into the database
+ *     at startup.</li>
+ *     <li>A background flusher writes each changed cart once per interval,
+ *     however many times it changed, in batches of one transaction each, and
+ *     then drops the log segments it has made redundant. Carts idle for
+ *     {@code idle-timeout} are evicted after they have been written.</li>
+ * </ul>
+ * Checkout writes the buyer's cart synchronously and hands it back to the
+ * database before the order is placed, holding the cart's stripe until the
+ * order transaction ends, so the order sees exactly the acknowledged cart.
+ * <p>
+ * The expiry sweeper deletes carts by their last-modified time in the
+ * database, which only catches up with a change when it is flushed. Before a
+ * change by the owner is acknowledged, the row's time is therefore moved to
+ * now if it may be older than half of {@code cart.expiry.ttl}, so no sweeper,
+ * on this node or another, can delete the cart before the change is written.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartServiceImpl implements CartService {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartServiceImpl.class);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final CartMapper cartMapper;
+    private final AuthUtil authUtil;
+    private final TransactionTemplate transactionTemplate;
+    private final CartWriteAheadLog log;
+    private final ReentrantLock[] stripes;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Map<String, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final AtomicLong productChanges = new AtomicLong();
+    private final Duration flushInterval;
+    private final long idleTimeoutMillis;
+    private final int flushBatchSize;
+    private final long expiryMarginMillis;
+    private final ScheduledExecutorService flusher;
+
+    public WriteBehindCartServiceImpl(CartRepository cartRepository,
+                                      CartItemRepository cartItemRepository,
+                                      ProductRepository productRepository,
+                                      CartMapper cartMapper,
+                                      AuthUtil authUtil,
+                                      TransactionTemplate transactionTemplate,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${cart.write-behind.wal-dir:cart-wal}") String walDir,
+                                      @Value("${cart.write-behind.stripes:256}") int stripes,
+                                      @Value("${cart.write-behind.flush-interval:500ms}") Duration flushInterval,
+                                      @Value("${cart.write-behind.idle-timeout:30m}") Duration idleTimeout,
+                                      @Value("${cart.write-behind.flush-batch-size:500}") int flushBatchSize,
+                                      @Value("${cart.expiry.ttl:30d}") Duration expiryTtl)
+            throws IOException {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.cartMapper = cartMapper;
+        this.authUtil = authUtil;
+        this.transactionTemplate = transactionTemplate;
+        this.log = new CartWriteAheadLog(Paths.get(walDir).toAbsolutePath().normalize());
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.flushInterval = flushInterval;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.flushBatchSize = flushBatchSize;
+        this.expiryMarginMillis = expiryTtl.toMillis() / 2;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cart-flush-", 1).factory());
+        Gauge.builder("cart.store.active", carts, Map::size)
+                .description("Carts held in memory by the write-behind cart store")
+                .register(meterRegistry);
+        Gauge.builder("cart.store.dirty", dirty, Set::size)
+                .description("Carts changed in memory and not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        recover();
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+        log.close();
+    }
+
+    @Override
+    public CartDTO addProductToCart(Long productId, Integer quantity) {
+        String emailId = authUtil.loggedInEmail();
+        CartProductView product = findProduct(productId);
+        return withCart(emailId, null, cart -> {
+            if (cart.getLine(productId) != null) {
+                throw new APIException("Product " + product.getProductName() + " already exists in the cart");
+            }
+            checkStock(product, quantity);
+            cart.putLine(new CartLine(productId, quantity, product.getSpecialPrice(), product.getDiscount(), product));
+            return toDto(cart);
+        });
+    }
+
+    /**
+     * Carts in memory are written out first, so the result includes every
+     * acknowledged change.
+     */
+    @Override
+    public List<CartDTO> getAllCarts() {
+        flush();
+        List<CartDTO> carts = cartMapper.rowsToDtos(cartRepository.findAllContentRows());
+
+        if (carts.isEmpty()) {
+            throw new APIException("No cart exists");
+        }
+
+        return carts;
+    }
+
+    @Override
+    public CartDTO getCart(String emailId, Long cartId) {
+        Supplier<ResourceNotFoundException> notFound = () -> new ResourceNotFoundException("Cart", "cartId", cartId);
+        return withCart(emailId, notFound, cart -> {
+            if (!cart.getCartId().equals(cartId)) {
+                throw notFound.get();
+            }
+            return toDto(cart);
+        });
+    }
+
+    @Override
+    public CartDTO getUserCart(String emailId) {
+        return withCart(emailId, () -> new ResourceNotFoundException("Cart", "email", emailId), this::toDto);
+    }
+
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        String emailId = authUtil.loggedInEmail();
+        CartProductView product = findProduct(productId);
+        return withCart(emailId, () -> new ResourceNotFoundException("Cart", "email", emailId), cart -> {
+            checkStock(product, quantity);
+            CartLine line = cart.getLine(productId);
+            if (line == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+            int newQuantity = line.quantity() + quantity;
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
+            if (newQuantity == 0) {
+                cart.removeLine(productId);
+            } else {
+                cart.putLine(line.withQuantity(newQuantity).repriced(product));
+            }
+            return toDto(cart);
+        });
+    }
+
+    @Override
+    public String deleteProductFromCart(Long cartId, Long productId) {
+        String emailId = ownerOf(cartId);
+        return withCart(emailId, () -> new ResourceNotFoundException("Cart", "cartId", cartId), cart -> {
+            CartLine line = cart.getLine(productId);
+            if (line == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            cart.removeLine(productId);
+            return "Product " + line.product().getProductName() + " removed from the cart !!!";
+        });
+    }
+
+    @Override
+    public void updateProductInCarts(Long cartId, Long productId) {
+        String emailId = ownerOf(cartId);
+        CartProductView product = findProduct(productId);
+        withCart(emailId, () -> new ResourceNotFoundException("Cart", "cartId", cartId), false, cart -> {
+            if (cart.getLine(productId) == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
+            cart.refresh(product);
+            return null;
+        });
+    }
+
+    /**
+     * Reprices the carts that are only in the database, as the database
+     * engine does. Carts in memory take the new price from
+     * {@link #onProductChanged} once the product update has committed, and
+     * write it out with their next flush.
+     */
+    @Override
+    public int repriceProductInCarts(Long productId, long specialPrice, int discount) {
+        return transactionTemplate.execute(status -> {
+            List<Long> cartIds = cartRepository.lockCartIdsContainingProduct(productId);
+            if (cartIds.isEmpty()) {
+                return 0;
+            }
+            cartItemRepository.repriceItemsOfProduct(productId, specialPrice, discount);
+            cartRepository.recomputeTotalsOfCartsContainingProduct(productId);
+            return cartIds.size();
+        });
+    }
+
+    @Override
+    public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
+        String emailId = authUtil.loggedInEmail();
+        List<Long> productIds = cartItems.stream().map(CartItemDTO::getProductId).distinct().toList();
+        Map<Long, CartProductView> products = findProducts(productIds);
+
+        Map<Long, CartLine> lines = new LinkedHashMap<>();
+        for (CartItemDTO cartItemDTO : cartItems) {
+            Long productId = cartItemDTO.getProductId();
+            CartProductView product = products.get(productId);
+            if (product == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            lines.merge(productId,
+                    new CartLine(productId, cartItemDTO.getQuantity(), product.getSpecialPrice(), product.getDiscount(), product),
+                    (existing, added) -> existing.withQuantity(existing.quantity() + added.quantity()));
+        }
+        withCart(emailId, null, cart -> {
+            cart.replaceLines(lines.values());
+            return null;
+        });
+        return "Cart created/updated with the new items successfully";
+    }
+
+    /**
+     * Products are resolved with one query before the cart's stripe is
+     * taken; the cart is changed in memory and logged once for the batch.
+     */
+    @Override
+    public CartDTO applyCartOperations(List<CartOperationDTO> operations) {
+        String emailId = authUtil.loggedInEmail();
+        Map<Long, CartProductView> products = findProducts(CartBatch.productIds(operations));
+        return withCart(emailId, null, cart -> {
+            Map<Long, Integer> quantities = new HashMap<>();
+            for (CartLine line : cart.getLines()) {
+                quantities.put(line.productId(), line.quantity());
+            }
+            Map<Long, Integer> changes = CartBatch.apply(quantities, operations, products,
+                    CartProductView::getProductName, CartProductView::getQuantity);
+            changes.forEach((productId, quantity) -> {
+                if (quantity == 0) {
+                    cart.removeLine(productId);
+                    return;
+                }
+                CartProductView product = products.get(productId);
+                CartLine line = cart.getLine(productId);
+                cart.putLine(line == null
+                        ? new CartLine(productId, quantity, product.getSpecialPrice(), product.getDiscount(), product)
+                        : line.withQuantity(quantity).repriced(product));
+            });
+            return toDto(cart);
+        });
+    }
+
+    /**
+     * Writes the buyer's cart if it has unwritten changes, takes it out of
+     * memory and logs that the database now holds it, then places the order
+     * while still holding the cart's stripe. Requests for the same cart wait
+     * until the order has committed or failed, and then load the cart again
+     * from the database.
+     */
+    @Override
+    public <T> T checkout(String emailId, Supplier<T> placeOrder) {
+        ReentrantLock lock = stripe(emailId);
+        lock.lock();
+        try {
+            ActiveCart cart = carts.get(emailId);
+            if (cart != null) {
+                flushLock.lock();
+                try {
+                    if (dirty.remove(emailId)) {
+                        try {
+                            write(List.of(cart.snapshot()), false);
+                        } catch (RuntimeException e) {
+                            dirty.add(emailId);
+                            throw e;
+                        }
+                    }
+                    carts.remove(emailId);
+                    log.sync(log.append(CartSnapshot.released(cart.getCartId())));
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+            return placeOrder.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        refreshProducts(List.of(event.getProductId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.isDeleted() && event.getRemovedProductIds() != null && !event.getRemovedProductIds().isEmpty()) {
+            refreshProducts(event.getRemovedProductIds());
+        }
+    }
+
+    /**
+     * Drops carts the expiry sweeper deleted from memory, so they are not
+     * served any longer. Carts are only written when they change, so a cart
+     * can sit in memory, being read, after its last change has expired. Such
+     * a cart holds no change by its owner that is not yet written, as
+     * {@link #withCart} keeps those carts from expiring.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCartsExpired(CartsExpiredEvent event) {
+        Set<Long> cartIds = new HashSet<>(event.getCartIds());
+        for (ActiveCart cart : carts.values()) {
+            if (!cartIds.contains(cart.getCartId())) {
+                continue;
+            }
+            ReentrantLock lock = stripe(cart.getEmail());
+            lock.lock();
+            try {
+                if (carts.remove(cart.getEmail(), cart)) {
+                    dirty.remove(cart.getEmail());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes out every changed cart, then drops the log segments that only
+     * hold changes now in the database and evicts idle carts. A cart whose
+     * stripe is busy is left for the next flush; so are the log segments,
+     * since they may still hold its changes.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            long segment = log.roll();
+            boolean complete = true;
+            List<CartSnapshot> snapshots = new ArrayList<>();
+            List<String> emails = new ArrayList<>();
+            for (String emailId : new ArrayList<>(dirty)) {
+                ReentrantLock lock = stripe(emailId);
+                if (!lock.tryLock()) {
+                    complete = false;
+                    continue;
+                }
+                try {
+                    ActiveCart cart = carts.get(emailId);
+                    if (cart != null && dirty.remove(emailId)) {
+                        snapshots.add(cart.snapshot());
+                        emails.add(emailId);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            for (int from = 0; from < snapshots.size(); from += flushBatchSize) {
+                int to = Math.min(from + flushBatchSize, snapshots.size());
+                try {
+                    write(snapshots.subList(from, to), false);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not write {} carts, will retry", to - from, e);
+                    dirty.addAll(emails.subList(from, to));
+                    complete = false;
+                }
+            }
+            if (complete) {
+                log.deleteSegmentsBefore(segment);
+                evictIdle();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not roll the cart log", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            logger.warn("Cart flush failed", e);
+        }
+    }
+
+    private <T> T withCart(String emailId, Supplier<ResourceNotFoundException> notFound,
+                           Function<ActiveCart, T> action) {
+        return withCart(emailId, notFound, true, action);
+    }
+
+    /**
+     * Runs {@code action} on the user's cart under its stripe, loading the
+     * cart first if it is not in memory. A missing cart is created when
+     * {@code notFound} is {@code null}. If the action changed the cart, the
+     * new cart is logged, and the call returns once the log is on disk; the
+     * change moves the cart's last-modified time only if {@code byOwner}. If
+     * the cart turns out to have expired meanwhile, it is dropped and the
+     * call runs again on the cart as it is in the database now.
+     */
+    private <T> T withCart(String emailId, Supplier<ResourceNotFoundException> notFound, boolean byOwner,
+                           Function<ActiveCart, T> action) {
+        ReentrantLock lock = stripe(emailId);
+        long position = 0;
+        boolean expired = false;
+        T result;
+        lock.lock();
+        try {
+            ActiveCart cart = carts.get(emailId);
+            if (cart == null) {
+                cart = load(emailId, notFound);
+            }
+            long now = System.currentTimeMillis();
+            cart.touch(now);
+            long version = cart.getVersion();
+            result = action.apply(cart);
+            if (cart.getVersion() != version) {
+                if (byOwner && !holdOffExpiry(cart, now)) {
+                    carts.remove(emailId, cart);
+                    dirty.remove(emailId);
+                    expired = true;
+                } else {
+                    if (byOwner) {
+                        cart.modifiedByOwner(now);
+                    }
+                    dirty.add(emailId);
+                    position = log.append(cart.snapshot());
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (expired) {
+            return withCart(emailId, notFound, byOwner, action);
+        }
+        if (position > 0) {
+            log.sync(position);
+        }
+        return result;
+    }
+
+    /**
+     * Moves the cart's last-modified time in the database to {@code now},
+     * unless it is known to be recent enough that the sweeper will not take
+     * the cart before its next flush. Returns {@code false} if the cart has
+     * been deleted, by this node's sweeper or another's.
+     */
+    private boolean holdOffExpiry(ActiveCart cart, long now) {
+        if (now - cart.getStoredLastModified() < expiryMarginMillis) {
+            return true;
+        }
+        Integer updated = transactionTemplate.execute(status ->
+                cartRepository.touchLastModified(cart.getCartId(), Instant.ofEpochMilli(now)));
+        if (updated == null || updated == 0) {
+            return false;
+        }
+        cart.lastModifiedStored(now);
+        return true;
+    }
+
+    /**
+     * Loads a cart into memory. A product change that commits while the cart
+     * is being read may miss it in {@link #refreshProducts}, so if any
+     * happened, the cart's products are read again once it is in memory.
+     * <p>
+     * The stripes only serialize this node. If another node creates the
+     * buyer's cart first, the one created here breaks the one-cart-per-user
+     * constraint, and the cart is read again.
+     */
+    private ActiveCart load(String emailId, Supplier<ResourceNotFoundException> notFound) {
+        long changesBefore = productChanges.get();
+        ActiveCart cart;
+        try {
+            cart = transactionTemplate.execute(status -> read(emailId, notFound));
+        } catch (DataIntegrityViolationException e) {
+            cart = transactionTemplate.execute(status -> read(emailId, notFound));
+        }
+        if (cart == null) {
+            throw notFound.get();
+        }
+        carts.put(emailId, cart);
+        if (productChanges.get() != changesBefore) {
+            reloadProducts(cart);
+        }
+        return cart;
+    }
+
+    private ActiveCart read(String emailId, Supplier<ResourceNotFoundException> notFound) {
+        Cart stored = cartRepository.findCartByEmail(emailId);
+        if (stored == null) {
+            if (notFound != null) {
+                return null;
+            }
+            stored = new Cart();
+            stored.setUser(authUtil.loggedInUserReference());
+            stored = cartRepository.save(stored);
+        }
+        List<CartLineView> lineViews = cartItemRepository.findLineViewsByCartId(stored.getCartId());
+        Map<Long, CartProductView> products = findProducts(lineViews.stream().map(CartLineView::getProductId).toList());
+        List<CartLine> lines = new ArrayList<>(lineViews.size());
+        for (CartLineView line : lineViews) {
+            CartProductView product = products.get(line.getProductId());
+            if (product != null) {
+                lines.add(new CartLine(line.getProductId(), line.getQuantity(), line.getProductPrice(),
+                        line.getDiscount(), product));
+            }
+        }
+        return new ActiveCart(emailId, stored.getCartId(), lines, stored.getLastModified().toEpochMilli(),
+                System.currentTimeMillis());
+    }
+
+    private void reloadProducts(ActiveCart cart) {
+        List<Long> productIds = cart.getLines().stream().map(CartLine::productId).toList();
+        Map<Long, CartProductView> products = findProducts(productIds);
+        for (Long productId : productIds) {
+            CartProductView product = products.get(productId);
+            if (product == null) {
+                cart.removeLine(productId);
+            } else {
+                cart.refresh(product);
+            }
+        }
+    }
+
+    /**
+     * Brings the given products up to date in every cart in memory that holds
+     * them, dropping the lines of products that no longer exist. Looks at
+     * every cart in memory, which is cheap next to a catalog write.
+     */
+    private void refreshProducts(Collection<Long> productIds) {
+        productChanges.incrementAndGet();
+        List<String> holders = carts.values().stream()
+                .filter(cart -> productIds.stream().anyMatch(productId -> cart.getLine(productId) != null))
+                .map(ActiveCart::getEmail)
+                .toList();
+        if (holders.isEmpty()) {
+            return;
+        }
+        Map<Long, CartProductView> products = findProducts(productIds);
+        long position = 0;
+        for (String emailId : holders) {
+            ReentrantLock lock = stripe(emailId);
+            lock.lock();
+            try {
+                ActiveCart cart = carts.get(emailId);
+                if (cart == null) {
+                    continue;
+                }
+                long version = cart.getVersion();
+                for (Long productId : productIds) {
+                    CartProductView product = products.get(productId);
+                    if (product == null) {
+                        cart.removeLine(productId);
+                    } else {
+                        cart.refresh(product);
+                    }
+                }
+                if (cart.getVersion() != version) {
+                    dirty.add(emailId);
+                    position = log.append(cart.snapshot());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (position > 0) {
+            log.sync(position);
+        }
+    }
+
+    /**
+     * Writes the carts in one transaction. Lines of products deleted since
+     * they were logged are left out, as the database has already removed
+     * them; when replaying the log, lines are also charged at the current
+     * price, as repricing only reached the database. Each cart keeps the time
+     * its owner last changed it, so neither repricing nor replaying the log
+     * keeps an abandoned cart from expiring. Carts are written in id order,
+     * the order in which repricing locks them.
+     */
+    private void write(List<CartSnapshot> snapshots, boolean reprice) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, CartProductView> products = findProducts(snapshots.stream()
+                    .flatMap(snapshot -> snapshot.lines().stream())
+                    .map(CartLine::productId)
+                    .collect(Collectors.toSet()));
+            List<CartItem> items = new ArrayList<>();
+            List<CartSnapshot> ordered = snapshots.stream()
+                    .sorted(Comparator.comparing(CartSnapshot::cartId))
+                    .toList();
+            for (CartSnapshot snapshot : ordered) {
+                List<CartLine> lines = new ArrayList<>(snapshot.lines().size());
+                long totalAmount = 0;
+                for (CartLine line : snapshot.lines()) {
+                    CartProductView product = products.get(line.productId());
+                    if (product == null) {
+                        continue;
+                    }
+                    CartLine written = reprice ? line.repriced(product) : line;
+                    lines.add(written);
+                    totalAmount = PriceCalculator.addLine(totalAmount, written.productPrice(), written.quantity());
+                }
+                if (cartRepository.updateTotalAmount(snapshot.cartId(), totalAmount,
+                        Instant.ofEpochMilli(snapshot.lastModified())) == 0) {
+                    continue;
+                }
+                cartItemRepository.deleteAllByCartId(snapshot.cartId());
+                Cart cart = cartRepository.getReferenceById(snapshot.cartId());
+                for (CartLine line : lines) {
+                    CartItem item = new CartItem();
+                    item.setCart(cart);
+                    item.setProduct(productRepository.getReferenceById(line.productId()));
+                    item.setQuantity(line.quantity());
+                    item.setProductPrice(line.productPrice());
+                    item.setDiscount(line.discount());
+                    items.add(item);
+                }
+            }
+            // Inserted as JDBC batches, after all the deletes
+            cartItemRepository.saveAll(items);
+        });
+    }
+
+    /**
+     * Replays the log left by the last run into the database: the latest
+     * record of each cart, unless the database took the cart over after it.
+     */
+    private void recover() throws IOException {
+        Map<Long, CartSnapshot> latest = new LinkedHashMap<>();
+        for (CartSnapshot snapshot : log.readAll()) {
+            if (snapshot.isReleased()) {
+                latest.remove(snapshot.cartId());
+            } else {
+                latest.put(snapshot.cartId(), snapshot);
+            }
+        }
+        List<CartSnapshot> snapshots = new ArrayList<>(latest.values());
+        for (int from = 0; from < snapshots.size(); from += flushBatchSize) {
+            write(snapshots.subList(from, Math.min(from + flushBatchSize, snapshots.size())), true);
+        }
+        if (!snapshots.isEmpty()) {
+            logger.info("Recovered {} carts from the cart log", snapshots.size());
+        }
+        log.deleteSegmentsBefore(log.roll());
+    }
+
+    /**
+     * Only called after a complete flush, so an idle cart that is not dirty
+     * has nothing left in the log.
+     */
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        for (ActiveCart cart : carts.values()) {
+            if (cart.getLastAccess() >= idleSince || dirty.contains(cart.getEmail())) {
+                continue;
+            }
+            ReentrantLock lock = stripe(cart.getEmail());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (cart.getLastAccess() < idleSince && !dirty.contains(cart.getEmail())) {
+                    carts.remove(cart.getEmail(), cart);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private ReentrantLock stripe(String emailId) {
+        return stripes[Math.floorMod(emailId.hashCode(), stripes.length)];
+    }
+
+    private String ownerOf(Long cartId) {
+        String emailId = cartRepository.findOwnerEmail(cartId);
+        if (emailId == null) {
+            throw new ResourceNotFoundException("Cart", "cartId", cartId);
+        }
+        return emailId;
+    }
+
+    private CartProductView findProduct(Long productId) {
+        CartProductView product = findProducts(List.of(productId)).get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "productId", productId);
+        }
+        return product;
+    }
+
+    private Map<Long, CartProductView> findProducts(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepository.findCartProductViewsByProductIdIn(productIds).stream()
+                .collect(Collectors.toMap(CartProductView::getProductId, Function.identity()));
+    }
+
+    private static void checkStock(CartProductView product, int quantity) {
+        if (product.getQuantity() == 0) {
+            throw new APIException(product.getProductName() + " is not available");
+        }
+        if (product.getQuantity() < quantity) {
+            throw new APIException("Please, make an order of the " + product.getProductName()
+                    + " less than or equal to the quantity " + product.getQuantity() + ".");
+        }
+    }
+
+    private CartDTO toDto(ActiveCart cart) {
+        List<ProductDTO> products = new ArrayList<>(cart.getLines().size());
+        for (CartLine line : cart.getLines()) {
+            CartProductView product = line.product();
+            products.add(new ProductDTO(product.getProductId(), product.getProductName(), product.getImageUrl(),
+                    product.getThumbnailUrl(), product.getMediumImageUrl(), product.getProductDescription(), line.quantity(),
+                    product.getPrice(), product.getDiscount(), product.getSpecialPrice()));
+        }
+        return new CartDTO(cart.getCartId(), Money.toAmount(cart.getTotalAmount()), products);
+    }
+}
@@ -0,0 +1,12 @@
+-- Shared version of the public catalog. Every node bumps it after a catalog
+-- write and polls it every catalog.version.refresh, so the ETag and
+-- Last-Modified of /api/public/** agree across nodes. Running this again is
+-- harmless.
+CREATE TABLE IF NOT EXISTS catalog_revision (
+    revision_id   INTEGER PRIMARY KEY,
+    version       BIGINT NOT NULL,
+    last_modified TIMESTAMP WITH TIME ZONE NOT NULL
+);
+INSERT INTO catalog_revision (revision_id, version, last_modified)
+VALUES (1, 0, date_trunc('second', CURRENT_TIMESTAMP))
+ON CONFLICT (revision_id) DO NOTHING;
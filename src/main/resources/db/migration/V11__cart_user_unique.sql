@@ -0,0 +1,21 @@
+-- One cart per user. Two first changes racing for a buyer without a cart
+-- could each insert one; with the constraint the second insert fails and
+-- the change is retried against the cart the first one created.
+--
+-- A buyer with several carts keeps the oldest. The others could not be read
+-- back by the application and are deleted with their lines. Running this
+-- again is harmless.
+DELETE FROM cart_items ci
+USING cart c
+WHERE ci.cart_id = c.cart_id
+  AND EXISTS (SELECT 1 FROM cart older WHERE older.user_id = c.user_id AND older.cart_id < c.cart_id);
+
+DELETE FROM cart c
+WHERE EXISTS (SELECT 1 FROM cart older WHERE older.user_id = c.user_id AND older.cart_id < c.cart_id);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_cart_user') THEN
+        ALTER TABLE cart ADD CONSTRAINT uk_cart_user UNIQUE (user_id);
+    END IF;
+END $$;
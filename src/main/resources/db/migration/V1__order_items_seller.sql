@@ -0,0 +1,11 @@
+-- Seller id on order lines, copied from the product at order time, so that
+-- a seller's orders are found through an index instead of by scanning orders.
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS seller_id BIGINT REFERENCES users (user_id);
+
+UPDATE order_items oi
+SET seller_id = p.seller_id
+FROM products p
+WHERE p.product_id = oi.product_id
+  AND oi.seller_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_order_items_seller_order ON order_items (seller_id, order_id);
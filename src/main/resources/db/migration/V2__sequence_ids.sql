@@ -0,0 +1,30 @@
+-- Ids now come from pooled sequences (allocationSize = 50) instead of
+-- identity columns, so Hibernate can batch inserts. Each sequence is moved
+-- past the current maximum id plus one allocation block. Run this before
+-- starting the new version; running it again is harmless.
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS addresses_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payments_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS orders_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq INCREMENT BY 50;
+
+SELECT setval('users_seq', COALESCE((SELECT MAX(user_id) FROM users), 0) + 50);
+SELECT setval('addresses_seq', COALESCE((SELECT MAX(address_id) FROM addresses), 0) + 50);
+SELECT setval('products_seq', COALESCE((SELECT MAX(product_id) FROM products), 0) + 50);
+SELECT setval('cart_seq', COALESCE((SELECT MAX(cart_id) FROM cart), 0) + 50);
+SELECT setval('cart_items_seq', COALESCE((SELECT MAX(cart_item_id) FROM cart_items), 0) + 50);
+SELECT setval('payments_seq', COALESCE((SELECT MAX(payment_id) FROM payments), 0) + 50);
+SELECT setval('orders_seq', COALESCE((SELECT MAX(order_id) FROM orders), 0) + 50);
+SELECT setval('order_items_seq', COALESCE((SELECT MAX(order_item_id) FROM order_items), 0) + 50);
+
+ALTER TABLE users ALTER COLUMN user_id DROP IDENTITY IF EXISTS;
+ALTER TABLE addresses ALTER COLUMN address_id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN product_id DROP IDENTITY IF EXISTS;
+ALTER TABLE cart ALTER COLUMN cart_id DROP IDENTITY IF EXISTS;
+ALTER TABLE cart_items ALTER COLUMN cart_item_id DROP IDENTITY IF EXISTS;
+ALTER TABLE payments ALTER COLUMN payment_id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN order_id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN order_item_id DROP IDENTITY IF EXISTS;
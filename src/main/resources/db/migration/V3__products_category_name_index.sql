@@ -0,0 +1,3 @@
+-- Duplicate-name checks on product creation and bulk import look products up
+-- by category and name.
+CREATE INDEX IF NOT EXISTS idx_products_category_name ON products (category_id, product_name);
@@ -0,0 +1,4 @@
+-- Derived sizes of the product image, filled in by the background rendition
+-- workers. NULL until they have been generated; clients fall back to image_url.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS thumbnail_url VARCHAR(255);
+ALTER TABLE products ADD COLUMN IF NOT EXISTS medium_image_url VARCHAR(255);
@@ -0,0 +1,4 @@
+-- Bulk cart repricing finds the cart lines of a product, and recomputes cart
+-- totals from the lines of each cart.
+CREATE INDEX IF NOT EXISTS idx_cart_items_cart ON cart_items (cart_id);
+CREATE INDEX IF NOT EXISTS idx_cart_items_product ON cart_items (product_id);
@@ -0,0 +1,64 @@
+-- Money moves from double precision to whole cents and discounts to basis
+-- points (hundredths of a percent). The new columns are filled from the old
+-- ones, rounded half up, and the old columns are dropped; missing old values
+-- become 0. Run this before starting the new version; running it again is
+-- harmless, as each conversion only runs while its old columns still exist.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS price_cents BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS discount_bp INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS special_price_cents BIGINT NOT NULL DEFAULT 0;
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'products' AND column_name = 'price') THEN
+        UPDATE products
+        SET price_cents = COALESCE(ROUND(price::numeric * 100), 0),
+            discount_bp = COALESCE(ROUND(discount::numeric * 100), 0),
+            special_price_cents = COALESCE(ROUND(special_price::numeric * 100), 0);
+    END IF;
+END $$;
+ALTER TABLE products DROP COLUMN IF EXISTS price, DROP COLUMN IF EXISTS discount, DROP COLUMN IF EXISTS special_price;
+
+ALTER TABLE cart_items ADD COLUMN IF NOT EXISTS product_price_cents BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cart_items ADD COLUMN IF NOT EXISTS discount_bp INTEGER NOT NULL DEFAULT 0;
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'cart_items' AND column_name = 'product_price') THEN
+        UPDATE cart_items
+        SET product_price_cents = COALESCE(ROUND(product_price::numeric * 100), 0),
+            discount_bp = COALESCE(ROUND(discount::numeric * 100), 0);
+    END IF;
+END $$;
+ALTER TABLE cart_items DROP COLUMN IF EXISTS product_price, DROP COLUMN IF EXISTS discount;
+
+-- Cart totals are recomputed from the lines rather than converted, which
+-- also clears any drift the old floating-point updates left behind.
+ALTER TABLE cart ADD COLUMN IF NOT EXISTS total_amount_cents BIGINT NOT NULL DEFAULT 0;
+UPDATE cart c
+SET total_amount_cents = COALESCE((SELECT SUM(ci.product_price_cents * ci.quantity)
+                                   FROM cart_items ci WHERE ci.cart_id = c.cart_id), 0);
+ALTER TABLE cart DROP COLUMN IF EXISTS total_amount;
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS total_amount_cents BIGINT NOT NULL DEFAULT 0;
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'orders' AND column_name = 'total_amount') THEN
+        UPDATE orders SET total_amount_cents = COALESCE(ROUND(total_amount::numeric * 100), 0);
+    END IF;
+END $$;
+ALTER TABLE orders DROP COLUMN IF EXISTS total_amount;
+
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS ordered_product_price_cents BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS discount_bp INTEGER NOT NULL DEFAULT 0;
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'order_items'
+                 AND column_name = 'ordered_product_price') THEN
+        UPDATE order_items
+        SET ordered_product_price_cents = COALESCE(ROUND(ordered_product_price::numeric * 100), 0),
+            discount_bp = COALESCE(ROUND(discount::numeric * 100), 0);
+    END IF;
+END $$;
+ALTER TABLE order_items DROP COLUMN IF EXISTS ordered_product_price, DROP COLUMN IF EXISTS discount;
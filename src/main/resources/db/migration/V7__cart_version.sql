@@ -0,0 +1,4 @@
+-- Optimistic locking for carts: every change to a cart, its lines or its
+-- total increments the version, and a change made from an outdated version
+-- is rejected and retried.
+ALTER TABLE cart ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
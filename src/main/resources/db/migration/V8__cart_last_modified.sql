@@ -0,0 +1,5 @@
+-- When a cart was last changed by its owner. Carts left untouched for longer
+-- than cart.expiry.ttl are deleted by the expiry sweeper, which finds them
+-- through the index. Existing carts start their TTL now.
+ALTER TABLE cart ADD COLUMN IF NOT EXISTS last_modified TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP;
+CREATE INDEX IF NOT EXISTS idx_cart_last_modified ON cart (last_modified);
@@ -0,0 +1,18 @@
+-- Progress of bulk product imports, written by the import worker after every
+-- chunk so the status endpoint answers on every node. Rows older than
+-- catalog.import.job-retention are deleted when the next import starts.
+CREATE TABLE IF NOT EXISTS product_imports (
+    job_id           VARCHAR(36) PRIMARY KEY,
+    category_id      BIGINT,
+    format           VARCHAR(255),
+    status           VARCHAR(255),
+    rows_read        BIGINT,
+    rows_imported    BIGINT,
+    rows_failed      BIGINT,
+    errors           JSONB,
+    errors_not_shown BIGINT,
+    created_at       TIMESTAMP WITH TIME ZONE,
+    finished_at      TIMESTAMP WITH TIME ZONE,
+    message          VARCHAR(1000)
+);
+CREATE INDEX IF NOT EXISTS idx_product_imports_created_at ON product_imports (created_at);
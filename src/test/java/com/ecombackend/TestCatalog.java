@@ -0,0 +1,37 @@
+package com.ecombackend;
+
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Unsaved products for the tests that seed a catalog. Each product starts in
+ * stock at one price with no discount; {@code customizer} receives it with its
+ * index and sets whatever the test depends on.
+ */
+public final class TestCatalog {
+    private TestCatalog() {
+    }
+
+    public static List<Product> products(Category category, User seller, int count,
+                                         BiConsumer<Product, Integer> customizer) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setProductName(category.getCategoryName() + " product " + i);
+            product.setProductDescription("Product " + i + " of " + category.getCategoryName());
+            product.setQuantity(100);
+            product.setPrice(1_000);
+            product.setSpecialPrice(1_000);
+            product.setCategory(category);
+            product.setUser(seller);
+            customizer.accept(product, i);
+            products.add(product);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,66 @@
+package com.ecombackend.cache;
+
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.event.StockReservedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CatalogResponseCacheTest {
+    private static final String PRODUCTS = "/api/public/products";
+    private static final String CATEGORY_1 = "/api/public/categories/1/products";
+    private static final String CATEGORY_2 = "/api/public/categories/2/products";
+    private static final String CATEGORIES = "/api/public/categories";
+
+    private final CatalogResponseCache cache = new CatalogResponseCache(1 << 20, 1024, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+
+    @Test
+    void placedOrderEvictsOnlyTheCategoriesItTouched() {
+        List.of(PRODUCTS, CATEGORY_1, CATEGORY_2, CATEGORIES).forEach(this::render);
+
+        cache.onStockReserved(new StockReservedEvent(Set.of(1L), List.of(10L)));
+
+        assertNull(cache.get(PRODUCTS, PRODUCTS));
+        assertNull(cache.get(CATEGORY_1, CATEGORY_1));
+        assertNotNull(cache.get(CATEGORY_2, CATEGORY_2));
+        assertNotNull(cache.get(CATEGORIES, CATEGORIES));
+    }
+
+    @Test
+    void renamedCategoryKeepsTheProductListings() {
+        List.of(PRODUCTS, CATEGORY_1, CATEGORY_2, CATEGORIES).forEach(this::render);
+
+        cache.onCategoryChanged(new CategoryChangedEvent(1L, false, List.of()));
+
+        assertNotNull(cache.get(PRODUCTS, PRODUCTS));
+        assertNull(cache.get(CATEGORY_1, CATEGORY_1));
+        assertNotNull(cache.get(CATEGORY_2, CATEGORY_2));
+        assertNull(cache.get(CATEGORIES, CATEGORIES));
+    }
+
+    @Test
+    void bodyRenderedAcrossAnEvictionIsNotCached() {
+        long generation = cache.generation();
+        cache.onStockReserved(new StockReservedEvent(Set.of(2L), List.of(20L)));
+
+        cache.put(CATEGORY_1, CATEGORY_1, "application/json", body(), generation);
+
+        assertNull(cache.get(CATEGORY_1, CATEGORY_1));
+    }
+
+    private void render(String path) {
+        cache.put(path, path, "application/json", body(), cache.generation());
+    }
+
+    private static byte[] body() {
+        return "{\"contents\":[]}".getBytes(StandardCharsets.UTF_8);
+    }
+}
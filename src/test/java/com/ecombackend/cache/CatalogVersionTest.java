@@ -0,0 +1,101 @@
+package com.ecombackend.cache;
+
+import com.ecombackend.entity.CatalogRevision;
+import com.ecombackend.entity.Category;
+import com.ecombackend.event.CategoryChangedEvent;
+import com.ecombackend.repository.CatalogRevisionRepository;
+import com.ecombackend.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A catalog write made on another node raises no event here; it is seen
+ * through the shared catalog version, which changes the ETag and empties the
+ * caches that still hold the old catalog.
+ */
+@SpringBootTest(properties = "catalog.version.refresh=100ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogVersionTest {
+    private static final String CATEGORIES = "/api/public/categories?PageSize=1000";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private CatalogRevisionRepository catalogRevisionRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void writeOnAnotherNodeChangesTheETagAndTheCachedBody() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "Written here", null));
+        MockHttpServletResponse first = fetch(null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertTrue(first.getContentAsString().contains("Written here"));
+
+        category.setCategoryName("Written elsewhere");
+        categoryRepository.save(category);
+        assertEquals(304, fetch(etag).getStatus(), "no event, so the old version is still current");
+
+        CatalogRevision revision = catalogRevisionRepository.findById(CatalogRevision.ID).orElseThrow();
+        revision.setVersion(revision.getVersion() + 1);
+        revision.setLastModified(Instant.now());
+        catalogRevisionRepository.save(revision);
+
+        MockHttpServletResponse changed = awaitChanged(etag);
+        assertEquals(200, changed.getStatus());
+        assertEquals("\"" + revision.getVersion() + "\"", changed.getHeader(HttpHeaders.ETAG));
+        assertTrue(changed.getContentAsString().contains("Written elsewhere"));
+    }
+
+    @Test
+    void changesWithinOneSecondShareALastModifiedThatIsNotInTheFuture() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "Changed often", null));
+        String etag = fetch(null).getHeader(HttpHeaders.ETAG);
+
+        for (int i = 0; i < 20; i++) {
+            eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId(), false, List.of()));
+        }
+        MockHttpServletResponse changed = fetch(etag);
+
+        assertEquals(200, changed.getStatus(), "the ETag tells the changes apart");
+        long lastModified = changed.getDateHeader(HttpHeaders.LAST_MODIFIED);
+        assertTrue(lastModified <= System.currentTimeMillis(),
+                "Last-Modified " + Instant.ofEpochMilli(lastModified) + " is in the future");
+    }
+
+    private MockHttpServletResponse awaitChanged(String etag) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        MockHttpServletResponse response = fetch(etag);
+        while (response.getStatus() == 304 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            response = fetch(etag);
+        }
+        return response;
+    }
+
+    private MockHttpServletResponse fetch(String etag) throws Exception {
+        var request = get(CATEGORIES).with(user("shopper"));
+        if (etag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,263 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.TestCatalog;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Hammers one buyer's cart from many threads at once: first every thread
+ * adds each product, as double-clicks and parallel tabs would, then every
+ * thread sends quantity increments spread over the products. Every increment
+ * must be acknowledged, each product must be in the cart exactly once with
+ * the quantity that was acknowledged, and the cart total must be the sum of
+ * its lines.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CartConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int INCREMENTS_PER_THREAD = 25;
+    private static final int PRODUCTS = 6;
+    private static final int UPDATES_PER_THREAD = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void cartTotalIsTheSumOfItsLinesAfterConcurrentEdits() throws Exception {
+        User buyer = userRepository.findByUserName("user1").orElseThrow();
+        UserDetailsImpl principal = UserDetailsImpl.build(buyer);
+        List<Long> productIds = seedProducts(userRepository.findByUserName("seller1").orElseThrow());
+
+        // The cart itself is created by a single request; the test is about changes to one cart
+        Map<Long, AtomicInteger> added = new ConcurrentHashMap<>();
+        Map<Long, AtomicInteger> increments = new ConcurrentHashMap<>();
+        assertTrue(send(post("/api/carts/products/" + productIds.get(0) + "/quantity/1").with(user(principal))));
+        added.put(productIds.get(0), new AtomicInteger(1));
+
+        hammer(thread -> {
+            for (int i = 0; i < PRODUCTS; i++) {
+                long productId = productIds.get((thread + i) % PRODUCTS);
+                if (send(post("/api/carts/products/" + productId + "/quantity/1").with(user(principal)))) {
+                    added.computeIfAbsent(productId, key -> new AtomicInteger()).incrementAndGet();
+                }
+            }
+        });
+        hammer(thread -> {
+            for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                long productId = productIds.get((thread + i) % PRODUCTS);
+                if (send(put("/api/cart/products/" + productId + "/quantity/add").with(user(principal)))) {
+                    increments.computeIfAbsent(productId, key -> new AtomicInteger()).incrementAndGet();
+                }
+            }
+        });
+
+        // Writes out any cart changes still held in memory before the database is read
+        send(get("/api/carts").with(user(principal)));
+
+        List<Long> cartIds = jdbcTemplate.queryForList(
+                "SELECT cart_id FROM cart WHERE user_id = ?", Long.class, buyer.getUserId());
+        assertEquals(1, cartIds.size(), "carts of the buyer");
+        long cartId = cartIds.get(0);
+        long total = jdbcTemplate.queryForObject(
+                "SELECT total_amount_cents FROM cart WHERE cart_id = ?", Long.class, cartId);
+        long linesTotal = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(product_price_cents * quantity), 0) FROM cart_items WHERE cart_id = ?",
+                Long.class, cartId);
+        assertEquals(linesTotal, total, "cart total against the sum of its lines");
+
+        int acknowledgedIncrements = 0;
+        for (long productId : productIds) {
+            assertEquals(1, added.getOrDefault(productId, new AtomicInteger()).get(),
+                    "successful adds of product " + productId);
+            List<Integer> quantities = jdbcTemplate.queryForList(
+                    "SELECT quantity FROM cart_items WHERE cart_id = ? AND product_id = ?",
+                    Integer.class, cartId, productId);
+            int productIncrements = increments.getOrDefault(productId, new AtomicInteger()).get();
+            assertEquals(List.of(1 + productIncrements), quantities, "cart lines of product " + productId);
+            acknowledgedIncrements += productIncrements;
+        }
+        assertEquals(THREADS * INCREMENTS_PER_THREAD, acknowledgedIncrements, "acknowledged increments");
+    }
+
+    /**
+     * A buyer without a cart sends their first adds from every thread at
+     * once. Only one cart may be created; the adds that raced its creation
+     * are retried against it.
+     */
+    @Test
+    void concurrentFirstAddsShareOneCart() throws Exception {
+        User buyer = userRepository.save(new User("first-add", "first-add@example.com", "secret"));
+        UserDetailsImpl principal = UserDetailsImpl.build(buyer);
+        List<Long> productIds = seedProducts(userRepository.findByUserName("seller1").orElseThrow());
+
+        Map<Long, AtomicInteger> added = new ConcurrentHashMap<>();
+        AtomicInteger serverErrors = new AtomicInteger();
+        hammer(thread -> {
+            long productId = productIds.get(thread % PRODUCTS);
+            int status = mockMvc.perform(post("/api/carts/products/" + productId + "/quantity/1")
+                    .with(user(principal))).andReturn().getResponse().getStatus();
+            if (status < 400) {
+                added.computeIfAbsent(productId, key -> new AtomicInteger()).incrementAndGet();
+            } else if (status >= 500) {
+                serverErrors.incrementAndGet();
+            }
+        });
+
+        send(get("/api/carts").with(user(principal)));
+
+        assertEquals(0, serverErrors.get(), "adds that failed with a server error");
+        List<Long> cartIds = jdbcTemplate.queryForList(
+                "SELECT cart_id FROM cart WHERE user_id = ?", Long.class, buyer.getUserId());
+        assertEquals(1, cartIds.size(), "carts of the buyer");
+        for (long productId : productIds) {
+            assertEquals(1, added.getOrDefault(productId, new AtomicInteger()).get(),
+                    "successful adds of product " + productId);
+        }
+        assertEquals(PRODUCTS, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items WHERE cart_id = ?", Integer.class, cartIds.get(0)), "cart lines");
+    }
+
+    /**
+     * Half the threads replace their buyer's whole cart while the other half
+     * change the price of the products in it. Both lock the cart before its
+     * lines, so no product update may fail, and every line must end up at
+     * its product's current price.
+     */
+    @Test
+    void repricingRacingCartReplacementsSucceeds() throws Exception {
+        List<Long> productIds = seedProducts(userRepository.findByUserName("seller1").orElseThrow());
+        UserDetailsImpl admin = UserDetailsImpl.build(userRepository.findByUserName("admin").orElseThrow());
+        String allProducts = productIds.stream()
+                .map(productId -> "{\"productId\":" + productId + ",\"quantity\":1}")
+                .collect(Collectors.joining(",", "[", "]"));
+        List<UserDetailsImpl> buyers = new ArrayList<>();
+        for (int b = 0; b < THREADS / 2; b++) {
+            User buyer = userRepository.save(new User("reprice-" + b, "reprice-" + b + "@example.com", "secret"));
+            buyers.add(UserDetailsImpl.build(buyer));
+            assertTrue(send(post("/api/cart/create").with(user(buyers.get(b)))
+                    .contentType(MediaType.APPLICATION_JSON).content(allProducts)));
+        }
+
+        AtomicInteger serverErrors = new AtomicInteger();
+        AtomicInteger failedUpdates = new AtomicInteger();
+        hammer(thread -> {
+            for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                if (thread < buyers.size()) {
+                    int status = mockMvc.perform(post("/api/cart/create").with(user(buyers.get(thread)))
+                            .contentType(MediaType.APPLICATION_JSON).content(allProducts))
+                            .andReturn().getResponse().getStatus();
+                    if (status >= 500) {
+                        serverErrors.incrementAndGet();
+                    }
+                    continue;
+                }
+                long productId = productIds.get((thread + i) % PRODUCTS);
+                String product = "{\"productName\":\"Repriced " + productId + "\",\"productDescription\":\"Repriced\","
+                        + "\"quantity\":1000000,\"price\":" + (20 + thread + i) + ",\"discount\":10}";
+                int status = mockMvc.perform(put("/api/admin/products/" + productId).with(user(admin))
+                        .contentType(MediaType.APPLICATION_JSON).content(product))
+                        .andReturn().getResponse().getStatus();
+                if (status >= 400) {
+                    failedUpdates.incrementAndGet();
+                }
+            }
+        });
+
+        send(get("/api/carts").with(user(admin)));
+
+        assertEquals(0, serverErrors.get(), "cart replacements that failed with a server error");
+        assertEquals(0, failedUpdates.get(), "product updates that failed");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items ci JOIN products p ON p.product_id = ci.product_id "
+                        + "JOIN cart c ON c.cart_id = ci.cart_id JOIN users u ON u.user_id = c.user_id "
+                        + "WHERE u.username LIKE 'reprice-%' AND ci.product_price_cents <> p.special_price_cents",
+                Integer.class), "cart lines not at their product's price");
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart c JOIN users u ON u.user_id = c.user_id WHERE u.username LIKE 'reprice-%' "
+                        + "AND c.total_amount_cents <> (SELECT COALESCE(SUM(ci.product_price_cents * ci.quantity), 0) "
+                        + "FROM cart_items ci WHERE ci.cart_id = c.cart_id)",
+                Integer.class), "cart totals against the sum of their lines");
+    }
+
+    private List<Long> seedProducts(User seller) {
+        Category category = categoryRepository.save(new Category(null, "Concurrency", null));
+        List<Product> products = TestCatalog.products(category, seller, PRODUCTS, (product, i) -> {
+            product.setProductDescription("Added to one cart from many threads");
+            product.setQuantity(1_000_000);
+            product.setPrice(1_999 + i);
+            product.setDiscount(1_000);
+            product.setSpecialPrice(1_799 + i);
+        });
+        return productRepository.saveAll(products).stream().map(Product::getProductId).toList();
+    }
+
+    private boolean send(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request).andReturn().getResponse().getStatus() < 400;
+    }
+
+    private static void hammer(ThreadTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int current = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(current);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.TestCatalog;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The cost of reading or editing a cart must not depend on the other carts
+ * its products are in. One product is put in many carts, then the statements
+ * and entity loads of a buyer whose cart holds it are counted with Hibernate
+ * statistics.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CartQueryCountTest {
+    private static final int OTHER_CARTS = 200;
+    private static final int LINES = 5;
+    private static final long MAX_WRITE_STATEMENTS = 9;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserDetailsImpl buyer;
+    private long popularProductId;
+
+    @BeforeAll
+    void seed() throws Exception {
+        List<Long> productIds = seedProducts();
+        popularProductId = productIds.get(0);
+        for (int i = 0; i < OTHER_CARTS; i++) {
+            User other = userRepository.save(new User("holder" + i, "holder" + i + "@example.com", "secret"));
+            send(post("/api/carts/products/" + popularProductId + "/quantity/1")
+                    .with(user(UserDetailsImpl.build(other))));
+        }
+
+        buyer = UserDetailsImpl.build(userRepository.findByUserName("user1").orElseThrow());
+        for (long productId : productIds) {
+            send(post("/api/carts/products/" + productId + "/quantity/1").with(user(buyer)));
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void readingTheCartIsOneStatementAndLoadsNoEntity() throws Exception {
+        measure(get("/api/carts/users/cart").with(user(buyer)));
+
+        assertTrue(statistics.getPrepareStatementCount() <= 1,
+                "read took " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(0, statistics.getEntityLoadCount(), "entities loaded by the read");
+    }
+
+    @Test
+    void quantityChangesOnlyLoadTheCartItsLinesAndTheirProducts() throws Exception {
+        for (String operation : List.of("add", "delete")) {
+            measure(put("/api/cart/products/" + popularProductId + "/quantity/" + operation).with(user(buyer)));
+
+            assertTrue(statistics.getPrepareStatementCount() <= MAX_WRITE_STATEMENTS,
+                    operation + " took " + statistics.getPrepareStatementCount() + " statements");
+            assertTrue(statistics.getEntityLoadCount() <= 1 + 2L * LINES,
+                    operation + " loaded " + statistics.getEntityLoadCount() + " entities");
+        }
+    }
+
+    private List<Long> seedProducts() {
+        Category category = categoryRepository.save(new Category(null, "Query count", null));
+        User seller = userRepository.findByUserName("seller1").orElseThrow();
+        List<Product> products = TestCatalog.products(category, seller, LINES, (product, i) -> {
+            product.setProductDescription("Held by many carts");
+            product.setQuantity(1_000_000);
+            product.setPrice(2_500 + i);
+            product.setSpecialPrice(2_500 + i);
+        });
+        return productRepository.saveAll(products).stream().map(Product::getProductId).toList();
+    }
+
+    private void measure(RequestBuilder request) throws Exception {
+        statistics.clear();
+        send(request);
+    }
+
+    private void send(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,72 @@
+package com.ecombackend.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CartWriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotsReadBackWithTheOwnersLastChangeTime() throws IOException {
+        CartSnapshot cart = new CartSnapshot(7L, 3_000, 1_700_000_000_123L,
+                List.of(new CartLine(11L, 2, 1_000, 500, null), new CartLine(12L, 1, 1_000, 0, null)));
+        try (CartWriteAheadLog log = new CartWriteAheadLog(directory)) {
+            log.sync(log.append(cart));
+            log.sync(log.append(CartSnapshot.released(8L)));
+        }
+
+        try (CartWriteAheadLog log = new CartWriteAheadLog(directory)) {
+            List<CartSnapshot> snapshots = log.readAll();
+
+            assertEquals(2, snapshots.size());
+            assertEquals(cart, snapshots.get(0));
+            assertTrue(snapshots.get(1).isReleased());
+            assertEquals(8L, snapshots.get(1).cartId());
+        }
+    }
+
+    @Test
+    void recordsWithoutALastChangeTimeAreTakenAsChangedWhenRead() throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            out.writeLong(7L);
+            out.writeLong(2_000);
+            out.writeInt(1);
+            out.writeLong(11L);
+            out.writeInt(2);
+            out.writeLong(1_000);
+            out.writeInt(0);
+        }
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length)
+                .putInt(bytes.length)
+                .putInt((int) crc.getValue())
+                .put(bytes);
+        Files.write(directory.resolve("cart-00000000000000000001.wal"), record.array());
+
+        long before = System.currentTimeMillis();
+        try (CartWriteAheadLog log = new CartWriteAheadLog(directory)) {
+            List<CartSnapshot> snapshots = log.readAll();
+
+            assertEquals(1, snapshots.size());
+            assertEquals(List.of(new CartLine(11L, 2, 1_000, 0, null)), snapshots.get(0).lines());
+            assertTrue(snapshots.get(0).lastModified() >= before);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecombackend.cart;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * {@link CartConcurrencyTest} against the write-behind cart store, with a
+ * fresh write-ahead log directory.
+ */
+class WriteBehindCartConcurrencyTest extends CartConcurrencyTest {
+
+    @DynamicPropertySource
+    static void writeBehind(DynamicPropertyRegistry registry) throws IOException {
+        String walDir = Files.createTempDirectory("cart-wal").toString();
+        registry.add("cart.write-behind.enabled", () -> "true");
+        registry.add("cart.write-behind.wal-dir", () -> walDir);
+    }
+}
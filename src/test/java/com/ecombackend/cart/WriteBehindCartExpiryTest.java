@@ -0,0 +1,135 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.entity.Cart;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.CartRepository;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import com.ecombackend.service.CartExpiryService;
+import com.ecombackend.service.impl.WriteBehindCartServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A change acknowledged by the write-behind store must reach the database
+ * even if the cart had expired when it was made. Sweeps and flushes are only
+ * run by the test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WriteBehindCartExpiryTest {
+    private static final Instant LONG_AGO = Instant.now().minus(Duration.ofDays(60));
+
+    @DynamicPropertySource
+    static void writeBehind(DynamicPropertyRegistry registry) throws IOException {
+        String walDir = Files.createTempDirectory("cart-wal").toString();
+        registry.add("cart.write-behind.enabled", () -> "true");
+        registry.add("cart.write-behind.wal-dir", () -> walDir);
+        registry.add("cart.write-behind.flush-interval", () -> "1h");
+        registry.add("cart.expiry.enabled", () -> "true");
+        registry.add("cart.expiry.interval", () -> "1h");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private WriteBehindCartServiceImpl cartStore;
+    @Autowired
+    private CartExpiryService cartExpiryService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CartRepository cartRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void theSweeperKeepsACartWithAnUnwrittenChange() throws Exception {
+        User owner = userRepository.save(new User("expiry1", "expiry1@example.com", "secret"));
+        long cartId = seedAbandonedCart(owner);
+        long productId = seedProduct();
+
+        mockMvc.perform(post("/api/carts/products/" + productId + "/quantity/1")
+                        .with(user(UserDetailsImpl.build(owner))))
+                .andExpect(status().isCreated());
+        cartExpiryService.expireIdleCarts();
+        cartStore.flush();
+
+        assertEquals(List.of(productId), productsInCart(cartId), "lines of the cart after the sweep");
+    }
+
+    @Test
+    void aChangeToACartDeletedByAnotherNodeGoesToANewCart() throws Exception {
+        User owner = userRepository.save(new User("expiry2", "expiry2@example.com", "secret"));
+        UserDetailsImpl principal = UserDetailsImpl.build(owner);
+        long expiredCartId = seedAbandonedCart(owner);
+        long productId = seedProduct();
+        mockMvc.perform(get("/api/carts/users/cart").with(user(principal)))
+                .andExpect(status().isOk());
+
+        // Deleted by a sweeper that does not tell this node's store
+        jdbcTemplate.update("DELETE FROM cart WHERE cart_id = ?", expiredCartId);
+        mockMvc.perform(post("/api/carts/products/" + productId + "/quantity/1").with(user(principal)))
+                .andExpect(status().isCreated());
+        cartStore.flush();
+
+        List<Long> cartIds = jdbcTemplate.queryForList(
+                "SELECT cart_id FROM cart WHERE user_id = ?", Long.class, owner.getUserId());
+        assertEquals(1, cartIds.size(), "carts of the owner");
+        assertNotEquals(expiredCartId, cartIds.get(0));
+        assertEquals(List.of(productId), productsInCart(cartIds.get(0)), "lines of the new cart");
+    }
+
+    private long seedAbandonedCart(User owner) {
+        Cart cart = new Cart();
+        cart.setUser(owner);
+        cart.setLastModified(LONG_AGO);
+        return cartRepository.save(cart).getCartId();
+    }
+
+    private long seedProduct() {
+        Category category = categoryRepository.save(new Category(null, "Expiry " + System.nanoTime(), null));
+        Product product = new Product();
+        product.setProductName("Added to an abandoned cart");
+        product.setProductDescription("Its cart expired before it was added");
+        product.setQuantity(100);
+        product.setPrice(1_000);
+        product.setSpecialPrice(1_000);
+        product.setCategory(category);
+        product.setUser(userRepository.findByUserName("seller1").orElseThrow());
+        return productRepository.save(product).getProductId();
+    }
+
+    private List<Long> productsInCart(long cartId) {
+        return jdbcTemplate.queryForList("SELECT product_id FROM cart_items WHERE cart_id = ?", Long.class, cartId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecombackend.cart;
+
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.event.ProductChangedEvent;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import com.ecombackend.service.impl.WriteBehindCartServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The write-behind store writes the time the owner last changed a cart,
+ * not the time of the flush. Flushes are only run by the test.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WriteBehindLastModifiedTest {
+
+    @DynamicPropertySource
+    static void writeBehind(DynamicPropertyRegistry registry) throws IOException {
+        String walDir = Files.createTempDirectory("cart-wal").toString();
+        registry.add("cart.write-behind.enabled", () -> "true");
+        registry.add("cart.write-behind.wal-dir", () -> walDir);
+        registry.add("cart.write-behind.flush-interval", () -> "1h");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private WriteBehindCartServiceImpl cartStore;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void repricingDoesNotMoveTheOwnersLastChangeTime() throws Exception {
+        UserDetailsImpl buyer = UserDetailsImpl.build(userRepository.findByUserName("user1").orElseThrow());
+        Product product = seedProduct();
+        mockMvc.perform(post("/api/carts/products/" + product.getProductId() + "/quantity/2").with(user(buyer)))
+                .andExpect(status().isCreated());
+        cartStore.flush();
+        long cartId = jdbcTemplate.queryForObject("SELECT cart_id FROM cart WHERE user_id = ?", Long.class,
+                buyer.getId());
+        Instant ownerChange = lastModified(cartId);
+
+        Thread.sleep(20);
+        jdbcTemplate.update("UPDATE products SET special_price_cents = 1500 WHERE product_id = ?",
+                product.getProductId());
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getProductId(),
+                product.getCategory().getCategoryId(), false));
+        cartStore.flush();
+
+        assertEquals(3_000, totalAmount(cartId), "repriced total");
+        assertEquals(ownerChange, lastModified(cartId));
+
+        mockMvc.perform(put("/api/cart/products/" + product.getProductId() + "/quantity/add").with(user(buyer)))
+                .andExpect(status().isOk());
+        cartStore.flush();
+
+        assertEquals(4_500, totalAmount(cartId), "total after the owner's change");
+        assertTrue(lastModified(cartId).isAfter(ownerChange), "an owner's change moves the time");
+    }
+
+    private Product seedProduct() {
+        Category category = categoryRepository.save(new Category(null, "Last modified", null));
+        Product product = new Product();
+        product.setProductName("Repriced product");
+        product.setProductDescription("Its price changes while it is in a cart");
+        product.setQuantity(100);
+        product.setPrice(2_000);
+        product.setSpecialPrice(2_000);
+        product.setCategory(category);
+        product.setUser(userRepository.findByUserName("seller1").orElseThrow());
+        return productRepository.save(product);
+    }
+
+    private Instant lastModified(long cartId) {
+        return jdbcTemplate.queryForObject("SELECT last_modified FROM cart WHERE cart_id = ?", Timestamp.class,
+                cartId).toInstant();
+    }
+
+    private long totalAmount(long cartId) {
+        return jdbcTemplate.queryForObject("SELECT total_amount_cents FROM cart WHERE cart_id = ?", Long.class,
+                cartId);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecombackend.pagination;
+
+import com.ecombackend.entity.Category;
+import com.ecombackend.repository.CategoryRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Following the cursors of a scrolled listing visits every row once, and a
+ * page size below one is refused rather than answered with an empty window.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CursorScrollTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void followingTheCursorsVisitsEveryCategoryOnce() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            categoryRepository.save(new Category(null, "Scrolled " + i, null));
+        }
+
+        Set<Long> visited = new HashSet<>();
+        String cursor = null;
+        JsonNode window;
+        do {
+            window = scroll("/api/public/categories/scroll?PageSize=2&sortBy=categoryName"
+                    + (cursor == null ? "" : "&cursor=" + cursor));
+            window.get("content").forEach(category ->
+                    assertTrue(visited.add(category.get("categoryId").asLong()), "visited twice"));
+            cursor = window.get("nextCursor").asText(null);
+        } while (!window.get("lastPage").asBoolean());
+
+        assertEquals(categoryRepository.count(), visited.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void pageSizeBelowOneIsRefused(int pageSize) throws Exception {
+        mockMvc.perform(get("/api/public/products/scroll?pageSize=" + pageSize).with(user("shopper")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/public/categories/scroll?PageSize=" + pageSize).with(user("shopper")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode scroll(String url) throws Exception {
+        String body = mockMvc.perform(get(url).with(user("shopper")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,63 @@
+package com.ecombackend.pricing;
+
+import com.ecombackend.exception.APIException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @ParameterizedTest
+    @CsvSource({
+            "0.285, 29",
+            "0.125, 13",
+            "0.124, 12",
+            "19.995, 2000",
+            "1.005, 101",
+            "-0.125, -13",
+            "0, 0"
+    })
+    void amountsRoundHalfUpToTheCent(double amount, long cents) {
+        assertEquals(cents, Money.toCents(amount));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "12.345, 1235",
+            "12.344, 1234",
+            "0.005, 1",
+            "100, 10000",
+            "0, 0"
+    })
+    void percentagesRoundHalfUpToTheBasisPoint(double percent, int basisPoints) {
+        assertEquals(basisPoints, Money.toBasisPoints(percent));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 5, 77, 123456})
+    void centsSurviveTheRoundTripThroughAmounts(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < 10_000; i++) {
+            long cents = random.nextLong(Money.MAX_AMOUNT * Money.CENTS_PER_UNIT);
+            double amount = Money.toAmount(cents);
+            assertEquals(BigDecimal.valueOf(cents, 2), BigDecimal.valueOf(amount).setScale(2));
+            assertEquals(cents, Money.toCents(amount));
+        }
+    }
+
+    @Test
+    void outOfRangeValuesAreRejected() {
+        assertThrows(APIException.class, () -> Money.toCents(Double.NaN));
+        assertThrows(APIException.class, () -> Money.toCents(Double.POSITIVE_INFINITY));
+        assertThrows(APIException.class, () -> Money.toCents(Money.MAX_AMOUNT + 1.0));
+        assertThrows(APIException.class, () -> Money.toBasisPoints(-0.01));
+        assertThrows(APIException.class, () -> Money.toBasisPoints(100.01));
+    }
+}
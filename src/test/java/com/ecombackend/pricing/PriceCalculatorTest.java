@@ -0,0 +1,74 @@
+package com.ecombackend.pricing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceCalculatorTest {
+    private static final int LINES = 10_000;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 42, 2024, 987654321})
+    void cartTotalsEqualDecimalSumOfRandomLines(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long total = 0;
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            long priceCents = random.nextLong(Money.MAX_AMOUNT / 1_000);
+            int quantity = random.nextInt(-5, 100);
+            total = PriceCalculator.addLine(total, priceCents, quantity);
+            expected = expected.add(BigDecimal.valueOf(priceCents, 2).multiply(BigDecimal.valueOf(quantity)));
+        }
+        assertEquals(expected, BigDecimal.valueOf(total, 2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 7, 99, 31337})
+    void specialPricesEqualDecimalPriceLessDiscountRoundedHalfUp(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < LINES; i++) {
+            long priceCents = random.nextLong(Money.MAX_AMOUNT * Money.CENTS_PER_UNIT);
+            int discount = random.nextInt(100 * Money.BASIS_POINTS_PER_PERCENT + 1);
+            BigDecimal price = BigDecimal.valueOf(priceCents, 2);
+            BigDecimal discountAmount = price.multiply(BigDecimal.valueOf(discount, 4))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(price.subtract(discountAmount),
+                    BigDecimal.valueOf(PriceCalculator.specialPrice(priceCents, discount), 2),
+                    () -> "price " + priceCents + " discount " + discount);
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // 10% of 0.05 is 0.005, rounded up to a cent
+            "5, 1000, 1",
+            // 10% of 0.15 is 0.015, rounded up to two cents
+            "15, 1000, 2",
+            // 10% of 0.14 is 0.014, rounded down
+            "14, 1000, 1",
+            // 0.5% of 1.00 is exactly half a cent
+            "100, 50, 1",
+            "100, 49, 0",
+            "999, 10000, 999",
+            "0, 5000, 0"
+    })
+    void discountIsRoundedHalfUpToTheCent(long priceCents, int discount, long expected) {
+        assertEquals(expected, PriceCalculator.discountAmount(priceCents, discount));
+    }
+
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.addLine(Long.MAX_VALUE, 1, 1));
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.addLine(Long.MIN_VALUE, 1, -1));
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.lineTotal(Long.MAX_VALUE / 2 + 1, 2));
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.discountAmount(Long.MAX_VALUE, 10_000));
+    }
+}
@@ -0,0 +1,246 @@
+package com.ecombackend.repository;
+
+import com.ecombackend.TestCatalog;
+import com.ecombackend.dto.CategoryDTO;
+import com.ecombackend.dto.ProductDTO;
+import com.ecombackend.entity.Address;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Order;
+import com.ecombackend.entity.OrderItem;
+import com.ecombackend.entity.Payment;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.projection.OrderItemView;
+import com.ecombackend.repository.projection.OrderListView;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The product, category and order listings read DTO projections, so a page
+ * costs a fixed number of statements and loads no entity, whatever its size.
+ * The same holds for the windows of the keyset-scrolled listings.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ListingQueryCountTest {
+    private static final int CATEGORIES = 3;
+    private static final int PRODUCTS_PER_CATEGORY = 40;
+    private static final int ORDERS = 60;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long categoryId;
+
+    @BeforeEach
+    void seed() {
+        User seller = entityManager.persist(new User("seller", "seller@example.com", "secret"));
+        Address address = new Address();
+        address.setStreet("Main Street");
+        address.setCity("Springfield");
+        address.setUser(seller);
+        entityManager.persist(address);
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < CATEGORIES; c++) {
+            Category category = entityManager.persist(new Category(null, "Category " + c, null));
+            categoryId = category.getCategoryId();
+            int categoryIndex = c;
+            for (Product product : TestCatalog.products(category, seller, PRODUCTS_PER_CATEGORY, (product, p) -> {
+                product.setProductName("Product " + categoryIndex + "-" + p);
+                product.setProductDescription(p % 3 == 0 ? null : "Description of product " + categoryIndex + "-" + p);
+                product.setPrice(1_000 + p);
+                product.setSpecialPrice(900 + p);
+                product.setDiscount(1_000);
+            })) {
+                products.add(entityManager.persist(product));
+            }
+        }
+
+        for (int o = 0; o < ORDERS; o++) {
+            Payment payment = entityManager.persist(new Payment("card", "pg-" + o, "succeeded", "ok", "stripe"));
+            Order order = new Order();
+            order.setEmail("buyer" + o + "@example.com");
+            order.setOrderDate(LocalDate.now());
+            order.setOrderStatus("Order Accepted !");
+            order.setAddress(address);
+            order.setPayment(payment);
+            entityManager.persist(order);
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                Product product = products.get((o * ITEMS_PER_ORDER + i) % products.size());
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setProduct(product);
+                item.setSeller(seller);
+                item.setQuantity(1);
+                item.setOrderedProductPrice(product.getSpecialPrice());
+                entityManager.persist(item);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void productPageIsRowsAndCount(int pageSize) {
+        Page<ProductDTO> page = productRepository.findAllProductDTOs(
+                PageRequest.of(1, pageSize, Sort.by("price").ascending()));
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(CATEGORIES * PRODUCTS_PER_CATEGORY, page.getTotalElements());
+        assertStatements(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 20})
+    void categoryProductPageIsRowsAndCount(int pageSize) {
+        Page<ProductDTO> page = productRepository.findProductDTOsByCategoryId(categoryId,
+                PageRequest.of(1, pageSize));
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(PRODUCTS_PER_CATEGORY, page.getTotalElements());
+        assertStatements(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ASC", "DESC"})
+    void categoryProductPageFollowsTheRequestedSort(Sort.Direction direction) {
+        List<ProductDTO> products = productRepository.findProductDTOsByCategoryId(categoryId,
+                PageRequest.of(0, PRODUCTS_PER_CATEGORY, Sort.by(direction, "productName"))).getContent();
+
+        List<String> names = products.stream().map(ProductDTO::getProductName).toList();
+        List<String> sorted = names.stream().sorted(direction.isAscending()
+                ? Comparator.<String>naturalOrder() : Comparator.<String>reverseOrder()).toList();
+        assertEquals(sorted, names);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void categoryPageIsRowsAndCount(int pageSize) {
+        Page<CategoryDTO> page = categoryRepository.findAllCategoryDTOs(
+                PageRequest.of(0, pageSize, Sort.by("categoryId")));
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(CATEGORIES, page.getTotalElements());
+        assertStatements(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void orderPageWithItemsIsThreeStatements(int pageSize) {
+        Page<OrderListView> page = orderRepository.findAllOrderViews(
+                PageRequest.of(0, pageSize, Sort.by("orderId")));
+        List<OrderItemView> items = orderItemRepository.findItemViewsByOrderIds(
+                page.getContent().stream().map(OrderListView::getOrderId).toList());
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(ORDERS, page.getTotalElements());
+        assertEquals(pageSize * ITEMS_PER_ORDER, items.size());
+        assertStatements(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {7, 50})
+    void productScrollIsOneStatementPerWindow(int pageSize) {
+        List<ProductDTO> scrolled = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        int windows = 0;
+        Window<ProductDTO> window;
+        do {
+            window = productRepository.scrollProductDTOs(position, Sort.by("price").descending(), pageSize);
+            scrolled.addAll(window.getContent());
+            position = window.positionAt(window.size() - 1);
+            windows++;
+        } while (window.hasNext());
+
+        assertEquals(CATEGORIES * PRODUCTS_PER_CATEGORY, scrolled.size());
+        for (int i = 1; i < scrolled.size(); i++) {
+            ProductDTO previous = scrolled.get(i - 1);
+            ProductDTO current = scrolled.get(i);
+            assertTrue(previous.getPrice() > current.getPrice()
+                    || previous.getPrice().equals(current.getPrice())
+                    && previous.getProductId() < current.getProductId(), "order at " + i);
+        }
+        assertStatements(windows);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ASC", "DESC"})
+    void productScrollReachesRowsWithoutASortKey(Sort.Direction direction) {
+        List<ProductDTO> scrolled = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<ProductDTO> window;
+        do {
+            window = productRepository.scrollProductDTOs(position, Sort.by(direction, "productDescription"), 7);
+            scrolled.addAll(window.getContent());
+            position = window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+
+        assertEquals(CATEGORIES * PRODUCTS_PER_CATEGORY, scrolled.size());
+        assertEquals(scrolled.size(), scrolled.stream().map(ProductDTO::getProductId).distinct().count());
+        int firstNull = (int) scrolled.stream().takeWhile(product -> product.getProductDescription() != null).count();
+        assertTrue(scrolled.subList(firstNull, scrolled.size()).stream()
+                .allMatch(product -> product.getProductDescription() == null), "null descriptions come last");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {5, 50})
+    void orderScrollWithItemsIsTwoStatements(int pageSize) {
+        Window<OrderListView> first = orderRepository.scrollOrderViews(ScrollPosition.keyset(),
+                Sort.by("orderId"), pageSize);
+        Window<OrderListView> second = orderRepository.scrollOrderViews(first.positionAt(first.size() - 1),
+                Sort.by("orderId"), pageSize);
+        List<OrderItemView> items = orderItemRepository.findItemViewsByOrderIds(
+                second.getContent().stream().map(OrderListView::getOrderId).toList());
+
+        assertEquals(pageSize, first.size());
+        assertEquals(Math.min(pageSize, ORDERS - pageSize), second.size());
+        assertTrue(first.getContent().get(pageSize - 1).getOrderId() < second.getContent().get(0).getOrderId());
+        assertEquals(second.size() * ITEMS_PER_ORDER, items.size());
+        assertStatements(3);
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(), "prepared statements");
+        assertEquals(0, statistics.getEntityLoadCount(), "entities loaded");
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecombackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    @Test
+    void termMatchingEveryProductCountsEveryHit() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        int products = 1_000;
+        for (int i = 1; i <= products; i++) {
+            index.index(document(i, "widget " + i, "a common widget", 0));
+        }
+
+        SearchHits hits = index.search("widget", 0, 10);
+
+        assertEquals(products, hits.getTotalHits());
+        assertEquals(10, hits.getProductIds().size());
+    }
+
+    @Test
+    void pagesPastTheLastHitAreEmpty() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "red shoe", "leather", 0));
+        index.index(document(2, "blue shoe", "canvas", 0));
+
+        assertEquals(List.of(), index.search("shoe", 2, 10).getProductIds());
+        SearchHits far = index.search("shoe", Integer.MAX_VALUE, Integer.MAX_VALUE);
+        assertEquals(2, far.getTotalHits());
+        assertTrue(far.getProductIds().isEmpty());
+        assertEquals(1, index.search("shoe", 1, Integer.MAX_VALUE).getProductIds().size());
+        assertThrows(IllegalArgumentException.class, () -> index.search("shoe", -10, 10));
+    }
+
+    @Test
+    void matchesAreSortedByTheKeptFieldsThenById() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.index(document(1, "red shoe", "leather", 5_000));
+        index.index(document(2, "blue shoe", "canvas", 2_000));
+        index.index(document(3, "green shoe", "suede", 5_000));
+        index.index(document(4, "red hat", "wool", 1_000));
+
+        assertEquals(List.of(2L, 1L, 3L), index.search("shoe", SearchSortField.PRICE, true, 0, 10).getProductIds());
+        assertEquals(List.of(1L, 3L), index.search("shoe", SearchSortField.PRICE, false, 0, 2).getProductIds());
+        assertEquals(List.of(3L), index.search("shoe", SearchSortField.PRODUCT_NAME, true, 1, 1).getProductIds());
+
+        index.updateQuantity(3, 0);
+        assertEquals(List.of(3L, 1L, 2L), index.search("shoe", SearchSortField.QUANTITY, true, 0, 10).getProductIds());
+    }
+
+    private static SearchDocument document(long productId, String name, String description, long price) {
+        return new SearchDocument(productId, name, description, price, 0, price, (int) productId);
+    }
+}
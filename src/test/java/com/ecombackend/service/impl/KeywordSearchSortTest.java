@@ -0,0 +1,102 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.TestCatalog;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.search.ProductSearchIndex;
+import com.ecombackend.search.SearchDocument;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sorting keyword matches by a field covers every match, not only the most
+ * relevant ones: the cheapest products are the last ones created. Fields the
+ * search index does not keep are refused.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class KeywordSearchSortTest {
+    private static final int MATCHES = 2_500;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private ProductSearchIndex searchIndex;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void everyMatchIsSortedAndTheTotalIsTheNumberOfMatches() throws Exception {
+        List<Long> productIds = seedProducts();
+
+        JsonNode page = search("/api/public/products/keyword/gadget?sortBy=price&sortOrder=asc&pageNumber=1&pageSize=10");
+
+        List<Long> expected = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            expected.add(productIds.get(MATCHES - 10 - i));
+        }
+        List<Long> found = new ArrayList<>();
+        page.get("contents").forEach(product -> found.add(product.get("productId").asLong()));
+        assertEquals(expected, found, "second page of the cheapest matches");
+        assertEquals(MATCHES, page.get("totalElements").asLong());
+        assertEquals(MATCHES / 10, page.get("totalPages").asInt());
+
+        mockMvc.perform(get("/api/public/products/keyword/gadget?sortBy=price&pageNumber=100&pageSize=10")
+                        .with(user("shopper")))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/public/products/keyword/gadget?sortBy=imageUrl")
+                        .with(user("shopper")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private List<Long> seedProducts() {
+        Category category = categoryRepository.save(new Category(null, "Sorted search", null));
+        User seller = userRepository.findByUserName("seller1").orElseThrow();
+        List<Product> products = TestCatalog.products(category, seller, MATCHES, (product, i) -> {
+            product.setProductName("Gadget " + i);
+            product.setProductDescription("Matches the keyword");
+            product.setQuantity(10);
+            product.setPrice(100_000 - i);
+            product.setSpecialPrice(100_000 - i);
+        });
+        List<Long> productIds = new ArrayList<>();
+        for (Product product : productRepository.saveAll(products)) {
+            searchIndex.index(new SearchDocument(product.getProductId(), product.getProductName(),
+                    product.getProductDescription(), product.getPrice(), product.getDiscount(),
+                    product.getSpecialPrice(), product.getQuantity()));
+            productIds.add(product.getProductId());
+        }
+        return productIds;
+    }
+
+    private JsonNode search(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url).with(user("shopper")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
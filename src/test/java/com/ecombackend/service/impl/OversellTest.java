@@ -0,0 +1,184 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.TestCatalog;
+import com.ecombackend.dto.OrderRequestDTO;
+import com.ecombackend.entity.Address;
+import com.ecombackend.entity.Category;
+import com.ecombackend.entity.Product;
+import com.ecombackend.entity.User;
+import com.ecombackend.repository.AddressRepository;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Gives more buyers than there is stock one unit each of a product, then
+ * releases all their checkouts at the same instant. No more than the stock
+ * may be sold, the stock left and the units sold must add up, and every
+ * successful checkout must have sold exactly one unit.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OversellTest {
+    private static final int BUYERS = 120;
+    private static final int STOCK = 40;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void concurrentCheckoutsNeverSellMoreThanTheStock() throws Exception {
+        long productId = seedProduct("Oversell", STOCK);
+        List<UserDetailsImpl> buyers = new ArrayList<>();
+        List<Long> addressIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            buyers.add(seedBuyer("oversell" + i, addressIds));
+            addToCart(buyers.get(i), productId);
+        }
+
+        Set<Integer> stockReported = ConcurrentHashMap.newKeySet();
+        int successes = checkOutAtOnce(buyers, addressIds, order -> stockReported.add(
+                order.path("orderItems").path(0).path("product").path("quantity").asInt()));
+
+        int remaining = jdbcTemplate.queryForObject(
+                "SELECT quantity FROM products WHERE product_id = ?", Integer.class, productId);
+        long sold = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?", Long.class, productId);
+        assertTrue(sold <= STOCK, sold + " units sold from a stock of " + STOCK);
+        assertEquals(STOCK, remaining + sold, "stock left plus units sold");
+        assertEquals(sold, successes, "units sold against successful checkouts");
+        assertTrue(sold > 0, "no checkout succeeded");
+        assertEquals(IntStream.range(remaining, STOCK).boxed().collect(Collectors.toSet()), stockReported,
+                "each order reports the stock its own checkout left");
+    }
+
+    /**
+     * Half the carts hold the two products in one order and half in the
+     * other; with enough stock for everyone, every checkout must go through
+     * rather than lose a deadlock.
+     */
+    @Test
+    void checkoutsOfTheSameProductsInEitherOrderAllSucceed() throws Exception {
+        long first = seedProduct("Either order A", BUYERS);
+        long second = seedProduct("Either order B", BUYERS);
+        List<UserDetailsImpl> buyers = new ArrayList<>();
+        List<Long> addressIds = new ArrayList<>();
+        for (int i = 0; i < BUYERS / 2; i++) {
+            UserDetailsImpl buyer = seedBuyer("either" + i, addressIds);
+            addToCart(buyer, i % 2 == 0 ? first : second);
+            addToCart(buyer, i % 2 == 0 ? second : first);
+            buyers.add(buyer);
+        }
+
+        assertEquals(buyers.size(), checkOutAtOnce(buyers, addressIds, order -> {
+        }), "successful checkouts");
+    }
+
+    private UserDetailsImpl seedBuyer(String userName, List<Long> addressIds) {
+        User buyer = userRepository.save(new User(userName, userName + "@example.com", "secret"));
+        Address address = new Address();
+        address.setStreet("Checkout Lane " + addressIds.size());
+        address.setCity("Springfield");
+        address.setUser(buyer);
+        addressIds.add(addressRepository.save(address).getAddressId());
+        return UserDetailsImpl.build(buyer);
+    }
+
+    private void addToCart(UserDetailsImpl buyer, long productId) throws Exception {
+        mockMvc.perform(post("/api/carts/products/" + productId + "/quantity/1").with(user(buyer)))
+                .andExpect(status().isCreated());
+    }
+
+    /**
+     * Releases the checkouts of every buyer at the same instant and returns
+     * how many succeeded, handing each placed order to {@code onOrder}.
+     */
+    private int checkOutAtOnce(List<UserDetailsImpl> buyers, List<Long> addressIds,
+                               Consumer<JsonNode> onOrder) throws Exception {
+        AtomicInteger successes = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            List<Future<?>> checkouts = new ArrayList<>();
+            for (int i = 0; i < buyers.size(); i++) {
+                UserDetailsImpl buyer = buyers.get(i);
+                OrderRequestDTO order = new OrderRequestDTO(addressIds.get(i), "card", "Stripe",
+                        "pi_" + buyer.getUsername(), "succeeded", "Payment successful");
+                checkouts.add(executor.submit(() -> {
+                    start.await();
+                    MockHttpServletResponse response = mockMvc.perform(
+                                    post("/api/order/users/payments/card").with(user(buyer))
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .content(objectMapper.writeValueAsBytes(order)))
+                            .andReturn().getResponse();
+                    if (response.getStatus() < 400) {
+                        successes.incrementAndGet();
+                        onOrder.accept(objectMapper.readTree(response.getContentAsString()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> checkout : checkouts) {
+                checkout.get();
+            }
+        }
+        return successes.get();
+    }
+
+    private long seedProduct(String categoryName, int stock) {
+        Category category = categoryRepository.save(new Category(null, categoryName, null));
+        User seller = userRepository.findByUserName("seller1").orElseThrow();
+        Product product = TestCatalog.products(category, seller, 1, (limited, i) -> {
+            limited.setProductName("Limited edition");
+            limited.setProductDescription("Fewer units than buyers");
+            limited.setQuantity(stock);
+            limited.setPrice(4_999);
+            limited.setSpecialPrice(4_999);
+        }).getFirst();
+        return productRepository.save(product).getProductId();
+    }
+}
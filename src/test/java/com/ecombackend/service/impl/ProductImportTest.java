@@ -0,0 +1,109 @@
+package com.ecombackend.service.impl;
+
+import com.ecombackend.entity.Category;
+import com.ecombackend.repository.CategoryRepository;
+import com.ecombackend.repository.ProductImportRepository;
+import com.ecombackend.repository.UserRepository;
+import com.ecombackend.security.service.UserDetailsImpl;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Import uploads are capped while they are spooled, and the job status is
+ * read from the database rather than from the node that ran the import.
+ */
+@SpringBootTest(properties = "catalog.import.max-bytes=1KB")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductImportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductImportRepository productImportRepository;
+
+    @Test
+    void jobStatusIsReadFromTheDatabase() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "Imported", null));
+        String csv = """
+                productName,quantity,price
+                Desk Lamp,40,1499.00
+                Notebook,500,99.00
+                Broken,-1,1.00
+                """;
+
+        String accepted = mockMvc.perform(post("/api/admin/categories/" + category.getCategoryId() + "/products/import")
+                        .with(user(admin()))
+                        .contentType(MediaType.valueOf("text/csv"))
+                        .content(csv))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(accepted).get("jobId").asText();
+
+        JsonNode job = awaitFinished(jobId);
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(2, job.get("rowsImported").asLong());
+        assertEquals(1, job.get("rowsFailed").asLong());
+        assertEquals(3, job.get("errors").get(0).get("row").asLong());
+
+        var stored = productImportRepository.findById(jobId).orElseThrow();
+        assertEquals("COMPLETED", stored.getStatus());
+        assertEquals(1, stored.getErrors().size());
+    }
+
+    @Test
+    void uploadOverTheLimitIsRejected() throws Exception {
+        Category category = categoryRepository.save(new Category(null, "Too large", null));
+        long jobs = productImportRepository.count();
+        StringBuilder csv = new StringBuilder("productName,quantity,price\n");
+        for (int i = 0; csv.length() <= 1024; i++) {
+            csv.append("Product ").append(i).append(",1,1.00\n");
+        }
+
+        mockMvc.perform(post("/api/admin/categories/" + category.getCategoryId() + "/products/import")
+                        .with(user(admin()))
+                        .contentType(MediaType.valueOf("text/csv"))
+                        .content(csv.toString()))
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(jobs, productImportRepository.count());
+    }
+
+    private JsonNode awaitFinished(String jobId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            String body = mockMvc.perform(get("/api/admin/products/imports/" + jobId).with(user(admin())))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode job = objectMapper.readTree(body);
+            String jobStatus = job.get("status").asText();
+            if (!jobStatus.equals("QUEUED") && !jobStatus.equals("RUNNING")
+                    || System.currentTimeMillis() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private UserDetailsImpl admin() {
+        return UserDetailsImpl.build(userRepository.findByUserName("admin").orElseThrow());
+    }
+}